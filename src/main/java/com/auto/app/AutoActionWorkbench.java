@@ -4,9 +4,14 @@ import com.auto.config.AppConfig;
 import com.auto.config.AppConfigLoader;
 import com.auto.config.ClickBackend;
 import com.auto.input.interception.InterceptionBootstrap;
+import com.auto.config.MapClosureConfig;
+import com.auto.config.MapPreprocessConfig;
+import com.auto.config.NavigationConfig;
+import com.auto.config.OcrConfig;
 import com.auto.config.PointConfig;
 import com.auto.config.RegionConfig;
 import com.auto.config.VisionConfig;
+import com.auto.config.YoloConfig;
 import com.auto.input.InputController;
 import com.auto.input.RobotInputController;
 import com.auto.opencv.utils.ImageProcessor;
@@ -62,6 +67,7 @@ import java.io.File;
 import java.io.IOException;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 
 public final class AutoActionWorkbench extends JFrame {
@@ -346,17 +352,7 @@ public final class AutoActionWorkbench extends JFrame {
             VisionConfig config = buildVisionConfig();
             NavigationAnalysis analysis = analyzer.analyzeSample(config);
             if (!analysis.success()) {
-                VisionConfig demoConfig = new VisionConfig(
-                        config.windowTitle(),
-                        config.mapImage(),
-                        config.arrowTemplate(),
-                        config.miniMapRegion(),
-                        new PointConfig(500, 260),
-                        config.matchAreaSize(),
-                        config.obstacleThreshold(),
-                        config.moveStep(),
-                        config.arriveDistance()
-                );
+                VisionConfig demoConfig = config.withTarget(new PointConfig(500, 260));
                 analysis = analyzer.analyzeSample(demoConfig);
                 appendLog("当前目标点在示例图上不可达，示例已切换到演示目标点 (500, 260)。");
             }
@@ -565,10 +561,9 @@ public final class AutoActionWorkbench extends JFrame {
     }
 
     private VisionConfig buildVisionConfig() {
-        return new VisionConfig(
+        return buildVisionConfig(
+                loadedConfig != null ? loadedConfig.vision() : null,
                 windowTitleField.getText().trim(),
-                loadedConfig != null ? loadedConfig.vision().mapImage() : "img/sggd/largeMap_2.bmp",
-                loadedConfig != null ? loadedConfig.vision().arrowTemplate() : "img/arrow_template2.bmp",
                 new RegionConfig(
                         ((Number) miniMapXSpinner.getValue()).intValue(),
                         ((Number) miniMapYSpinner.getValue()).intValue(),
@@ -586,6 +581,39 @@ public final class AutoActionWorkbench extends JFrame {
         );
     }
 
+    /**
+     * The workbench's fields on top of the loaded vision config; navigation settings the workbench has no
+     * controls for (planner, localization flags, ...) and the zones are taken from {@code loaded} as they are.
+     */
+    static VisionConfig buildVisionConfig(
+            VisionConfig loaded,
+            String windowTitle,
+            RegionConfig miniMapRegion,
+            PointConfig target,
+            int matchAreaSize,
+            double obstacleThreshold,
+            int moveStep,
+            double arriveDistance
+    ) {
+        return new VisionConfig(
+                windowTitle,
+                loaded != null ? loaded.mapImage() : "img/sggd/largeMap_2.bmp",
+                loaded != null ? loaded.arrowTemplate() : "img/arrow_template2.bmp",
+                miniMapRegion,
+                target,
+                matchAreaSize,
+                obstacleThreshold,
+                moveStep,
+                arriveDistance,
+                OcrConfig.disabled(),
+                YoloConfig.disabled(),
+                MapPreprocessConfig.defaults(),
+                MapClosureConfig.defaults(),
+                loaded != null ? loaded.navigation() : NavigationConfig.defaults(),
+                loaded != null ? loaded.zones() : List.of()
+        );
+    }
+
     private void setSourceImage(BufferedImage image, Rectangle bounds, String name) {
         currentSourceImage = image;
         currentSourceBounds = bounds;
@@ -92,10 +92,37 @@ public final class AppConfigLoader {
                 vision.has("yolo") ? parseYolo(vision.getJSONObject("yolo")) : YoloConfig.disabled(),
                 vision.has("mapPreprocess") ? parseMapPreprocess(vision.getJSONObject("mapPreprocess")) : MapPreprocessConfig.defaults(),
                 vision.has("mapClosure") ? parseMapClosure(vision.getJSONObject("mapClosure")) : MapClosureConfig.defaults(),
-                vision.has("navigation") ? parseNavigation(vision.getJSONObject("navigation")) : NavigationConfig.defaults()
+                vision.has("navigation") ? parseNavigation(vision.getJSONObject("navigation")) : NavigationConfig.defaults(),
+                parseZones(vision.optJSONArray("zones"))
         );
     }
 
+    private static List<ZoneConfig> parseZones(JSONArray zonesArray) {
+        List<ZoneConfig> zones = new ArrayList<>();
+        if (zonesArray == null) {
+            return zones;
+        }
+        for (int i = 0; i < zonesArray.length(); i++) {
+            JSONObject zone = zonesArray.getJSONObject(i);
+            List<PortalConfig> portals = new ArrayList<>();
+            JSONArray portalsArray = zone.optJSONArray("portals");
+            if (portalsArray != null) {
+                for (int j = 0; j < portalsArray.length(); j++) {
+                    JSONObject portal = portalsArray.getJSONObject(j);
+                    portals.add(new PortalConfig(
+                            requiredString(portal, "name"),
+                            portal.getInt("x"),
+                            portal.getInt("y"),
+                            requiredString(portal, "targetZone"),
+                            requiredString(portal, "targetPortal")
+                    ));
+                }
+            }
+            zones.add(new ZoneConfig(requiredString(zone, "name"), requiredString(zone, "mapImage"), portals));
+        }
+        return zones;
+    }
+
     private static NavigationConfig parseNavigation(JSONObject navigation) {
         NavigationConfig defaults = NavigationConfig.defaults();
         ScreenCalibrationConfig calibration = navigation.has("screenCalibration")
@@ -112,7 +139,28 @@ public final class AppConfigLoader {
                 navigation.optInt("localizationMaxPredictFrames", defaults.localizationMaxPredictFrames()),
                 navigation.optBoolean("localizationOutlierRejectionEnabled", defaults.localizationOutlierRejectionEnabled()),
                 navigation.optDouble("maxLocalizationJumpPx", defaults.maxLocalizationJumpPx()),
-                calibration
+                calibration,
+                navigation.has("obstacleCost")
+                        ? parseObstacleCost(navigation.getJSONObject("obstacleCost"))
+                        : defaults.obstacleCost(),
+                PlannerMode.fromConfig(navigation.optString("planner", defaults.planner().configValue())),
+                navigation.optBoolean("smoothPath", defaults.smoothPath()),
+                navigation.optInt("planningBudgetMs", defaults.planningBudgetMs()),
+                navigation.optBoolean("parallelLocalization", defaults.parallelLocalization()),
+                navigation.optBoolean("motionTracking", defaults.motionTracking()),
+                navigation.optBoolean("templateLocalization", defaults.templateLocalization()),
+                navigation.optBoolean("kalmanLocalization", defaults.kalmanLocalization()),
+                navigation.optInt("detectedObstacleTtlMs", defaults.detectedObstacleTtlMs()),
+                parseStrings(navigation.optJSONArray("detectedObstacleClasses"))
+        );
+    }
+
+    private static ObstacleCostConfig parseObstacleCost(JSONObject obstacleCost) {
+        ObstacleCostConfig defaults = ObstacleCostConfig.defaults();
+        return new ObstacleCostConfig(
+                obstacleCost.optInt("radiusPx", defaults.radiusPx()),
+                obstacleCost.optDouble("weight", defaults.weight()),
+                obstacleCost.optDouble("falloffExponent", defaults.falloffExponent())
         );
     }
 
@@ -189,14 +237,18 @@ public final class AppConfigLoader {
         );
     }
 
-    private static YoloConfig parseYolo(JSONObject yolo) {
-        List<String> classesOfInterest = new ArrayList<>();
-        JSONArray classesArray = yolo.optJSONArray("classesOfInterest");
-        if (classesArray != null) {
-            for (int i = 0; i < classesArray.length(); i++) {
-                classesOfInterest.add(classesArray.getString(i));
+    private static List<String> parseStrings(JSONArray array) {
+        List<String> values = new ArrayList<>();
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                values.add(array.getString(i));
             }
         }
+        return values;
+    }
+
+    private static YoloConfig parseYolo(JSONObject yolo) {
+        List<String> classesOfInterest = parseStrings(yolo.optJSONArray("classesOfInterest"));
         return new YoloConfig(
                 yolo.optBoolean("enabled", false),
                 yolo.optString("modelPath", ""),
@@ -1,5 +1,6 @@
 package com.auto.config;
 
+import java.util.List;
 import java.util.Objects;
 
 public record NavigationConfig(
@@ -13,7 +14,17 @@ public record NavigationConfig(
         int localizationMaxPredictFrames,
         boolean localizationOutlierRejectionEnabled,
         double maxLocalizationJumpPx,
-        ScreenCalibrationConfig screenCalibration
+        ScreenCalibrationConfig screenCalibration,
+        ObstacleCostConfig obstacleCost,
+        PlannerMode planner,
+        boolean smoothPath,
+        int planningBudgetMs,
+        boolean parallelLocalization,
+        boolean motionTracking,
+        boolean templateLocalization,
+        boolean kalmanLocalization,
+        int detectedObstacleTtlMs,
+        List<String> detectedObstacleClasses
 ) {
     public NavigationConfig {
         if (tickIntervalMs <= 0) {
@@ -43,7 +54,54 @@ public record NavigationConfig(
         if (maxLocalizationJumpPx < 0) {
             throw new IllegalArgumentException("navigation.maxLocalizationJumpPx must be non-negative");
         }
+        if (planningBudgetMs <= 0) {
+            throw new IllegalArgumentException("navigation.planningBudgetMs must be positive");
+        }
+        if (detectedObstacleTtlMs < 0) {
+            throw new IllegalArgumentException("navigation.detectedObstacleTtlMs must be non-negative");
+        }
         screenCalibration = Objects.requireNonNullElse(screenCalibration, ScreenCalibrationConfig.disabled());
+        obstacleCost = Objects.requireNonNullElse(obstacleCost, ObstacleCostConfig.defaults());
+        planner = Objects.requireNonNullElse(planner, PlannerMode.ASTAR);
+        detectedObstacleClasses = List.copyOf(Objects.requireNonNullElse(detectedObstacleClasses, List.of()));
+    }
+
+    public NavigationConfig(
+            int tickIntervalMs,
+            int stuckTimeoutMs,
+            double stuckDistanceThreshold,
+            double waypointReachDistance,
+            int maxStuckRetries,
+            double minLocalizationConfidence,
+            double localizationSmoothingAlpha,
+            int localizationMaxPredictFrames,
+            boolean localizationOutlierRejectionEnabled,
+            double maxLocalizationJumpPx,
+            ScreenCalibrationConfig screenCalibration
+    ) {
+        this(
+                tickIntervalMs,
+                stuckTimeoutMs,
+                stuckDistanceThreshold,
+                waypointReachDistance,
+                maxStuckRetries,
+                minLocalizationConfidence,
+                localizationSmoothingAlpha,
+                localizationMaxPredictFrames,
+                localizationOutlierRejectionEnabled,
+                maxLocalizationJumpPx,
+                screenCalibration,
+                ObstacleCostConfig.defaults(),
+                PlannerMode.ASTAR,
+                true,
+                40,
+                false,
+                false,
+                false,
+                false,
+                0,
+                List.of()
+        );
     }
 
     public static NavigationConfig defaults() {
@@ -58,7 +116,17 @@ public record NavigationConfig(
                 2,
                 true,
                 0.0,
-                ScreenCalibrationConfig.disabled()
+                ScreenCalibrationConfig.disabled(),
+                ObstacleCostConfig.defaults(),
+                PlannerMode.ASTAR,
+                true,
+                40,
+                false,
+                false,
+                false,
+                false,
+                0,
+                List.of()
         );
     }
 }
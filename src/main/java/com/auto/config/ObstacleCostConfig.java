@@ -0,0 +1,31 @@
+package com.auto.config;
+
+/**
+ * Wall-proximity penalty added to every planned step: each obstacle within {@code radiusPx} of the entered
+ * cell contributes {@code weight / (distance + 1)^falloffExponent}. The defaults reproduce the original planner.
+ */
+public record ObstacleCostConfig(
+        int radiusPx,
+        double weight,
+        double falloffExponent
+) {
+    public ObstacleCostConfig {
+        if (radiusPx < 0) {
+            throw new IllegalArgumentException("navigation.obstacleCost.radiusPx must be >= 0");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("navigation.obstacleCost.weight must be >= 0");
+        }
+        if (falloffExponent <= 0) {
+            throw new IllegalArgumentException("navigation.obstacleCost.falloffExponent must be positive");
+        }
+    }
+
+    public static ObstacleCostConfig defaults() {
+        return new ObstacleCostConfig(10, 10.0, 1.0);
+    }
+
+    public boolean enabled() {
+        return radiusPx > 0 && weight > 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.auto.config;
+
+/**
+ * Path planning algorithm used by navigation ({@code navigation.planner}).
+ */
+public enum PlannerMode {
+    ASTAR("astar"),
+    JPS("jps"),
+    DSTAR_LITE("dstar"),
+    FLOW_FIELD("flowfield"),
+    HPA("hpa"),
+    ANYTIME("anytime"),
+    PYRAMID("pyramid"),
+    LEGACY("legacy");
+
+    private final String configValue;
+
+    PlannerMode(String configValue) {
+        this.configValue = configValue;
+    }
+
+    public String configValue() {
+        return configValue;
+    }
+
+    public static PlannerMode fromConfig(String value) {
+        if (value == null || value.isBlank()) {
+            return ASTAR;
+        }
+        String normalized = value.trim().toLowerCase();
+        for (PlannerMode mode : values()) {
+            if (mode.configValue.equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported navigation planner: " + value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.auto.config;
+
+/**
+ * A point on a zone map that leads to {@code targetPortal} on the {@code targetZone} map.
+ */
+public record PortalConfig(
+        String name,
+        int x,
+        int y,
+        String targetZone,
+        String targetPortal
+) {
+    public PortalConfig {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("vision.zones portal name is required");
+        }
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("vision.zones portal coordinates must be non-negative");
+        }
+        if (targetZone == null || targetZone.isBlank() || targetPortal == null || targetPortal.isBlank()) {
+            throw new IllegalArgumentException("vision.zones portal " + name + " must name its target zone and portal");
+        }
+    }
+}
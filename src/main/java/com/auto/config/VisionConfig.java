@@ -1,5 +1,8 @@
 package com.auto.config;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public record VisionConfig(
@@ -16,7 +19,8 @@ public record VisionConfig(
         YoloConfig yolo,
         MapPreprocessConfig mapPreprocess,
         MapClosureConfig mapClosure,
-        NavigationConfig navigation
+        NavigationConfig navigation,
+        List<ZoneConfig> zones
 ) {
     public VisionConfig(
             String windowTitle,
@@ -80,6 +84,41 @@ public record VisionConfig(
         );
     }
 
+    public VisionConfig(
+            String windowTitle,
+            String mapImage,
+            String arrowTemplate,
+            RegionConfig miniMapRegion,
+            PointConfig target,
+            int matchAreaSize,
+            double obstacleThreshold,
+            int moveStep,
+            double arriveDistance,
+            OcrConfig ocr,
+            YoloConfig yolo,
+            MapPreprocessConfig mapPreprocess,
+            MapClosureConfig mapClosure,
+            NavigationConfig navigation
+    ) {
+        this(
+                windowTitle,
+                mapImage,
+                arrowTemplate,
+                miniMapRegion,
+                target,
+                matchAreaSize,
+                obstacleThreshold,
+                moveStep,
+                arriveDistance,
+                ocr,
+                yolo,
+                mapPreprocess,
+                mapClosure,
+                navigation,
+                List.of()
+        );
+    }
+
     public VisionConfig {
         requireText(windowTitle, "vision.windowTitle");
         requireText(mapImage, "vision.mapImage");
@@ -91,6 +130,8 @@ public record VisionConfig(
         mapPreprocess = Objects.requireNonNull(mapPreprocess, "mapPreprocess");
         mapClosure = Objects.requireNonNull(mapClosure, "mapClosure");
         navigation = Objects.requireNonNull(navigation, "navigation");
+        zones = List.copyOf(Objects.requireNonNullElse(zones, List.of()));
+        validateZones(zones);
         if (matchAreaSize <= 0) {
             throw new IllegalArgumentException("vision.matchAreaSize must be positive");
         }
@@ -102,6 +143,67 @@ public record VisionConfig(
         }
     }
 
+    public VisionConfig withTarget(PointConfig target) {
+        return new VisionConfig(
+                windowTitle,
+                mapImage,
+                arrowTemplate,
+                miniMapRegion,
+                target,
+                matchAreaSize,
+                obstacleThreshold,
+                moveStep,
+                arriveDistance,
+                ocr,
+                yolo,
+                mapPreprocess,
+                mapClosure,
+                navigation,
+                zones
+        );
+    }
+
+    /**
+     * The same settings on another map, e.g. the current zone's.
+     */
+    public VisionConfig withMapImage(String mapImage) {
+        return new VisionConfig(
+                windowTitle,
+                mapImage,
+                arrowTemplate,
+                miniMapRegion,
+                target,
+                matchAreaSize,
+                obstacleThreshold,
+                moveStep,
+                arriveDistance,
+                ocr,
+                yolo,
+                mapPreprocess,
+                mapClosure,
+                navigation,
+                zones
+        );
+    }
+
+    private static void validateZones(List<ZoneConfig> zones) {
+        Map<String, ZoneConfig> byName = new HashMap<>();
+        for (ZoneConfig zone : zones) {
+            if (byName.put(zone.name(), zone) != null) {
+                throw new IllegalArgumentException("vision.zones has duplicate zone " + zone.name());
+            }
+        }
+        for (ZoneConfig zone : zones) {
+            for (PortalConfig portal : zone.portals()) {
+                ZoneConfig target = byName.get(portal.targetZone());
+                if (target == null || target.portals().stream().noneMatch(p -> p.name().equals(portal.targetPortal()))) {
+                    throw new IllegalArgumentException("vision.zones portal " + zone.name() + "/" + portal.name()
+                            + " leads to unknown portal " + portal.targetZone() + "/" + portal.targetPortal());
+                }
+            }
+        }
+    }
+
     private static void requireText(String value, String name) {
         if (value == null || value.isBlank()) {
             throw new IllegalArgumentException(name + " is required");
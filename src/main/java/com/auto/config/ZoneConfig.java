@@ -0,0 +1,31 @@
+package com.auto.config;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One map of a multi-map world ({@code vision.zones}) and the portals leaving it.
+ */
+public record ZoneConfig(
+        String name,
+        String mapImage,
+        List<PortalConfig> portals
+) {
+    public ZoneConfig {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("vision.zones name is required");
+        }
+        if (mapImage == null || mapImage.isBlank()) {
+            throw new IllegalArgumentException("vision.zones " + name + " mapImage is required");
+        }
+        portals = List.copyOf(Objects.requireNonNullElse(portals, List.of()));
+        Set<String> names = new HashSet<>();
+        for (PortalConfig portal : portals) {
+            if (!names.add(portal.name())) {
+                throw new IllegalArgumentException("vision.zones " + name + " has duplicate portal " + portal.name());
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * Anytime Repairing A* (ARA*, Likhachev et al.) with a per-query time budget, searching backward from the
+ * target so its work survives the player moving between queries.
+ * <p>
+ * The first solution comes from a weighted search ({@code epsilon = 3}); every later iteration lowers
+ * epsilon by 0.5 and reuses all costs found so far, down to an optimal search at 1. A query never runs
+ * longer than its budget: it returns the best path known for the current start and resumes on the next
+ * query with the same target. Before the search has reached the start, the path links the start by one
+ * straight, walkable hop to the nearest searched cell, if there is one within {@value #PARTIAL_LINK_RADIUS}
+ * cells; otherwise the query returns an empty path and keeps searching next time.
+ * <p>
+ * Edge costs match {@link GridAStarPlanner}; paths returned after an iteration completes cost at most
+ * {@link #solutionEpsilon()} times the optimum.
+ */
+public final class AnytimePlanner implements GridPathfinder {
+    public static final int DEFAULT_BUDGET_MS = 40;
+
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    private static final double INITIAL_EPSILON = 3.0;
+    private static final double EPSILON_STEP = 0.5;
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+    private static final int PARTIAL_LINK_RADIUS = 32;
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final double[] MOVE_COST = {1, 1, 1, 1, SQRT2, SQRT2, SQRT2, SQRT2};
+
+    private final GridAStarPlanner grid;
+    private final int cols;
+    private final int rows;
+    private final WalkabilityGrid walkable;
+    private final float[] obstacleCost;
+    private final long budgetNanos;
+    private final double[] g;
+    private final int[] parent;
+    private final int[] closedIteration;
+    private final boolean[] inconsistent;
+    private final IndexedMinHeap open;
+    private int[] inconsistentCells = new int[64];
+    private int inconsistentCount;
+    private int goal = -1;
+    private int start = -1;
+    private int iteration;
+    private double epsilon;
+    private double solutionEpsilon;
+    private int lastExpansions;
+
+    private AnytimePlanner(GridAStarPlanner grid, long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("planning budget must be non-negative");
+        }
+        this.grid = grid;
+        this.cols = grid.cols();
+        this.rows = grid.rows();
+        this.walkable = grid.walkability();
+        this.obstacleCost = grid.obstacleCostField();
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        int count = cols * rows;
+        this.g = new double[count];
+        this.parent = new int[count];
+        this.closedIteration = new int[count];
+        this.inconsistent = new boolean[count];
+        this.open = new IndexedMinHeap(count);
+    }
+
+    /**
+     * Shares the grid's blocked cells and cost field (read only).
+     *
+     * @param budgetMillis wall-clock limit per {@link #findPath} call; 0 stops after one deadline check
+     *                     ({@value #DEADLINE_CHECK_INTERVAL} expansions)
+     */
+    public static AnytimePlanner fromGrid(GridAStarPlanner grid, long budgetMillis) {
+        return new AnytimePlanner(grid, budgetMillis);
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return grid.isBlocked(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return grid.obstacleCost(x, y);
+    }
+
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * Suboptimality bound of the last completed iteration, 1 once the path is optimal, or 0 before the
+     * first iteration for the current target and start has completed.
+     */
+    public synchronized double solutionEpsilon() {
+        return solutionEpsilon;
+    }
+
+    @Override
+    public synchronized int[][] findPath(int startX, int startY, int endX, int endY) {
+        // Re-initializing and re-keying for a new goal or start count against the budget too.
+        long deadline = System.nanoTime() + budgetNanos;
+        lastExpansions = 0;
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return new int[0][2];
+        }
+        int newStart = startY * cols + startX;
+        int end = endY * cols + endX;
+        if (!walkable.isWalkable(startX, startY) || !walkable.isWalkable(endX, endY)) {
+            return new int[0][2];
+        }
+        if (end != goal) {
+            initialize(end);
+        }
+        if (newStart != start) {
+            start = newStart;
+            if (g[start] == INFINITY) {
+                epsilon = INITIAL_EPSILON;
+            }
+            solutionEpsilon = 0;
+            restartIteration();
+        }
+        improve(deadline);
+        return extractPath();
+    }
+
+    private void initialize(int newGoal) {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(parent, -1);
+        Arrays.fill(closedIteration, 0);
+        for (int i = 0; i < inconsistentCount; i++) {
+            inconsistent[inconsistentCells[i]] = false;
+        }
+        inconsistentCount = 0;
+        open.clear();
+        iteration = 0;
+        goal = newGoal;
+        start = -1;
+        epsilon = INITIAL_EPSILON;
+        solutionEpsilon = 0;
+        g[goal] = 0;
+        open.insertOrUpdate(goal, 0);
+    }
+
+    /**
+     * Starts a new ARA* iteration: inconsistent cells rejoin the open list and every open cell is re-keyed
+     * for the current epsilon and start.
+     */
+    private void restartIteration() {
+        int[] pending = new int[open.size() + inconsistentCount];
+        int count = 0;
+        while (!open.isEmpty()) {
+            pending[count++] = open.poll();
+        }
+        for (int i = 0; i < inconsistentCount; i++) {
+            inconsistent[inconsistentCells[i]] = false;
+            pending[count++] = inconsistentCells[i];
+        }
+        inconsistentCount = 0;
+        iteration++;
+        for (int i = 0; i < count; i++) {
+            open.insertOrUpdate(pending[i], key(pending[i]));
+        }
+    }
+
+    private void improve(long deadline) {
+        while (computePath(deadline)) {
+            solutionEpsilon = g[start] == INFINITY ? 0 : epsilon;
+            if (epsilon <= 1 || solutionEpsilon == 0) {
+                return;
+            }
+            epsilon = Math.max(1, epsilon - EPSILON_STEP);
+            restartIteration();
+        }
+    }
+
+    /**
+     * Expands cells until the start's cost is proven within epsilon of optimal.
+     *
+     * @return {@code false} if the deadline hit first
+     */
+    private boolean computePath(long deadline) {
+        int checks = 0;
+        while (!open.isEmpty() && g[start] > open.peekKey()) {
+            if (++checks % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                return false;
+            }
+            int s = open.poll();
+            closedIteration[s] = iteration;
+            lastExpansions++;
+            int sx = s % cols;
+            int sy = s / cols;
+            double reachCost = g[s] + obstacleCost[s];
+            for (int d = 0; d < DX.length; d++) {
+                int nx = sx + DX[d];
+                int ny = sy + DY[d];
+                if (!inBounds(nx, ny)) {
+                    continue;
+                }
+                if (!walkable.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int p = ny * cols + nx;
+                double candidate = reachCost + MOVE_COST[d];
+                if (candidate >= g[p]) {
+                    continue;
+                }
+                g[p] = candidate;
+                parent[p] = s;
+                if (closedIteration[p] != iteration) {
+                    open.insertOrUpdate(p, key(p));
+                } else if (!inconsistent[p]) {
+                    inconsistent[p] = true;
+                    if (inconsistentCount == inconsistentCells.length) {
+                        inconsistentCells = Arrays.copyOf(inconsistentCells, inconsistentCount * 2);
+                    }
+                    inconsistentCells[inconsistentCount++] = p;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int[][] extractPath() {
+        int first = start;
+        if (g[start] == INFINITY) {
+            first = nearestSearchedCell();
+            if (first < 0) {
+                return new int[0][2];
+            }
+        }
+        int[] cells = new int[64];
+        int length = 0;
+        if (first != start) {
+            cells[length++] = start;
+        }
+        int limit = cols * rows;
+        for (int current = first; current >= 0 && length <= limit; current = parent[current]) {
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = current;
+        }
+        int[][] path = new int[length][2];
+        for (int i = 0; i < length; i++) {
+            path[i][0] = cells[i] % cols;
+            path[i][1] = cells[i] / cols;
+        }
+        return path;
+    }
+
+    /**
+     * Searched cell near the start with the lowest hop-plus-remaining cost and a clear straight hop, or -1.
+     */
+    private int nearestSearchedCell() {
+        int sx = start % cols;
+        int sy = start / cols;
+        int[] from = {sx, sy};
+        int maxX = Math.min(cols - 1, sx + PARTIAL_LINK_RADIUS);
+        int maxY = Math.min(rows - 1, sy + PARTIAL_LINK_RADIUS);
+        int best = -1;
+        double bestCost = INFINITY;
+        for (int y = Math.max(0, sy - PARTIAL_LINK_RADIUS); y <= maxY; y++) {
+            for (int x = Math.max(0, sx - PARTIAL_LINK_RADIUS); x <= maxX; x++) {
+                int cell = y * cols + x;
+                if (g[cell] == INFINITY) {
+                    continue;
+                }
+                double cost = heuristic(start, cell) + g[cell];
+                if (cost < bestCost && PathSmoother.lineOfSight(grid, from, new int[] {x, y}, Float.MAX_VALUE)) {
+                    bestCost = cost;
+                    best = cell;
+                }
+            }
+        }
+        return best;
+    }
+
+    private double key(int cell) {
+        return g[cell] + epsilon * heuristic(start, cell);
+    }
+
+    private double heuristic(int from, int to) {
+        int dx = Math.abs(from % cols - to % cols);
+        int dy = Math.abs(from / cols - to / cols);
+        return Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+}
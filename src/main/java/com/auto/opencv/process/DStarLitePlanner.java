@@ -0,0 +1,378 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Incremental D* Lite planner (optimized variant, Koenig &amp; Likhachev) searching backward from the target.
+ * <p>
+ * One instance serves one navigation session: the first query computes distances to the target, and later
+ * queries with the same target only repair the search for the new start cell, which is usually a few pixels
+ * away. Cells changed through {@link #updateCell} are re-expanded locally on the next query. A query with a
+ * different target restarts the search.
+ * <p>
+ * The map's walkability bitmap and cost field are shared read only; session changes are kept as a sparse
+ * overlay on top of them, so a session never copies the map.
+ * <p>
+ * Edge costs match {@link GridAStarPlanner} (move cost plus the entered cell's obstacle cost); the heuristic is
+ * the octile distance, which is consistent for these costs, so returned paths are cost-optimal.
+ */
+public final class DStarLitePlanner implements GridPathfinder {
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    /** Keys are rounded to this resolution so that equal-cost ties compare equal despite summation order. */
+    private static final double KEY_SCALE = 1e6;
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final double[] MOVE_COST = {1, 1, 1, 1, SQRT2, SQRT2, SQRT2, SQRT2};
+
+    private final int cols;
+    private final int rows;
+    private final WalkabilityGrid walkable;
+    private final float[] obstacleCost;
+    /** Cells whose blocked state differs from {@link #walkable} for this session. */
+    private final BitSet toggled = new BitSet();
+    private final Map<Integer, Float> costOverrides = new HashMap<>();
+    private final double[] g;
+    private final double[] rhs;
+    private final IndexedMinHeap open;
+    private final BitSet changed = new BitSet();
+    private int[] changedCells = new int[64];
+    private int changedCount;
+    private int goal = -1;
+    private int lastStart = -1;
+    private double km;
+    private int lastExpansions;
+
+    /**
+     * Shares the grid's walkability bitmap and cost field; {@link #updateCell} changes them for this session only.
+     */
+    public static DStarLitePlanner fromGrid(GridAStarPlanner grid) {
+        return new DStarLitePlanner(grid.walkability(), grid.obstacleCostField());
+    }
+
+    DStarLitePlanner(int cols, int rows, boolean[] blocked, float[] obstacleCost) {
+        this(WalkabilityGrid.fromBlocked(blocked, cols, rows), obstacleCost);
+    }
+
+    private DStarLitePlanner(WalkabilityGrid walkable, float[] obstacleCost) {
+        int cols = walkable.cols();
+        int rows = walkable.rows();
+        if (obstacleCost.length != cols * rows) {
+            throw new IllegalArgumentException("grid size does not match obstacle cost field");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.walkable = walkable;
+        this.obstacleCost = obstacleCost;
+        this.g = new double[cols * rows];
+        this.rhs = new double[cols * rows];
+        this.open = new IndexedMinHeap(cols * rows);
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return !walkable.isWalkable(x, y) ^ toggled.get(y * cols + x);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return cost(y * cols + x);
+    }
+
+    /**
+     * Changes one cell for the rest of the session; affected vertices are repaired on the next query.
+     */
+    public synchronized void updateCell(int x, int y, boolean cellBlocked, float cellObstacleCost) {
+        if (!inBounds(x, y)) {
+            return;
+        }
+        int cell = y * cols + x;
+        if (isBlocked(x, y) == cellBlocked && cost(cell) == cellObstacleCost) {
+            return;
+        }
+        toggled.set(cell, cellBlocked == walkable.isWalkable(x, y));
+        if (cellObstacleCost == obstacleCost[cell]) {
+            costOverrides.remove(cell);
+        } else {
+            costOverrides.put(cell, cellObstacleCost);
+        }
+        if (!changed.get(cell)) {
+            changed.set(cell);
+            if (changedCount == changedCells.length) {
+                changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+            }
+            changedCells[changedCount++] = cell;
+        }
+    }
+
+    /**
+     * Re-reads a rectangle from the static {@code base} grid combined with the overlay's temporary obstacles;
+     * meant as the overlay's {@link DynamicObstacleOverlay.DirtyRegionListener}.
+     */
+    public synchronized void updateRegion(
+            GridAStarPlanner base,
+            DynamicObstacleOverlay overlay,
+            int x,
+            int y,
+            int width,
+            int height
+    ) {
+        for (int cy = Math.max(0, y); cy < Math.min(rows, y + height); cy++) {
+            for (int cx = Math.max(0, x); cx < Math.min(cols, x + width); cx++) {
+                updateCell(cx, cy, base.isBlocked(cx, cy) || overlay.isBlocked(cx, cy), base.obstacleCost(cx, cy));
+            }
+        }
+    }
+
+    @Override
+    public synchronized int[][] findPath(int startX, int startY, int endX, int endY) {
+        lastExpansions = 0;
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return new int[0][2];
+        }
+        int start = startY * cols + startX;
+        int end = endY * cols + endX;
+        if (end != goal) {
+            initialize(end, start);
+        } else {
+            km += heuristic(lastStart, start);
+            lastStart = start;
+            applyChangedCells();
+        }
+        if (isBlocked(startX, startY) || isBlocked(endX, endY)) {
+            return new int[0][2];
+        }
+        computeShortestPath(start);
+        return extractPath(start);
+    }
+
+    private void initialize(int newGoal, int start) {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        for (int i = 0; i < changedCount; i++) {
+            changed.clear(changedCells[i]);
+        }
+        changedCount = 0;
+        goal = newGoal;
+        lastStart = start;
+        km = 0;
+        rhs[goal] = 0;
+        open.insertOrUpdate(goal, quantize(heuristic(start, goal)), 0);
+    }
+
+    private void applyChangedCells() {
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            changed.clear(cell);
+            int cx = cell % cols;
+            int cy = cell / cols;
+            updateVertex(cell);
+            for (int d = 0; d < DX.length; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (inBounds(nx, ny)) {
+                    updateVertex(ny * cols + nx);
+                }
+            }
+        }
+        changedCount = 0;
+    }
+
+    private void computeShortestPath(int start) {
+        int maxIterations = cols * rows * 4;
+        int iterations = 0;
+        while (!open.isEmpty() && iterations++ < maxIterations) {
+            int u = open.peek();
+            double k1 = open.peekKey();
+            double k2 = open.secondaryKey(u);
+            double startK2 = quantize(Math.min(g[start], rhs[start]));
+            double startK1 = quantize(Math.min(g[start], rhs[start]) + km);
+            boolean topBelowStart = k1 < startK1 || (k1 == startK1 && k2 < startK2);
+            if (!topBelowStart && rhs[start] <= g[start]) {
+                break;
+            }
+            lastExpansions++;
+            double newK2 = quantize(Math.min(g[u], rhs[u]));
+            double newK1 = quantize(Math.min(g[u], rhs[u]) + heuristic(start, u) + km);
+            if (k1 < newK1 || (k1 == newK1 && k2 < newK2)) {
+                open.insertOrUpdate(u, newK1, newK2);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                open.remove(u);
+                relaxPredecessors(u);
+            } else {
+                g[u] = INFINITY;
+                updateVertex(u);
+                int ux = u % cols;
+                int uy = u / cols;
+                for (int d = 0; d < DX.length; d++) {
+                    int nx = ux + DX[d];
+                    int ny = uy + DY[d];
+                    if (inBounds(nx, ny)) {
+                        updateVertex(ny * cols + nx);
+                    }
+                }
+            }
+        }
+    }
+
+    private void relaxPredecessors(int u) {
+        int ux = u % cols;
+        int uy = u / cols;
+        if (isBlocked(ux, uy)) {
+            return;
+        }
+        double gu = g[u];
+        double enterCost = cost(u);
+        for (int d = 0; d < DX.length; d++) {
+            int nx = ux + DX[d];
+            int ny = uy + DY[d];
+            if (!inBounds(nx, ny)) {
+                continue;
+            }
+            int s = ny * cols + nx;
+            if (s == goal || isBlocked(nx, ny)) {
+                continue;
+            }
+            double candidate = MOVE_COST[d] + enterCost + gu;
+            if (candidate < rhs[s]) {
+                rhs[s] = candidate;
+                updateVertex(s);
+            }
+        }
+    }
+
+    /**
+     * Recomputes {@code rhs} from the successors and fixes the queue membership of {@code s}.
+     */
+    private void updateVertex(int s) {
+        if (s != goal) {
+            rhs[s] = bestSuccessorCost(s);
+        }
+        if (g[s] != rhs[s]) {
+            double k2 = Math.min(g[s], rhs[s]);
+            open.insertOrUpdate(s, quantize(k2 + heuristic(lastStart, s) + km), quantize(k2));
+        } else {
+            open.remove(s);
+        }
+    }
+
+    private double bestSuccessorCost(int s) {
+        int sx = s % cols;
+        int sy = s / cols;
+        if (isBlocked(sx, sy)) {
+            return INFINITY;
+        }
+        double best = INFINITY;
+        for (int d = 0; d < DX.length; d++) {
+            int nx = sx + DX[d];
+            int ny = sy + DY[d];
+            if (!inBounds(nx, ny)) {
+                continue;
+            }
+            int next = ny * cols + nx;
+            if (g[next] == INFINITY || isBlocked(nx, ny)) {
+                continue;
+            }
+            double candidate = MOVE_COST[d] + cost(next) + g[next];
+            if (candidate < best) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private int[][] extractPath(int start) {
+        if (g[start] == INFINITY && rhs[start] == INFINITY) {
+            return new int[0][2];
+        }
+        int[] cells = new int[64];
+        int length = 0;
+        int current = start;
+        int limit = cols * rows;
+        cells[length++] = current;
+        while (current != goal && length <= limit) {
+            int cx = current % cols;
+            int cy = current / cols;
+            int bestNext = -1;
+            double best = INFINITY;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!inBounds(nx, ny)) {
+                    continue;
+                }
+                int next = ny * cols + nx;
+                if (isBlocked(nx, ny)) {
+                    continue;
+                }
+                double candidate = MOVE_COST[d] + cost(next) + g[next];
+                if (candidate < best) {
+                    best = candidate;
+                    bestNext = next;
+                }
+            }
+            if (bestNext < 0 || best == INFINITY) {
+                return new int[0][2];
+            }
+            current = bestNext;
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = current;
+        }
+        if (current != goal) {
+            return new int[0][2];
+        }
+        int[][] path = new int[length][2];
+        for (int i = 0; i < length; i++) {
+            path[i][0] = cells[i] % cols;
+            path[i][1] = cells[i] / cols;
+        }
+        return path;
+    }
+
+    private float cost(int cell) {
+        if (costOverrides.isEmpty()) {
+            return obstacleCost[cell];
+        }
+        Float override = costOverrides.get(cell);
+        return override != null ? override : obstacleCost[cell];
+    }
+
+    private static double quantize(double key) {
+        return Math.rint(key * KEY_SCALE) / KEY_SCALE;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    /**
+     * Octile distance; consistent because every move costs at least its geometric length.
+     */
+    private double heuristic(int a, int b) {
+        int dx = Math.abs(a % cols - b % cols);
+        int dy = Math.abs(a / cols - b / cols);
+        return Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+    }
+}
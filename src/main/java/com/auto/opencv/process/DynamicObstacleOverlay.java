@@ -0,0 +1,183 @@
+package com.auto.opencv.process;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Temporary obstacles (detected monsters, closed gates) layered over a static pathfinding grid without touching
+ * it. Each stamp blocks a rectangle of cells until its time-to-live runs out or it is removed; overlapping
+ * stamps are reference-counted per cell, so removing one never reopens a cell another still covers.
+ * <p>
+ * Whenever a stamp changes at least one cell between open and blocked, listeners receive that stamp's
+ * rectangle, so an incremental planner ({@link DStarLitePlanner#updateCell}) repairs just that region instead
+ * of the whole map being copied and sealed again.
+ */
+public final class DynamicObstacleOverlay {
+    private final int cols;
+    private final int rows;
+    private final int[] coverage;
+    private final Map<Long, Stamp> stamps = new LinkedHashMap<>();
+    private final List<DirtyRegionListener> listeners = new CopyOnWriteArrayList<>();
+    private long nextId = 1;
+    private long nextExpiryMs = Long.MAX_VALUE;
+
+    public DynamicObstacleOverlay(int cols, int rows) {
+        if (cols <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("overlay size must be positive");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.coverage = new int[cols * rows];
+    }
+
+    @FunctionalInterface
+    public interface DirtyRegionListener {
+        /**
+         * Cells in the rectangle (already clipped to the grid) may have changed between open and blocked.
+         */
+        void regionChanged(int x, int y, int width, int height);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public void addListener(DirtyRegionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DirtyRegionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Blocks the rectangle until {@code nowMs + ttlMs}.
+     *
+     * @return stamp id for {@link #remove}, or 0 if the rectangle lies outside the grid
+     */
+    public synchronized long stamp(int x, int y, int width, int height, long ttlMs, long nowMs) {
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("obstacle ttl must be positive");
+        }
+        int minX = Math.max(0, x);
+        int minY = Math.max(0, y);
+        int maxX = Math.min(cols, x + width);
+        int maxY = Math.min(rows, y + height);
+        if (minX >= maxX || minY >= maxY) {
+            return 0;
+        }
+        Stamp stamp = new Stamp(minX, minY, maxX - minX, maxY - minY, nowMs + ttlMs);
+        long id = nextId++;
+        stamps.put(id, stamp);
+        nextExpiryMs = Math.min(nextExpiryMs, stamp.expiresAtMs());
+        if (cover(stamp, 1)) {
+            notifyChanged(stamp);
+        }
+        return id;
+    }
+
+    /**
+     * Lifts a stamp before its time-to-live runs out.
+     *
+     * @return {@code false} if the stamp had already expired or been removed
+     */
+    public synchronized boolean remove(long id) {
+        Stamp stamp = stamps.remove(id);
+        if (stamp == null) {
+            return false;
+        }
+        if (cover(stamp, -1)) {
+            notifyChanged(stamp);
+        }
+        return true;
+    }
+
+    /**
+     * Lifts every stamp whose time-to-live has run out; a no-op until the earliest expiry is due.
+     *
+     * @return number of stamps lifted
+     */
+    public synchronized int expire(long nowMs) {
+        if (nowMs < nextExpiryMs) {
+            return 0;
+        }
+        int lifted = 0;
+        long earliest = Long.MAX_VALUE;
+        Iterator<Stamp> iterator = stamps.values().iterator();
+        while (iterator.hasNext()) {
+            Stamp stamp = iterator.next();
+            if (stamp.expiresAtMs() > nowMs) {
+                earliest = Math.min(earliest, stamp.expiresAtMs());
+                continue;
+            }
+            iterator.remove();
+            lifted++;
+            if (cover(stamp, -1)) {
+                notifyChanged(stamp);
+            }
+        }
+        nextExpiryMs = earliest;
+        return lifted;
+    }
+
+    public synchronized void clear() {
+        List<Stamp> lifted = new ArrayList<>(stamps.values());
+        stamps.clear();
+        nextExpiryMs = Long.MAX_VALUE;
+        for (Stamp stamp : lifted) {
+            if (cover(stamp, -1)) {
+                notifyChanged(stamp);
+            }
+        }
+    }
+
+    public synchronized boolean isBlocked(int x, int y) {
+        return x >= 0 && y >= 0 && x < cols && y < rows && coverage[y * cols + x] > 0;
+    }
+
+    public synchronized int activeStamps() {
+        return stamps.size();
+    }
+
+    /**
+     * Reports every live stamp's rectangle to {@code listener}, e.g. to bring a newly created planner in line.
+     */
+    public synchronized void replay(DirtyRegionListener listener) {
+        for (Stamp stamp : stamps.values()) {
+            listener.regionChanged(stamp.x(), stamp.y(), stamp.width(), stamp.height());
+        }
+    }
+
+    /**
+     * @return whether any cell switched between open and blocked
+     */
+    private boolean cover(Stamp stamp, int delta) {
+        boolean changed = false;
+        for (int y = stamp.y(); y < stamp.y() + stamp.height(); y++) {
+            int row = y * cols;
+            for (int x = stamp.x(); x < stamp.x() + stamp.width(); x++) {
+                int before = coverage[row + x];
+                coverage[row + x] = before + delta;
+                changed |= before == 0 || before + delta == 0;
+            }
+        }
+        return changed;
+    }
+
+    private void notifyChanged(Stamp stamp) {
+        for (DirtyRegionListener listener : listeners) {
+            listener.regionChanged(stamp.x(), stamp.y(), stamp.width(), stamp.height());
+        }
+    }
+
+    private record Stamp(int x, int y, int width, int height, long expiresAtMs) {
+    }
+}
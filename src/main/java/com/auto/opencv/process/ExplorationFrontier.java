@@ -0,0 +1,251 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * Explored part of a pathfinding map plus its frontier: explored, walkable cells with at least one unexplored,
+ * walkable 8-neighbour, i.e. the places where walking on uncovers more of the map.
+ * <p>
+ * Localized minimap patches are folded in with {@link #reveal}; only the revealed rectangle and its one-cell
+ * border are re-classified, and the frontier is kept as an indexed set, so neither a reveal nor a query ever
+ * rescans the whole map. {@link #cheapestFrontier} runs a Dijkstra search from the player with the grid's
+ * move and obstacle costs and stops at the first frontier cell it settles; {@link #cheapestFrontierRoute} keeps
+ * that search's path so the player can be walked there without planning again.
+ * <p>
+ * Public methods are synchronized, so patches can be revealed while another thread queries.
+ */
+public final class ExplorationFrontier {
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final double[] MOVE_COST = {1, 1, 1, 1, SQRT2, SQRT2, SQRT2, SQRT2};
+
+    private final GridAStarPlanner grid;
+    private final int cols;
+    private final int rows;
+    private final WalkabilityGrid walkable;
+    private final float[] obstacleCost;
+    private final boolean[] explored;
+    private final int[] frontierSlot;
+    private final double[] g;
+    private final int[] parent;
+    private final int[] stamp;
+    private final IndexedMinHeap open;
+    private int[] frontierCells = new int[256];
+    private int frontierCount;
+    private int exploredCount;
+    private int generation;
+    private int lastExpansions;
+
+    private ExplorationFrontier(GridAStarPlanner grid) {
+        this.grid = grid;
+        this.cols = grid.cols();
+        this.rows = grid.rows();
+        this.walkable = grid.walkability();
+        this.obstacleCost = grid.obstacleCostField();
+        int count = cols * rows;
+        this.explored = new boolean[count];
+        this.frontierSlot = new int[count];
+        Arrays.fill(frontierSlot, -1);
+        this.g = new double[count];
+        this.parent = new int[count];
+        this.stamp = new int[count];
+        this.open = new IndexedMinHeap(count);
+    }
+
+    /**
+     * Starts with nothing explored; shares the grid's blocked cells and cost field (read only).
+     */
+    public static ExplorationFrontier forGrid(GridAStarPlanner grid) {
+        return new ExplorationFrontier(grid);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public synchronized int exploredCount() {
+        return exploredCount;
+    }
+
+    public synchronized int frontierCount() {
+        return frontierCount;
+    }
+
+    public synchronized boolean isExplored(int x, int y) {
+        return inBounds(x, y) && explored[y * cols + x];
+    }
+
+    public synchronized boolean isFrontier(int x, int y) {
+        return inBounds(x, y) && frontierSlot[y * cols + x] >= 0;
+    }
+
+    /**
+     * Cells settled by the last {@link #cheapestFrontier} search.
+     */
+    public synchronized int lastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * Marks the cells a localized patch shows as explored (walkable in {@code patch}) and updates the frontier
+     * around them.
+     *
+     * @param originX map column of the patch's left edge
+     * @param originY map row of the patch's top edge
+     * @return number of newly explored cells
+     */
+    public synchronized int reveal(int originX, int originY, WalkabilityGrid patch) {
+        int minX = Math.max(0, originX);
+        int minY = Math.max(0, originY);
+        int maxX = Math.min(cols, originX + patch.cols());
+        int maxY = Math.min(rows, originY + patch.rows());
+        if (minX >= maxX || minY >= maxY) {
+            return 0;
+        }
+        int revealed = 0;
+        for (int y = minY; y < maxY; y++) {
+            for (int x = minX; x < maxX; x++) {
+                int cell = y * cols + x;
+                if (!explored[cell] && patch.isWalkable(x - originX, y - originY)) {
+                    explored[cell] = true;
+                    revealed++;
+                }
+            }
+        }
+        if (revealed == 0) {
+            return 0;
+        }
+        exploredCount += revealed;
+        int borderMaxX = Math.min(cols, maxX + 1);
+        int borderMaxY = Math.min(rows, maxY + 1);
+        for (int y = Math.max(0, minY - 1); y < borderMaxY; y++) {
+            for (int x = Math.max(0, minX - 1); x < borderMaxX; x++) {
+                updateFrontier(x, y);
+            }
+        }
+        return revealed;
+    }
+
+    /**
+     * Frontier cell with the lowest path cost from {@code (startX, startY)}, as {@code {x, y}}, or {@code null}
+     * if no frontier is reachable (the reachable map is fully explored).
+     */
+    public synchronized int[] cheapestFrontier(int startX, int startY) {
+        int frontier = searchFrontier(startX, startY);
+        return frontier < 0 ? null : new int[] {frontier % cols, frontier / cols};
+    }
+
+    /**
+     * Same search as {@link #cheapestFrontier}, returning the path it found as a reusable {@link ExplorationRoute},
+     * or {@code null} if no frontier is reachable.
+     *
+     * @param maxOffRoute how far (Chebyshev cells) the player may stray before the route stops serving paths
+     */
+    public synchronized ExplorationRoute cheapestFrontierRoute(int startX, int startY, int maxOffRoute) {
+        int frontier = searchFrontier(startX, startY);
+        if (frontier < 0) {
+            return null;
+        }
+        int length = 0;
+        for (int cell = frontier; cell >= 0; cell = parent[cell]) {
+            length++;
+        }
+        int[][] cells = new int[length][];
+        for (int cell = frontier, i = length - 1; cell >= 0; cell = parent[cell], i--) {
+            cells[i] = new int[] {cell % cols, cell / cols};
+        }
+        return new ExplorationRoute(grid, cells, maxOffRoute);
+    }
+
+    /**
+     * Dijkstra from the start to the first settled frontier cell, recording parents.
+     *
+     * @return the frontier cell, or -1
+     */
+    private int searchFrontier(int startX, int startY) {
+        lastExpansions = 0;
+        if (!walkable.isWalkable(startX, startY) || frontierCount == 0) {
+            return -1;
+        }
+        nextGeneration();
+        int start = startY * cols + startX;
+        open.clear();
+        g[start] = 0;
+        parent[start] = -1;
+        stamp[start] = generation;
+        open.insertOrUpdate(start, 0);
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            lastExpansions++;
+            if (frontierSlot[current] >= 0) {
+                open.clear();
+                return current;
+            }
+            int cx = current % cols;
+            int cy = current / cols;
+            double currentG = g[current];
+            for (int d = 0; d < DX.length; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!walkable.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                double tentative = currentG + MOVE_COST[d] + obstacleCost[neighbor];
+                if (stamp[neighbor] != generation || tentative < g[neighbor]) {
+                    stamp[neighbor] = generation;
+                    g[neighbor] = tentative;
+                    parent[neighbor] = current;
+                    open.insertOrUpdate(neighbor, tentative);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void updateFrontier(int x, int y) {
+        int cell = y * cols + x;
+        boolean isFrontier = explored[cell] && walkable.isWalkable(x, y) && hasUnexploredWalkableNeighbor(x, y);
+        if (isFrontier && frontierSlot[cell] < 0) {
+            if (frontierCount == frontierCells.length) {
+                frontierCells = Arrays.copyOf(frontierCells, frontierCount * 2);
+            }
+            frontierSlot[cell] = frontierCount;
+            frontierCells[frontierCount++] = cell;
+        } else if (!isFrontier && frontierSlot[cell] >= 0) {
+            int slot = frontierSlot[cell];
+            int last = frontierCells[--frontierCount];
+            frontierCells[slot] = last;
+            frontierSlot[last] = slot;
+            frontierSlot[cell] = -1;
+        }
+    }
+
+    private boolean hasUnexploredWalkableNeighbor(int x, int y) {
+        for (int d = 0; d < DX.length; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (walkable.isWalkable(nx, ny) && !explored[ny * cols + nx]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+}
@@ -0,0 +1,104 @@
+package com.auto.opencv.process;
+
+/**
+ * Path from the player to a frontier cell, kept from the {@link ExplorationFrontier} search that chose the
+ * frontier. Later ticks towards the same frontier are served from it as a planner, so exploring does not search
+ * or build planner state again until the target is reached, stops being a frontier or the player leaves the
+ * route.
+ * <p>
+ * Progress along the route only moves forward, so a route that loops near itself is not rewound.
+ */
+public final class ExplorationRoute implements GridPathfinder {
+    private final GridAStarPlanner grid;
+    private final int[][] cells;
+    private final int maxOffRoute;
+    private int progress;
+    private int lastExpansions;
+
+    ExplorationRoute(GridAStarPlanner grid, int[][] cells, int maxOffRoute) {
+        this.grid = grid;
+        this.cells = cells;
+        this.maxOffRoute = Math.max(0, maxOffRoute);
+    }
+
+    /**
+     * Frontier cell the route ends at, as {@code {x, y}}.
+     */
+    public int[] goal() {
+        return cells[cells.length - 1].clone();
+    }
+
+    public boolean leadsTo(int x, int y) {
+        int[] goal = cells[cells.length - 1];
+        return goal[0] == x && goal[1] == y;
+    }
+
+    /**
+     * Whether {@code (x, y)} is within the off-route tolerance of the part of the route still ahead.
+     */
+    public synchronized boolean covers(int x, int y) {
+        return nearestAhead(x, y) >= 0;
+    }
+
+    @Override
+    public int cols() {
+        return grid.cols();
+    }
+
+    @Override
+    public int rows() {
+        return grid.rows();
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return grid.isBlocked(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return grid.obstacleCost(x, y);
+    }
+
+    @Override
+    public synchronized int lastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * Rest of the route from the cell nearest to the start, led by the start itself when it is off the route;
+     * empty for another end point or a start outside the tolerance.
+     */
+    @Override
+    public synchronized int[][] findPath(int startX, int startY, int endX, int endY) {
+        lastExpansions = 0;
+        int nearest = leadsTo(endX, endY) ? nearestAhead(startX, startY) : -1;
+        if (nearest < 0) {
+            return new int[0][2];
+        }
+        progress = nearest;
+        boolean onRoute = cells[nearest][0] == startX && cells[nearest][1] == startY;
+        int offset = onRoute ? 0 : 1;
+        int[][] path = new int[cells.length - nearest + offset][];
+        if (!onRoute) {
+            path[0] = new int[] {startX, startY};
+        }
+        for (int i = nearest; i < cells.length; i++) {
+            path[i - nearest + offset] = cells[i].clone();
+        }
+        return path;
+    }
+
+    private int nearestAhead(int x, int y) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = progress; i < cells.length; i++) {
+            int distance = Math.max(Math.abs(cells[i][0] - x), Math.abs(cells[i][1] - y));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return bestDistance <= maxOffRoute ? best : -1;
+    }
+}
@@ -2,7 +2,6 @@ package com.auto.opencv.process;
 
 import org.opencv.calib3d.Calib3d;
 import org.opencv.core.Core;
-import org.opencv.core.CvType;
 import org.opencv.core.DMatch;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfDMatch;
@@ -10,11 +9,7 @@ import org.opencv.core.MatOfKeyPoint;
 import org.opencv.core.MatOfPoint2f;
 import org.opencv.core.Point;
 import org.opencv.core.Rect;
-import org.opencv.core.KeyPoint;
-import org.opencv.features2d.BFMatcher;
 import org.opencv.features2d.DescriptorMatcher;
-import org.opencv.features2d.ORB;
-import org.opencv.features2d.SIFT;
 import org.opencv.imgproc.Imgproc;
 
 import java.util.ArrayList;
@@ -31,7 +26,7 @@ public final class FeatureHomographyLocalizer {
     private static final int MIN_INLIERS_LOCAL = 4;
     private static final int MIN_INLIERS_GLOBAL = 4;
     private static final double RANSAC_REPROJ_THRESHOLD = 8.0;
-    private static final int ORB_FEATURES = 2000;
+    static final int ORB_FEATURES = 2000;
     private static final double MIN_INLIER_RATIO = 0.20;
 
     public enum DetectorKind {
@@ -64,6 +59,10 @@ public final class FeatureHomographyLocalizer {
     private FeatureHomographyLocalizer() {
     }
 
+    /**
+     * Crops the prior-hint window out of the large map for detector runs without a {@link LargeMapFeatureIndex}.
+     * Indexed localization uses {@link #searchWindow} directly and never crops.
+     */
     public static SearchRegion buildSearchRegion(
             Mat fullLargeMap,
             Mat queryPatch,
@@ -73,9 +72,34 @@ public final class FeatureHomographyLocalizer {
         if (fullLargeMap == null || fullLargeMap.empty()) {
             throw new IllegalArgumentException("large map must not be empty");
         }
-        if (priorInGlobalMap == null || searchRadiusPx <= 0) {
+        Rect rect = searchWindow(
+                fullLargeMap.cols(),
+                fullLargeMap.rows(),
+                queryPatch,
+                priorInGlobalMap,
+                searchRadiusPx
+        );
+        if (rect == null) {
             return new SearchRegion(fullLargeMap, new Point(0, 0));
         }
+        Mat cropped = new Mat(fullLargeMap, rect).clone();
+        return new SearchRegion(cropped, new Point(rect.x, rect.y));
+    }
+
+    /**
+     * Window of the large map around {@code priorInGlobalMap} that may contain the query patch,
+     * or {@code null} when the whole map has to be searched.
+     */
+    public static Rect searchWindow(
+            int mapCols,
+            int mapRows,
+            Mat queryPatch,
+            Point priorInGlobalMap,
+            int searchRadiusPx
+    ) {
+        if (priorInGlobalMap == null || searchRadiusPx <= 0) {
+            return null;
+        }
 
         int margin = searchRadiusPx + Math.max(queryPatch.cols(), queryPatch.rows());
         int x = (int) Math.floor(priorInGlobalMap.x) - margin;
@@ -91,15 +115,12 @@ public final class FeatureHomographyLocalizer {
             height += y;
             y = 0;
         }
-        width = Math.min(width, fullLargeMap.cols() - x);
-        height = Math.min(height, fullLargeMap.rows() - y);
+        width = Math.min(width, mapCols - x);
+        height = Math.min(height, mapRows - y);
         if (width < queryPatch.cols() || height < queryPatch.rows()) {
-            return new SearchRegion(fullLargeMap, new Point(0, 0));
+            return null;
         }
-
-        Rect rect = new Rect(x, y, width, height);
-        Mat cropped = new Mat(fullLargeMap, rect).clone();
-        return new SearchRegion(cropped, new Point(x, y));
+        return new Rect(x, y, width, height);
     }
 
     public static MatchOutcome locate(
@@ -121,23 +142,105 @@ public final class FeatureHomographyLocalizer {
             return MatchOutcome.failed();
         }
 
-        Mat queryGray = toGray(queryPatch);
-        Mat trainGray = toGray(searchRegion.image());
+        FeatureSet queryFeatures = detectAndCompute(toGray(queryPatch), detector, attempts, "query");
+        FeatureSet trainFeatures = detectAndCompute(toGray(searchRegion.image()), detector, attempts, "train");
+        if (queryFeatures == null || trainFeatures == null || cancelled(detector, attempts)) {
+            return MatchOutcome.failed();
+        }
+        return locateWithFeatures(
+                queryFeatures,
+                trainFeatures,
+                false,
+                searchRegion.originInGlobalMap(),
+                queryLocalPoint,
+                detector,
+                fullMapCols,
+                fullMapRows,
+                constrainedSearch,
+                attempts
+        );
+    }
+
+    /**
+     * Matches the query patch against precomputed large-map features; only the patch is run through the detector.
+     * Descriptors inside {@code searchWindow} are matched directly (brute force for ORB, FLANN for SIFT); a
+     * whole-map SIFT search goes through a FLANN index trained once on the map and shared by all threads.
+     *
+     * @param searchWindow global-map window to restrict train keypoints to, or {@code null} for the whole map
+     */
+    public static MatchOutcome locate(
+            Mat queryPatch,
+            LargeMapFeatureIndex largeMapIndex,
+            Rect searchWindow,
+            Point queryLocalPoint,
+            DetectorKind detector,
+            boolean constrainedSearch,
+            List<String> attempts
+    ) {
+        if (queryPatch == null || queryPatch.empty() || largeMapIndex == null) {
+            attempts.add(detector + ": 输入图像为空");
+            return MatchOutcome.failed();
+        }
+        if (queryLocalPoint == null) {
+            attempts.add(detector + ": 缺少局部坐标");
+            return MatchOutcome.failed();
+        }
 
-        FeatureData queryFeatures = detectAndCompute(queryGray, detector, attempts, "query");
-        FeatureData trainFeatures = detectAndCompute(trainGray, detector, attempts, "train");
-        if (queryFeatures == null || trainFeatures == null) {
+        FeatureSet queryFeatures = detectAndCompute(toGray(queryPatch), detector, attempts, "query");
+        if (queryFeatures == null || cancelled(detector, attempts)) {
+            return MatchOutcome.failed();
+        }
+        boolean trainedIndex = detector == DetectorKind.SIFT && searchWindow == null;
+        FeatureSet trainFeatures = trainedIndex
+                ? largeMapIndex.features(detector)
+                : largeMapIndex.featuresWithin(detector, searchWindow);
+        if (trainFeatures.descriptors().empty() || trainFeatures.size() < MIN_GOOD_MATCHES_LOCAL) {
+            attempts.add(detector + " train 特征不足: " + trainFeatures.size());
             return MatchOutcome.failed();
         }
+        return locateWithFeatures(
+                queryFeatures,
+                trainFeatures,
+                trainedIndex,
+                new Point(0, 0),
+                queryLocalPoint,
+                detector,
+                largeMapIndex.cols(),
+                largeMapIndex.rows(),
+                constrainedSearch,
+                attempts
+        );
+    }
 
+    private static MatchOutcome locateWithFeatures(
+            FeatureSet queryFeatures,
+            FeatureSet trainFeatures,
+            boolean trainedIndex,
+            Point trainOriginInGlobalMap,
+            Point queryLocalPoint,
+            DetectorKind detector,
+            int fullMapCols,
+            int fullMapRows,
+            boolean constrainedSearch,
+            List<String> attempts
+    ) {
         int minGood = constrainedSearch ? MIN_GOOD_MATCHES_LOCAL : MIN_GOOD_MATCHES_GLOBAL;
         int minInliers = constrainedSearch ? MIN_INLIERS_LOCAL : MIN_INLIERS_GLOBAL;
 
-        List<DMatch> goodMatches = matchDescriptors(queryFeatures, trainFeatures, detector, attempts);
+        List<DMatch> goodMatches = matchDescriptors(
+                queryFeatures,
+                trainFeatures,
+                trainedIndex,
+                detector,
+                attempts
+        );
         if (goodMatches.size() < minGood) {
             attempts.add(detector + ": 有效匹配不足 " + goodMatches.size() + "/" + minGood);
             return MatchOutcome.failed();
         }
+        if (cancelled(detector, attempts)) {
+            return MatchOutcome.failed();
+        }
 
         List<Point> srcPoints = new ArrayList<>();
         List<Point> dstPoints = new ArrayList<>();
@@ -163,7 +266,7 @@ public final class FeatureHomographyLocalizer {
                     trainFeatures,
                     goodMatches,
                     queryLocalPoint,
-                    searchRegion,
+                    trainOriginInGlobalMap,
                     fullMapCols,
                     fullMapRows,
                     detector,
@@ -189,8 +292,8 @@ public final class FeatureHomographyLocalizer {
         }
 
         Point globalPoint = new Point(
-                mappedInRegion.x + searchRegion.originInGlobalMap().x,
-                mappedInRegion.y + searchRegion.originInGlobalMap().y
+                mappedInRegion.x + trainOriginInGlobalMap.x,
+                mappedInRegion.y + trainOriginInGlobalMap.y
         );
         if (!isInside(globalPoint, fullMapCols, fullMapRows)) {
             attempts.add(detector + ": 映射点超出大地图范围");
@@ -213,55 +316,65 @@ public final class FeatureHomographyLocalizer {
         return new MatchOutcome(globalPoint, confidence, inlierCount, goodMatches.size(), method);
     }
 
-    private static FeatureData detectAndCompute(
+    /**
+     * Whether the calling strategy was cancelled. The native detect, match and homography steps ignore
+     * interrupts, so a parallel search that already has a winner can only stop its losers between them.
+     */
+    private static boolean cancelled(DetectorKind detector, List<String> attempts) {
+        if (!Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        attempts.add(detector + ": 已中断");
+        return true;
+    }
+
+    private static FeatureSet detectAndCompute(
             Mat gray,
             DetectorKind detector,
             List<String> attempts,
             String label
     ) {
+        FeatureSet features = detectFeatures(gray, detector, ORB_FEATURES);
+        if (features.descriptors().empty() || features.size() < MIN_GOOD_MATCHES_LOCAL) {
+            attempts.add(detector + " " + label + " 特征不足: " + features.size());
+            return null;
+        }
+        return features;
+    }
+
+    static FeatureSet detectFeatures(Mat gray, DetectorKind detector, int orbFeatures) {
         MatOfKeyPoint keypoints = new MatOfKeyPoint();
         Mat descriptors = new Mat();
+        FeatureMatcherPool pool = FeatureMatcherPool.current();
         switch (detector) {
-            case ORB -> {
-                ORB orb = ORB.create(
-                        ORB_FEATURES,
-                        1.2f,
-                        8,
-                        31,
-                        0,
-                        2,
-                        ORB.HARRIS_SCORE,
-                        31,
-                        10
-                );
-                orb.detectAndCompute(gray, new Mat(), keypoints, descriptors);
-            }
-            case SIFT -> {
-                SIFT sift = SIFT.create();
-                sift.detectAndCompute(gray, new Mat(), keypoints, descriptors);
-            }
+            case ORB -> pool.orb(orbFeatures).detectAndCompute(gray, pool.noMask(), keypoints, descriptors);
+            case SIFT -> pool.sift().detectAndCompute(gray, pool.noMask(), keypoints, descriptors);
             default -> throw new IllegalArgumentException("Unsupported detector: " + detector);
         }
-        if (descriptors.empty() || keypoints.toArray().length < MIN_GOOD_MATCHES_LOCAL) {
-            attempts.add(detector + " " + label + " 特征不足: " + keypoints.toArray().length);
-            return null;
-        }
-        return new FeatureData(keypoints.toList(), descriptors);
+        return new FeatureSet(keypoints.toList(), descriptors);
     }
 
+    /**
+     * @param trainedIndex match through the shared FLANN index trained on {@code train}
+     */
     private static List<DMatch> matchDescriptors(
-            FeatureData query,
-            FeatureData train,
+            FeatureSet query,
+            FeatureSet train,
+            boolean trainedIndex,
             DetectorKind detector,
             List<String> attempts
     ) {
         List<MatOfDMatch> knnMatches = new ArrayList<>();
-        if (detector == DetectorKind.ORB) {
-            BFMatcher matcher = BFMatcher.create(DescriptorMatcher.BRUTEFORCE_HAMMING, false);
-            matcher.knnMatch(query.descriptors(), train.descriptors(), knnMatches, 2);
+        FeatureMatcherPool pool = FeatureMatcherPool.current();
+        if (trainedIndex) {
+            DescriptorMatcher matcher = pool.trainedFlann(train.descriptors());
+            synchronized (matcher) {
+                matcher.knnMatch(query.descriptors(), knnMatches, 2);
+            }
+        } else if (detector == DetectorKind.ORB) {
+            pool.hamming().knnMatch(query.descriptors(), train.descriptors(), knnMatches, 2);
         } else {
-            DescriptorMatcher matcher = DescriptorMatcher.create(DescriptorMatcher.FLANNBASED);
-            matcher.knnMatch(query.descriptors(), train.descriptors(), knnMatches, 2);
+            pool.flann().knnMatch(query.descriptors(), train.descriptors(), knnMatches, 2);
         }
 
         List<DMatch> goodMatches = new ArrayList<>();
@@ -280,11 +393,11 @@ public final class FeatureHomographyLocalizer {
     }
 
     private static MatchOutcome locateWithAffinePartial(
-            FeatureData query,
-            FeatureData train,
+            FeatureSet query,
+            FeatureSet train,
             List<DMatch> goodMatches,
             Point queryLocalPoint,
-            SearchRegion searchRegion,
+            Point trainOriginInGlobalMap,
             int fullMapCols,
             int fullMapRows,
             DetectorKind detector,
@@ -322,8 +435,8 @@ public final class FeatureHomographyLocalizer {
             return MatchOutcome.failed();
         }
         Point globalPoint = new Point(
-                mapped.x + searchRegion.originInGlobalMap().x,
-                mapped.y + searchRegion.originInGlobalMap().y
+                mapped.x + trainOriginInGlobalMap.x,
+                mapped.y + trainOriginInGlobalMap.y
         );
         if (!isInside(globalPoint, fullMapCols, fullMapRows)) {
             return MatchOutcome.failed();
@@ -356,7 +469,7 @@ public final class FeatureHomographyLocalizer {
         return points[0];
     }
 
-    private static Mat toGray(Mat image) {
+    static Mat toGray(Mat image) {
         if (image.channels() == 1) {
             return image.clone();
         }
@@ -368,7 +481,4 @@ public final class FeatureHomographyLocalizer {
     private static boolean isInside(Point point, int cols, int rows) {
         return point.x >= 0 && point.y >= 0 && point.x < cols && point.y < rows;
     }
-
-    private record FeatureData(List<KeyPoint> keypoints, Mat descriptors) {
-    }
 }
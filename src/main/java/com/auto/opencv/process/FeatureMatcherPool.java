@@ -0,0 +1,104 @@
+package com.auto.opencv.process;
+
+import org.opencv.core.Mat;
+import org.opencv.features2d.BFMatcher;
+import org.opencv.features2d.DescriptorMatcher;
+import org.opencv.features2d.ORB;
+import org.opencv.features2d.SIFT;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Detector and matcher instances for {@link FeatureHomographyLocalizer}, created once per thread and reused
+ * across ticks (OpenCV feature objects are not thread-safe, so they are never shared).
+ * <p>
+ * The exception are FLANN matchers trained on a large map's descriptors: their k-d trees are as large as the
+ * map's feature set, so they are built once per descriptor {@link Mat} and shared by every thread, which must
+ * hold the matcher's monitor while matching. Entries go away with the index that owns the descriptors.
+ */
+final class FeatureMatcherPool {
+    private static final ThreadLocal<FeatureMatcherPool> POOL = ThreadLocal.withInitial(FeatureMatcherPool::new);
+    private static final Map<Mat, DescriptorMatcher> TRAINED_FLANN = new WeakHashMap<>();
+
+    private final Mat noMask = new Mat();
+    private ORB orb;
+    private int orbFeatures;
+    private SIFT sift;
+    private BFMatcher hamming;
+    private DescriptorMatcher flann;
+
+    private FeatureMatcherPool() {
+    }
+
+    static FeatureMatcherPool current() {
+        return POOL.get();
+    }
+
+    Mat noMask() {
+        return noMask;
+    }
+
+    ORB orb(int maxFeatures) {
+        if (orb == null) {
+            orb = ORB.create(
+                    maxFeatures,
+                    1.2f,
+                    8,
+                    31,
+                    0,
+                    2,
+                    ORB.HARRIS_SCORE,
+                    31,
+                    10
+            );
+            orbFeatures = maxFeatures;
+        } else if (orbFeatures != maxFeatures) {
+            orb.setMaxFeatures(maxFeatures);
+            orbFeatures = maxFeatures;
+        }
+        return orb;
+    }
+
+    SIFT sift() {
+        if (sift == null) {
+            sift = SIFT.create();
+        }
+        return sift;
+    }
+
+    BFMatcher hamming() {
+        if (hamming == null) {
+            hamming = BFMatcher.create(DescriptorMatcher.BRUTEFORCE_HAMMING, false);
+        }
+        return hamming;
+    }
+
+    /**
+     * FLANN matcher for one-off query/train pairs ({@code knnMatch(query, train, ...)}).
+     */
+    DescriptorMatcher flann() {
+        if (flann == null) {
+            flann = DescriptorMatcher.create(DescriptorMatcher.FLANNBASED);
+        }
+        return flann;
+    }
+
+    /**
+     * Shared FLANN matcher already trained on {@code trainDescriptors}; match with {@code knnMatch(query, ...)}
+     * while synchronized on it.
+     */
+    DescriptorMatcher trainedFlann(Mat trainDescriptors) {
+        synchronized (TRAINED_FLANN) {
+            DescriptorMatcher matcher = TRAINED_FLANN.get(trainDescriptors);
+            if (matcher == null) {
+                matcher = DescriptorMatcher.create(DescriptorMatcher.FLANNBASED);
+                matcher.add(List.of(trainDescriptors));
+                matcher.train();
+                TRAINED_FLANN.put(trainDescriptors, matcher);
+            }
+            return matcher;
+        }
+    }
+}
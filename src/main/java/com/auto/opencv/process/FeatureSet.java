@@ -0,0 +1,15 @@
+package com.auto.opencv.process;
+
+import org.opencv.core.KeyPoint;
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+/**
+ * Keypoints and the matching descriptor rows (row {@code i} describes {@code keypoints.get(i)}).
+ */
+record FeatureSet(List<KeyPoint> keypoints, Mat descriptors) {
+    int size() {
+        return keypoints.size();
+    }
+}
@@ -0,0 +1,165 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * Distance and direction rasters rooted at one target cell, built with a single reverse Dijkstra over a
+ * {@link GridAStarPlanner} grid (same move and obstacle costs). Afterwards every cell knows its next step
+ * towards the target, so {@link #findPath} only follows directions and never searches; a jump in the start
+ * position costs nothing extra.
+ * <p>
+ * Queries for any other end point are delegated to the underlying grid planner.
+ */
+public final class FlowField implements GridPathfinder {
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final int[] OPPOSITE = {1, 0, 3, 2, 7, 6, 5, 4};
+    private static final double[] MOVE_COST = {1, 1, 1, 1, SQRT2, SQRT2, SQRT2, SQRT2};
+    private static final byte NO_DIRECTION = -1;
+
+    private final GridAStarPlanner grid;
+    private final int cols;
+    private final int rows;
+    private final int target;
+    private final float[] distance;
+    private final byte[] direction;
+    private int lastExpansions;
+
+    private FlowField(GridAStarPlanner grid, int target, float[] distance, byte[] direction) {
+        this.grid = grid;
+        this.cols = grid.cols();
+        this.rows = grid.rows();
+        this.target = target;
+        this.distance = distance;
+        this.direction = direction;
+    }
+
+    /**
+     * Runs the reverse Dijkstra from {@code (targetX, targetY)}; a blocked or out-of-bounds target yields a
+     * field in which no cell is reachable.
+     */
+    public static FlowField build(GridAStarPlanner grid, int targetX, int targetY) {
+        int cols = grid.cols();
+        int rows = grid.rows();
+        int count = cols * rows;
+        float[] distance = new float[count];
+        byte[] direction = new byte[count];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        Arrays.fill(direction, NO_DIRECTION);
+        boolean inBounds = targetX >= 0 && targetX < cols && targetY >= 0 && targetY < rows;
+        int target = inBounds ? targetY * cols + targetX : -1;
+        if (!inBounds || grid.isBlocked(targetX, targetY)) {
+            return new FlowField(grid, target, distance, direction);
+        }
+
+        WalkabilityGrid walkable = grid.walkability();
+        float[] obstacleCost = grid.obstacleCostField();
+        double[] g = new double[count];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        IndexedMinHeap open = new IndexedMinHeap(count);
+        g[target] = 0;
+        open.insertOrUpdate(target, 0);
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            double currentG = g[current];
+            distance[current] = (float) currentG;
+            int cx = current % cols;
+            int cy = current / cols;
+            double enterCost = obstacleCost[current];
+            for (int d = 0; d < DX.length; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!walkable.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                double tentative = currentG + MOVE_COST[d] + enterCost;
+                if (tentative < g[neighbor]) {
+                    g[neighbor] = tentative;
+                    direction[neighbor] = (byte) OPPOSITE[d];
+                    open.insertOrUpdate(neighbor, tentative);
+                }
+            }
+        }
+        return new FlowField(grid, target, distance, direction);
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return grid.isBlocked(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return grid.obstacleCost(x, y);
+    }
+
+    /**
+     * Cells followed by the last {@link #findPath} (or the delegate's expansions for another end point).
+     */
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    public int targetX() {
+        return target < 0 ? -1 : target % cols;
+    }
+
+    public int targetY() {
+        return target < 0 ? -1 : target / cols;
+    }
+
+    /**
+     * Path cost from {@code (x, y)} to the target, or {@link Float#POSITIVE_INFINITY} if unreachable.
+     */
+    public float distance(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return distance[y * cols + x];
+    }
+
+    @Override
+    public int[][] findPath(int startX, int startY, int endX, int endY) {
+        if (target < 0 || endX != targetX() || endY != targetY()) {
+            int[][] path = grid.findPath(startX, startY, endX, endY);
+            lastExpansions = grid.lastExpansions();
+            return path;
+        }
+        lastExpansions = 0;
+        if (distance(startX, startY) == Float.POSITIVE_INFINITY) {
+            return new int[0][2];
+        }
+        int[] cells = new int[64];
+        int length = 0;
+        int current = startY * cols + startX;
+        cells[length++] = current;
+        while (current != target) {
+            int d = direction[current];
+            current = (current / cols + DY[d]) * cols + current % cols + DX[d];
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = current;
+        }
+        lastExpansions = length;
+        int[][] path = new int[length][2];
+        for (int i = 0; i < length; i++) {
+            path[i][0] = cells[i] % cols;
+            path[i][1] = cells[i] / cols;
+        }
+        return path;
+    }
+}
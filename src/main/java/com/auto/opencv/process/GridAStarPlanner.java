@@ -0,0 +1,219 @@
+package com.auto.opencv.process;
+
+import com.auto.config.ObstacleCostConfig;
+import org.opencv.core.Mat;
+
+import java.util.Arrays;
+
+/**
+ * 8-connected A* over a pathfinding map with the same costs as the legacy {@link PathPlanner} search
+ * (Manhattan heuristic, move cost plus wall-proximity penalty of the entered cell), but with all search
+ * state in flat per-cell arrays and an {@link IndexedMinHeap}. The penalty comes from a precomputed
+ * {@link ObstacleCostField}.
+ * <p>
+ * Per-cell state is tagged with a search generation, so an instance can be reused for many searches on
+ * the same map without clearing or allocating per search. Instances are not thread-safe across searches;
+ * {@link #findPath} is synchronized.
+ */
+public final class GridAStarPlanner implements GridPathfinder {
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final double[] MOVE_COST = {1, 1, 1, 1, SQRT2, SQRT2, SQRT2, SQRT2};
+
+    private final int cols;
+    private final int rows;
+    private final WalkabilityGrid walkable;
+    private final float[] obstacleCost;
+    private final double[] g;
+    private final int[] parent;
+    private final int[] stamp;
+    private final IndexedMinHeap open;
+    private int generation;
+    private int lastExpansions;
+
+    GridAStarPlanner(int cols, int rows, boolean[] blocked) {
+        this(cols, rows, blocked, ObstacleCostField.compute(blocked, cols, rows, ObstacleCostConfig.defaults()));
+    }
+
+    GridAStarPlanner(int cols, int rows, boolean[] blocked, float[] obstacleCost) {
+        this(WalkabilityGrid.fromBlocked(blocked, cols, rows), obstacleCost);
+    }
+
+    private GridAStarPlanner(WalkabilityGrid walkable, float[] obstacleCost) {
+        int cols = walkable.cols();
+        int rows = walkable.rows();
+        if (obstacleCost.length != cols * rows) {
+            throw new IllegalArgumentException("grid size does not match obstacle cost field");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.walkable = walkable;
+        this.obstacleCost = obstacleCost;
+        this.g = new double[cols * rows];
+        this.parent = new int[cols * rows];
+        this.stamp = new int[cols * rows];
+        this.open = new IndexedMinHeap(cols * rows);
+    }
+
+    /**
+     * Reads the map with one bulk copy; pixels brighter than {@code obstacleThreshold} are obstacles.
+     */
+    public static GridAStarPlanner fromMat(Mat map, double obstacleThreshold) {
+        return fromMat(map, obstacleThreshold, ObstacleCostConfig.defaults());
+    }
+
+    public static GridAStarPlanner fromMat(Mat map, double obstacleThreshold, ObstacleCostConfig obstacleCost) {
+        return fromWalkability(WalkabilityGrid.fromMat(map, obstacleThreshold), obstacleCost);
+    }
+
+    /**
+     * Builds the planner on an already shared walkability bitmap, which it reads blocked cells from instead of
+     * keeping its own copy.
+     */
+    public static GridAStarPlanner fromWalkability(WalkabilityGrid walkable, ObstacleCostConfig obstacleCost) {
+        return new GridAStarPlanner(walkable, ObstacleCostField.compute(walkable, obstacleCost));
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return !walkable.isWalkable(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return obstacleCost[y * cols + x];
+    }
+
+    /**
+     * The shared bitmap blocked cells are read from; planners built on this grid read it too.
+     */
+    WalkabilityGrid walkability() {
+        return walkable;
+    }
+
+    float[] obstacleCostField() {
+        return obstacleCost;
+    }
+
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    @Override
+    public int[][] findPath(int startX, int startY, int endX, int endY) {
+        return findPathWithin(startX, startY, endX, endY, null);
+    }
+
+    /**
+     * Same search, but only through cells with {@code allowed[cell]} set (all cells when {@code allowed} is
+     * {@code null}); used to refine a coarse route inside its corridor.
+     */
+    synchronized int[][] findPathWithin(int startX, int startY, int endX, int endY, boolean[] allowed) {
+        lastExpansions = 0;
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return new int[0][2];
+        }
+        int start = startY * cols + startX;
+        int end = endY * cols + endX;
+        if (isBlocked(startX, startY) || isBlocked(endX, endY)) {
+            return new int[0][2];
+        }
+
+        nextGeneration();
+        open.clear();
+        touch(start);
+        g[start] = 0;
+        open.insertOrUpdate(start, heuristic(startX, startY, endX, endY));
+
+        int maxIterations = cols * rows * 2;
+        int iterations = 0;
+        while (!open.isEmpty() && iterations++ < maxIterations) {
+            int current = open.poll();
+            lastExpansions++;
+            if (current == end) {
+                int[][] path = reconstruct(end);
+                open.clear();
+                return path;
+            }
+            int cx = current % cols;
+            int cy = current / cols;
+            double currentG = g[current];
+            for (int d = 0; d < DX.length; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!inBounds(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                if (!walkable.isWalkable(nx, ny) || (allowed != null && !allowed[neighbor])) {
+                    continue;
+                }
+                double tentative = currentG + MOVE_COST[d] + obstacleCost(neighbor);
+                if (stamp[neighbor] == generation && tentative >= g[neighbor]) {
+                    continue;
+                }
+                touch(neighbor);
+                g[neighbor] = tentative;
+                parent[neighbor] = current;
+                open.insertOrUpdate(neighbor, tentative + heuristic(nx, ny, endX, endY));
+            }
+        }
+        open.clear();
+        return new int[0][2];
+    }
+
+    double obstacleCost(int cell) {
+        return obstacleCost[cell];
+    }
+
+    private int[][] reconstruct(int end) {
+        int length = 1;
+        for (int cell = end; parent[cell] >= 0; cell = parent[cell]) {
+            length++;
+        }
+        int[][] path = new int[length][2];
+        int cell = end;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i][0] = cell % cols;
+            path[i][1] = cell / cols;
+            cell = parent[cell];
+        }
+        return path;
+    }
+
+    private void touch(int cell) {
+        if (stamp[cell] != generation) {
+            stamp[cell] = generation;
+            parent[cell] = -1;
+            g[cell] = Double.MAX_VALUE;
+        }
+    }
+
+    private void nextGeneration() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    private static double heuristic(int x, int y, int endX, int endY) {
+        return Math.abs(x - endX) + Math.abs(y - endY);
+    }
+}
@@ -0,0 +1,29 @@
+package com.auto.opencv.process;
+
+/**
+ * Planner over a prebuilt pathfinding grid; implementations are reused across navigation ticks.
+ */
+public interface GridPathfinder {
+    int cols();
+
+    int rows();
+
+    boolean isBlocked(int x, int y);
+
+    /**
+     * Wall-proximity penalty added when entering {@code (x, y)}.
+     */
+    float obstacleCost(int x, int y);
+
+    /**
+     * Cells expanded during the last {@link #findPath} call.
+     */
+    int lastExpansions();
+
+    /**
+     * @return path cells {@code [x, y]} from start to end inclusive, or an empty array when unreachable;
+     *         {@link HierarchicalPlanner} returns sparse waypoints after the refined leading part, and
+     *         {@link AnytimePlanner} may start with one straight hop or return empty while still searching
+     */
+    int[][] findPath(int startX, int startY, int endX, int endY);
+}
@@ -0,0 +1,639 @@
+package com.auto.opencv.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * HPA* over a {@link GridAStarPlanner} grid. The map is split into square clusters; entrance nodes are placed
+ * on walkable runs of each shared cluster border and connected by intra-cluster distances, all computed once
+ * per map. A query connects start and end to the nodes of their clusters, runs A* on this abstract graph and
+ * refines only the first few abstract edges to full resolution; the rest of the returned path is the sparse
+ * list of entrance cells, which is enough for picking the next waypoint. Query memory and time scale with the
+ * number of clusters crossed, not with the map area.
+ * <p>
+ * Routes within neighbouring clusters, and queries the abstraction cannot connect (e.g. diagonal-only gaps at
+ * cluster corners), are delegated to the grid planner.
+ */
+public final class HierarchicalPlanner implements GridPathfinder {
+    static final int DEFAULT_CLUSTER_SIZE = 32;
+    static final int DEFAULT_REFINED_SEGMENTS = 4;
+    private static final int MAX_SINGLE_ENTRANCE_WIDTH = 6;
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    private static final int[] DX = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final double[] MOVE_COST = {1, 1, 1, 1, SQRT2, SQRT2, SQRT2, SQRT2};
+
+    private final GridAStarPlanner grid;
+    private final WalkabilityGrid walkable;
+    private final float[] obstacleCost;
+    private final int cols;
+    private final int rows;
+    private final int clusterSize;
+    private final int clusterCols;
+    private final int[] nodeCell;
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final double[] edgeCost;
+    private final int[] clusterNodeStart;
+    private final int[] clusterNodes;
+    private final WindowSearch window;
+    private final double[] g;
+    private final int[] parent;
+    private final int[] stamp;
+    private final double[] toEnd;
+    private final IndexedMinHeap open;
+    private int generation;
+    private int lastExpansions;
+
+    private HierarchicalPlanner(GridAStarPlanner grid, int clusterSize) {
+        if (clusterSize < 4) {
+            throw new IllegalArgumentException("clusterSize must be at least 4");
+        }
+        this.grid = grid;
+        this.walkable = grid.walkability();
+        this.obstacleCost = grid.obstacleCostField();
+        this.cols = grid.cols();
+        this.rows = grid.rows();
+        this.clusterSize = clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+        int clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.window = new WindowSearch(clusterSize * clusterSize);
+
+        GraphBuilder builder = new GraphBuilder();
+        for (int cy = 0; cy < clusterRows; cy++) {
+            for (int cx = 0; cx < clusterCols; cx++) {
+                if (cx + 1 < clusterCols) {
+                    addVerticalBorder(builder, cx, cy);
+                }
+                if (cy + 1 < clusterRows) {
+                    addHorizontalBorder(builder, cx, cy);
+                }
+            }
+        }
+        int nodeCount = builder.cells.size();
+        this.nodeCell = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodeCell[i] = builder.cells.get(i);
+        }
+
+        int clusterCount = clusterCols * clusterRows;
+        this.clusterNodeStart = new int[clusterCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            clusterNodeStart[clusterOf(nodeCell[node]) + 1]++;
+        }
+        for (int c = 0; c < clusterCount; c++) {
+            clusterNodeStart[c + 1] += clusterNodeStart[c];
+        }
+        this.clusterNodes = new int[nodeCount];
+        int[] fill = Arrays.copyOf(clusterNodeStart, clusterCount);
+        for (int node = 0; node < nodeCount; node++) {
+            clusterNodes[fill[clusterOf(nodeCell[node])]++] = node;
+        }
+
+        double[][] intraCosts = new double[clusterCount][];
+        ThreadLocal<WindowSearch> searches = ThreadLocal.withInitial(() -> new WindowSearch(clusterSize * clusterSize));
+        IntStream.range(0, clusterCount).parallel().forEach(c -> intraCosts[c] = intraClusterCosts(c, searches.get()));
+        for (int c = 0; c < clusterCount; c++) {
+            int from = clusterNodeStart[c];
+            int count = clusterNodeStart[c + 1] - from;
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < count; j++) {
+                    double cost = intraCosts[c][i * count + j];
+                    if (i != j && cost < INFINITY) {
+                        builder.addEdge(clusterNodes[from + i], clusterNodes[from + j], cost);
+                    }
+                }
+            }
+        }
+
+        this.edgeStart = new int[nodeCount + 1];
+        for (long edge : builder.edgeNodes) {
+            edgeStart[(int) (edge >>> 32) + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node + 1] += edgeStart[node];
+        }
+        this.edgeTarget = new int[builder.edgeNodes.size()];
+        this.edgeCost = new double[builder.edgeNodes.size()];
+        int[] edgeFill = Arrays.copyOf(edgeStart, nodeCount);
+        for (int i = 0; i < builder.edgeNodes.size(); i++) {
+            long edge = builder.edgeNodes.get(i);
+            int slot = edgeFill[(int) (edge >>> 32)]++;
+            edgeTarget[slot] = (int) edge;
+            edgeCost[slot] = builder.edgeCosts.get(i);
+        }
+
+        this.g = new double[nodeCount + 2];
+        this.parent = new int[nodeCount + 2];
+        this.stamp = new int[nodeCount + 2];
+        this.toEnd = new double[nodeCount];
+        Arrays.fill(toEnd, INFINITY);
+        this.open = new IndexedMinHeap(nodeCount + 2);
+    }
+
+    /**
+     * Row-major matrix of shortest in-cluster costs between the entrance nodes of {@code cluster}.
+     */
+    private double[] intraClusterCosts(int cluster, WindowSearch search) {
+        int from = clusterNodeStart[cluster];
+        int count = clusterNodeStart[cluster + 1] - from;
+        double[] costs = new double[count * count];
+        for (int i = 0; i < count; i++) {
+            searchCluster(search, nodeCell[clusterNodes[from + i]], -1, false);
+            for (int j = 0; j < count; j++) {
+                costs[i * count + j] = search.cost(nodeCell[clusterNodes[from + j]]);
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Builds the abstract graph over the grid's blocked cells and obstacle cost field; the grid also serves as
+     * fallback for short or unconnected queries.
+     */
+    public static HierarchicalPlanner fromGrid(GridAStarPlanner grid) {
+        return new HierarchicalPlanner(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    static HierarchicalPlanner fromGrid(GridAStarPlanner grid, int clusterSize) {
+        return new HierarchicalPlanner(grid, clusterSize);
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return !walkable.isWalkable(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return obstacleCost[y * cols + x];
+    }
+
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    int nodeCount() {
+        return nodeCell.length;
+    }
+
+    /**
+     * Path whose first {@value #DEFAULT_REFINED_SEGMENTS} abstract edges are refined to contiguous cells.
+     */
+    @Override
+    public int[][] findPath(int startX, int startY, int endX, int endY) {
+        return findPath(startX, startY, endX, endY, DEFAULT_REFINED_SEGMENTS);
+    }
+
+    /**
+     * @param refinedSegments abstract edges refined to full resolution; {@link Integer#MAX_VALUE} refines the
+     *                        whole path
+     */
+    public synchronized int[][] findPath(int startX, int startY, int endX, int endY, int refinedSegments) {
+        lastExpansions = 0;
+        window.expansions = 0;
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return new int[0][2];
+        }
+        int start = startY * cols + startX;
+        int end = endY * cols + endX;
+        if (isBlocked(startX, startY) || isBlocked(endX, endY)) {
+            return new int[0][2];
+        }
+        int startCluster = clusterOf(start);
+        int endCluster = clusterOf(end);
+        if (Math.abs(startCluster % clusterCols - endCluster % clusterCols) <= 1
+                && Math.abs(startCluster / clusterCols - endCluster / clusterCols) <= 1) {
+            return delegate(startX, startY, endX, endY);
+        }
+
+        int[] route = abstractRoute(start, end, startCluster, endCluster);
+        if (route == null) {
+            return delegate(startX, startY, endX, endY);
+        }
+        CellList cells = new CellList();
+        cells.add(route[0]);
+        for (int i = 1; i < route.length; i++) {
+            int from = route[i - 1];
+            int to = route[i];
+            if (i > refinedSegments || clusterOf(from) != clusterOf(to)) {
+                cells.add(to);
+            } else {
+                searchCluster(window, from, to, false);
+                window.appendPath(to, cells);
+            }
+        }
+        lastExpansions += window.expansions;
+        return cells.toPath(cols);
+    }
+
+    private int[][] delegate(int startX, int startY, int endX, int endY) {
+        int[][] path = grid.findPath(startX, startY, endX, endY);
+        lastExpansions += grid.lastExpansions();
+        return path;
+    }
+
+    /**
+     * Cells of the abstract route start, entrance nodes..., end; {@code null} if the graph does not connect them.
+     */
+    private int[] abstractRoute(int start, int end, int startCluster, int endCluster) {
+        int nodeCount = nodeCell.length;
+        int startId = nodeCount;
+        int endId = nodeCount + 1;
+        int endX = end % cols;
+        int endY = end / cols;
+
+        searchCluster(window, end, -1, true);
+        for (int i = clusterNodeStart[endCluster]; i < clusterNodeStart[endCluster + 1]; i++) {
+            toEnd[clusterNodes[i]] = window.cost(nodeCell[clusterNodes[i]]);
+        }
+        searchCluster(window, start, -1, false);
+
+        nextGeneration();
+        open.clear();
+        touch(startId);
+        g[startId] = 0;
+        for (int i = clusterNodeStart[startCluster]; i < clusterNodeStart[startCluster + 1]; i++) {
+            int node = clusterNodes[i];
+            relax(startId, node, window.cost(nodeCell[node]), endX, endY);
+        }
+        boolean found = false;
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            lastExpansions++;
+            if (current == endId) {
+                found = true;
+                break;
+            }
+            for (int e = edgeStart[current]; e < edgeStart[current + 1]; e++) {
+                relax(current, edgeTarget[e], edgeCost[e], endX, endY);
+            }
+            if (toEnd[current] < INFINITY) {
+                relax(current, endId, toEnd[current], endX, endY);
+            }
+        }
+        open.clear();
+        for (int i = clusterNodeStart[endCluster]; i < clusterNodeStart[endCluster + 1]; i++) {
+            toEnd[clusterNodes[i]] = INFINITY;
+        }
+        if (!found) {
+            return null;
+        }
+
+        int length = 0;
+        for (int id = endId; id >= 0; id = parent[id]) {
+            length++;
+        }
+        int[] route = new int[length];
+        int id = endId;
+        for (int i = length - 1; i >= 0; i--) {
+            route[i] = id == startId ? start : id == endId ? end : nodeCell[id];
+            id = parent[id];
+        }
+        return route;
+    }
+
+    private void relax(int from, int to, double stepCost, int endX, int endY) {
+        if (stepCost == INFINITY) {
+            return;
+        }
+        double tentative = g[from] + stepCost;
+        if (stamp[to] == generation && tentative >= g[to]) {
+            return;
+        }
+        touch(to);
+        g[to] = tentative;
+        parent[to] = from;
+        int cell = to < nodeCell.length ? nodeCell[to] : endY * cols + endX;
+        open.insertOrUpdate(to, tentative + octile(cell % cols, cell / cols, endX, endY));
+    }
+
+    private void touch(int id) {
+        if (stamp[id] != generation) {
+            stamp[id] = generation;
+            parent[id] = -1;
+            g[id] = INFINITY;
+        }
+    }
+
+    private void nextGeneration() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    private void addVerticalBorder(GraphBuilder builder, int cx, int cy) {
+        int x = (cx + 1) * clusterSize - 1;
+        int y0 = cy * clusterSize;
+        int y1 = Math.min(rows, y0 + clusterSize);
+        int runStart = -1;
+        for (int y = y0; y <= y1; y++) {
+            boolean open = y < y1 && walkable.isWalkable(x, y) && walkable.isWalkable(x + 1, y);
+            if (open && runStart < 0) {
+                runStart = y;
+            } else if (!open && runStart >= 0) {
+                int[] crossings = transitions(
+                        runStart,
+                        y - 1,
+                        row -> obstacleCost[row * cols + x] + obstacleCost[row * cols + x + 1]
+                );
+                for (int ty : crossings) {
+                    builder.addTransition(ty * cols + x, ty * cols + x + 1, obstacleCost);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addHorizontalBorder(GraphBuilder builder, int cx, int cy) {
+        int y = (cy + 1) * clusterSize - 1;
+        int x0 = cx * clusterSize;
+        int x1 = Math.min(cols, x0 + clusterSize);
+        int runStart = -1;
+        for (int x = x0; x <= x1; x++) {
+            boolean open = x < x1 && walkable.isWalkable(x, y) && walkable.isWalkable(x, y + 1);
+            if (open && runStart < 0) {
+                runStart = x;
+            } else if (!open && runStart >= 0) {
+                int[] crossings = transitions(
+                        runStart,
+                        x - 1,
+                        column -> obstacleCost[y * cols + column] + obstacleCost[(y + 1) * cols + column]
+                );
+                for (int tx : crossings) {
+                    builder.addTransition(y * cols + tx, (y + 1) * cols + tx, obstacleCost);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    /**
+     * The cheapest crossing of a narrow entrance; a wide one gets the cheapest crossing of each third, so
+     * routes are not forced to hug the walls at its ends.
+     */
+    private static int[] transitions(int from, int to, IntToDoubleFunction crossingCost) {
+        int width = to - from + 1;
+        if (width < MAX_SINGLE_ENTRANCE_WIDTH) {
+            return new int[] {cheapest(from, to, crossingCost)};
+        }
+        int third = width / 3;
+        return new int[] {
+                cheapest(from, from + third - 1, crossingCost),
+                cheapest(from + third, to - third, crossingCost),
+                cheapest(to - third + 1, to, crossingCost)
+        };
+    }
+
+    private static int cheapest(int from, int to, IntToDoubleFunction crossingCost) {
+        int middle = (from + to) / 2;
+        int best = middle;
+        double bestCost = crossingCost.applyAsDouble(middle);
+        for (int i = from; i <= to; i++) {
+            double cost = crossingCost.applyAsDouble(i);
+            if (cost < bestCost || (cost == bestCost && Math.abs(i - middle) < Math.abs(best - middle))) {
+                best = i;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches inside the cluster of {@code source}; reverse searches give costs from each cell to the source.
+     * Without a target the search stops once every entrance node of the cluster is settled.
+     */
+    private void searchCluster(WindowSearch search, int source, int target, boolean reverse) {
+        int cluster = clusterOf(source);
+        int left = (cluster % clusterCols) * clusterSize;
+        int top = (cluster / clusterCols) * clusterSize;
+        search.run(
+                left,
+                top,
+                Math.min(clusterSize, cols - left),
+                Math.min(clusterSize, rows - top),
+                source,
+                target,
+                reverse,
+                clusterNodeStart[cluster],
+                clusterNodeStart[cluster + 1]
+        );
+    }
+
+    private int clusterOf(int cell) {
+        return ((cell / cols) / clusterSize) * clusterCols + (cell % cols) / clusterSize;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    private static double octile(int x, int y, int endX, int endY) {
+        int dx = Math.abs(x - endX);
+        int dy = Math.abs(y - endY);
+        return Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+    }
+
+    private static final class GraphBuilder {
+        private final List<Integer> cells = new ArrayList<>();
+        private final Map<Integer, Integer> nodeByCell = new HashMap<>();
+        private final List<Long> edgeNodes = new ArrayList<>();
+        private final List<Double> edgeCosts = new ArrayList<>();
+
+        void addTransition(int cellA, int cellB, float[] obstacleCost) {
+            int a = node(cellA);
+            int b = node(cellB);
+            addEdge(a, b, 1 + obstacleCost[cellB]);
+            addEdge(b, a, 1 + obstacleCost[cellA]);
+        }
+
+        void addEdge(int from, int to, double cost) {
+            edgeNodes.add(((long) from << 32) | to);
+            edgeCosts.add(cost);
+        }
+
+        private int node(int cell) {
+            return nodeByCell.computeIfAbsent(cell, ignored -> {
+                cells.add(cell);
+                return cells.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * A* / Dijkstra confined to one cluster window, with state sized to the window and reused across searches.
+     */
+    private final class WindowSearch {
+        private final double[] cost;
+        private final int[] parent;
+        private final int[] stamp;
+        private final int[] goalStamp;
+        private final IndexedMinHeap open;
+        private int generation;
+        private int left;
+        private int top;
+        private int width;
+        private int height;
+        private int expansions;
+
+        WindowSearch(int capacity) {
+            this.cost = new double[capacity];
+            this.parent = new int[capacity];
+            this.stamp = new int[capacity];
+            this.goalStamp = new int[capacity];
+            this.open = new IndexedMinHeap(capacity);
+        }
+
+        /**
+         * @param target cell to stop at (A*), or {@code -1} to run Dijkstra until the entrance nodes
+         *               {@code clusterNodes[goalFrom, goalTo)} are settled
+         */
+        void run(
+                int left,
+                int top,
+                int width,
+                int height,
+                int source,
+                int target,
+                boolean reverse,
+                int goalFrom,
+                int goalTo
+        ) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                Arrays.fill(goalStamp, 0);
+                generation = 0;
+            }
+            generation++;
+            open.clear();
+            int goalsLeft = 0;
+            if (target < 0) {
+                for (int i = goalFrom; i < goalTo; i++) {
+                    goalStamp[local(nodeCell[clusterNodes[i]])] = generation;
+                }
+                goalsLeft = goalTo - goalFrom;
+            }
+            int sourceLocal = local(source);
+            int targetLocal = target < 0 ? -1 : local(target);
+            int targetX = target % cols;
+            int targetY = target / cols;
+            stamp[sourceLocal] = generation;
+            cost[sourceLocal] = 0;
+            parent[sourceLocal] = -1;
+            open.insertOrUpdate(sourceLocal, 0);
+            while (!open.isEmpty()) {
+                int current = open.poll();
+                expansions++;
+                if (current == targetLocal) {
+                    break;
+                }
+                if (goalStamp[current] == generation && --goalsLeft == 0) {
+                    break;
+                }
+                int cx = left + current % width;
+                int cy = top + current / width;
+                int currentCell = cy * cols + cx;
+                double currentCost = cost[current];
+                for (int d = 0; d < DX.length; d++) {
+                    int nx = cx + DX[d];
+                    int ny = cy + DY[d];
+                    if (nx < left || nx >= left + width || ny < top || ny >= top + height) {
+                        continue;
+                    }
+                    if (!walkable.isWalkable(nx, ny)) {
+                        continue;
+                    }
+                    int neighborCell = ny * cols + nx;
+                    int neighbor = (ny - top) * width + (nx - left);
+                    double tentative = currentCost + MOVE_COST[d] + obstacleCost[reverse ? currentCell : neighborCell];
+                    if (stamp[neighbor] == generation && tentative >= cost[neighbor]) {
+                        continue;
+                    }
+                    stamp[neighbor] = generation;
+                    cost[neighbor] = tentative;
+                    parent[neighbor] = current;
+                    double priority = targetLocal < 0 ? tentative : tentative + octile(nx, ny, targetX, targetY);
+                    open.insertOrUpdate(neighbor, priority);
+                }
+            }
+            open.clear();
+        }
+
+        double cost(int cell) {
+            int local = local(cell);
+            return stamp[local] == generation ? cost[local] : INFINITY;
+        }
+
+        /**
+         * Appends the cells after the source up to {@code target}; the target must have been reached.
+         */
+        void appendPath(int target, CellList out) {
+            int local = local(target);
+            if (stamp[local] != generation) {
+                out.add(target);
+                return;
+            }
+            int length = 0;
+            for (int cell = local; parent[cell] >= 0; cell = parent[cell]) {
+                length++;
+            }
+            int[] steps = new int[length];
+            int cell = local;
+            for (int i = length - 1; i >= 0; i--) {
+                steps[i] = (top + cell / width) * cols + left + cell % width;
+                cell = parent[cell];
+            }
+            for (int step : steps) {
+                out.add(step);
+            }
+        }
+
+        private int local(int cell) {
+            return (cell / cols - top) * width + (cell % cols - left);
+        }
+    }
+
+    private static final class CellList {
+        private int[] cells = new int[64];
+        private int size;
+
+        void add(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+
+        int[][] toPath(int cols) {
+            int[][] path = new int[size][2];
+            for (int i = 0; i < size; i++) {
+                path[i][0] = cells[i] % cols;
+                path[i][1] = cells[i] / cols;
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over integer ids {@code [0, capacity)} with O(log n) decrease-key.
+ * {@code position[id]} is the heap slot of {@code id}, or {@code -1} when it is not queued.
+ * Entries are ordered by key, then by an optional secondary key (D* Lite uses both).
+ */
+final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private final double[] secondaryKeys;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        this.secondaryKeys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    double key(int id) {
+        return keys[id];
+    }
+
+    double secondaryKey(int id) {
+        return secondaryKeys[id];
+    }
+
+    /**
+     * Inserts {@code id} or moves it to {@code key}, which may be lower or higher than its current key.
+     */
+    void insertOrUpdate(int id, double key) {
+        insertOrUpdate(id, key, 0);
+    }
+
+    void insertOrUpdate(int id, double key, double secondaryKey) {
+        int slot = position[id];
+        if (slot < 0) {
+            keys[id] = key;
+            secondaryKeys[id] = secondaryKey;
+            slot = size++;
+            heap[slot] = id;
+            position[id] = slot;
+            siftUp(slot);
+            return;
+        }
+        keys[id] = key;
+        secondaryKeys[id] = secondaryKey;
+        siftUp(slot);
+        siftDown(position[id]);
+    }
+
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    int peek() {
+        return heap[0];
+    }
+
+    int poll() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    void remove(int id) {
+        int slot = position[id];
+        if (slot >= 0) {
+            removeAt(slot);
+        }
+    }
+
+    /**
+     * Empties the heap in O(size) so the instance can be reused for the next search.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int slot) {
+        int removed = heap[slot];
+        position[removed] = -1;
+        size--;
+        if (slot == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[slot] = last;
+        position[last] = slot;
+        siftUp(slot);
+        siftDown(position[last]);
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && secondaryKeys[a] < secondaryKeys[b]);
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (!less(id, parent)) {
+                break;
+            }
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], id)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            position[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+}
@@ -0,0 +1,380 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * JPS+ planner for the pathfinding grid, plugged in behind the same {@code findPath} contract as
+ * {@link GridAStarPlanner}.
+ * <p>
+ * Cells that are walkable and have zero {@link ObstacleCostField} penalty form uniform-cost "free" space.
+ * There the search jumps between jump points using jump distances precomputed once per map for all
+ * 8 directions, without corner cutting. A jump that runs into the penalized band around walls stops at the last
+ * free cell (a portal), from which the search continues with plain weighted A* steps, cell by cell like
+ * {@link GridAStarPlanner}. Cells are expanded at most once per search (no reopening), and if the jump search
+ * cannot connect start and end the query falls back to {@link GridAStarPlanner}, so reachability is unchanged.
+ * <p>
+ * Jump distances are stored per direction as {@code short}: a positive value is the number of steps to the next
+ * jump point, a non-positive value {@code -n} means {@code n} free steps are possible before hitting a non-free cell.
+ */
+public final class JumpPointPlanner implements GridPathfinder {
+    private static final double SQRT2 = Math.sqrt(2);
+    /** Clockwise from north; odd indices are diagonals whose components are {@code d - 1} and {@code d + 1}. */
+    private static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final byte NO_DIRECTION = -1;
+
+    private final GridAStarPlanner fallback;
+    private final int cols;
+    private final int rows;
+    private final WalkabilityGrid walkable;
+    private final float[] obstacleCost;
+    private final boolean[] free;
+    private final boolean[] portal;
+    private final short[] jumpDistance;
+    private final double[] g;
+    private final int[] parent;
+    private final byte[] arrival;
+    private final int[] stamp;
+    private final int[] closedStamp;
+    private final IndexedMinHeap open;
+    private int generation;
+    private int lastExpansions;
+
+    JumpPointPlanner(int cols, int rows, boolean[] blocked, float[] obstacleCost) {
+        this(new GridAStarPlanner(cols, rows, blocked, obstacleCost));
+    }
+
+    private JumpPointPlanner(GridAStarPlanner fallback) {
+        this.fallback = fallback;
+        int cols = fallback.cols();
+        int rows = fallback.rows();
+        WalkabilityGrid walkable = fallback.walkability();
+        float[] obstacleCost = fallback.obstacleCostField();
+        if (cols > Short.MAX_VALUE || rows > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("map too large for jump point planning: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.walkable = walkable;
+        this.obstacleCost = obstacleCost;
+        int cells = cols * rows;
+        this.free = new boolean[cells];
+        for (int y = 0; y < rows; y++) {
+            for (int x = walkable.nextWalkable(y, 0); x >= 0; x = walkable.nextWalkable(y, x + 1)) {
+                free[y * cols + x] = obstacleCost[y * cols + x] == 0f;
+            }
+        }
+        this.portal = new boolean[cells];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                portal[y * cols + x] = free[y * cols + x] && touchesPenalizedCell(x, y);
+            }
+        }
+        this.jumpDistance = new short[8 * cells];
+        precomputeJumpDistances();
+        this.g = new double[cells];
+        this.parent = new int[cells];
+        this.arrival = new byte[cells];
+        this.stamp = new int[cells];
+        this.closedStamp = new int[cells];
+        this.open = new IndexedMinHeap(cells);
+    }
+
+    /**
+     * Shares blocked cells and the obstacle cost field with an existing A* grid, which also serves as fallback.
+     */
+    public static JumpPointPlanner fromGrid(GridAStarPlanner grid) {
+        return new JumpPointPlanner(grid);
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return !walkable.isWalkable(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return obstacleCost[y * cols + x];
+    }
+
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    @Override
+    public synchronized int[][] findPath(int startX, int startY, int endX, int endY) {
+        lastExpansions = 0;
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return new int[0][2];
+        }
+        int start = startY * cols + startX;
+        int end = endY * cols + endX;
+        if (isBlocked(startX, startY) || isBlocked(endX, endY)) {
+            return new int[0][2];
+        }
+
+        nextGeneration();
+        open.clear();
+        touch(start);
+        g[start] = 0;
+        open.insertOrUpdate(start, heuristic(start, endX, endY));
+
+        int maxIterations = cols * rows * 2;
+        int iterations = 0;
+        while (!open.isEmpty() && iterations++ < maxIterations) {
+            int current = open.poll();
+            closedStamp[current] = generation;
+            lastExpansions++;
+            if (current == end) {
+                int[][] path = reconstruct(end);
+                open.clear();
+                return path;
+            }
+            if (free[current]) {
+                expandFree(current, endX, endY);
+            } else {
+                expandPenalized(current, endX, endY);
+            }
+        }
+        open.clear();
+        int jumpExpansions = lastExpansions;
+        int[][] path = fallback.findPath(startX, startY, endX, endY);
+        lastExpansions = jumpExpansions + fallback.lastExpansions();
+        return path;
+    }
+
+    private void expandFree(int current, int endX, int endY) {
+        int cx = current % cols;
+        int cy = current / cols;
+        int cameFrom = arrival[current];
+        for (int d = 0; d < 8; d++) {
+            if (cameFrom != NO_DIRECTION && d == ((cameFrom + 4) & 7)) {
+                continue;
+            }
+            int distance = jumpDistance[d * cols * rows + current];
+            int reach = Math.abs(distance);
+            int steps = 0;
+            if ((d & 1) == 0) {
+                int along = DX[d] != 0 ? (endX - cx) * DX[d] : (endY - cy) * DY[d];
+                boolean onRay = DX[d] != 0 ? endY == cy : endX == cx;
+                if (onRay && along > 0 && along <= reach) {
+                    steps = along;
+                }
+            } else {
+                int alongX = (endX - cx) * DX[d];
+                int alongY = (endY - cy) * DY[d];
+                if (alongX > 0 && alongY > 0 && Math.min(alongX, alongY) <= reach) {
+                    steps = Math.min(alongX, alongY);
+                }
+            }
+            if (steps == 0 && distance > 0) {
+                steps = distance;
+            } else if (steps == 0 && reach > 0
+                    && portal[(cy + DY[d] * reach) * cols + cx + DX[d] * reach]) {
+                steps = reach;
+            }
+            if (steps > 0) {
+                int successor = (cy + DY[d] * steps) * cols + cx + DX[d] * steps;
+                double stepCost = (d & 1) == 0 ? steps : steps * SQRT2;
+                relax(current, successor, g[current] + stepCost, (byte) d, endX, endY);
+            }
+        }
+        if (portal[current]) {
+            expandPenalized(current, endX, endY);
+        }
+    }
+
+    /**
+     * Plain weighted A* step into every walkable neighbor; free neighbors restart jumping in all directions.
+     */
+    private void expandPenalized(int current, int endX, int endY) {
+        int cx = current % cols;
+        int cy = current / cols;
+        double currentG = g[current];
+        for (int d = 0; d < 8; d++) {
+            int nx = cx + DX[d];
+            int ny = cy + DY[d];
+            if (!inBounds(nx, ny)) {
+                continue;
+            }
+            int neighbor = ny * cols + nx;
+            if (!walkable.isWalkable(nx, ny) || (free[current] && free[neighbor])) {
+                continue;
+            }
+            double moveCost = (d & 1) == 0 ? 1 : SQRT2;
+            relax(current, neighbor, currentG + moveCost + obstacleCost[neighbor], NO_DIRECTION, endX, endY);
+        }
+    }
+
+    private void relax(int from, int to, double tentative, byte direction, int endX, int endY) {
+        if (closedStamp[to] == generation || (stamp[to] == generation && tentative >= g[to])) {
+            return;
+        }
+        touch(to);
+        g[to] = tentative;
+        parent[to] = from;
+        arrival[to] = direction;
+        open.insertOrUpdate(to, tentative + heuristic(to, endX, endY));
+    }
+
+    private void precomputeJumpDistances() {
+        int cells = cols * rows;
+        for (int d = 0; d < 8; d += 2) {
+            int base = d * cells;
+            int stepX = DX[d];
+            int stepY = DY[d];
+            for (int yi = 0; yi < rows; yi++) {
+                int y = stepY > 0 ? rows - 1 - yi : yi;
+                for (int xi = 0; xi < cols; xi++) {
+                    int x = stepX > 0 ? cols - 1 - xi : xi;
+                    int nx = x + stepX;
+                    int ny = y + stepY;
+                    short value;
+                    if (!isFree(nx, ny)) {
+                        value = 0;
+                    } else if (isStraightJumpPoint(nx, ny, stepX, stepY)) {
+                        value = 1;
+                    } else {
+                        value = extend(jumpDistance[base + ny * cols + nx]);
+                    }
+                    jumpDistance[base + y * cols + x] = value;
+                }
+            }
+        }
+        for (int d = 1; d < 8; d += 2) {
+            int base = d * cells;
+            int stepX = DX[d];
+            int stepY = DY[d];
+            int horizontal = (stepX > 0 ? 2 : 6) * cells;
+            int vertical = (stepY > 0 ? 4 : 0) * cells;
+            for (int yi = 0; yi < rows; yi++) {
+                int y = stepY > 0 ? rows - 1 - yi : yi;
+                for (int xi = 0; xi < cols; xi++) {
+                    int x = stepX > 0 ? cols - 1 - xi : xi;
+                    int nx = x + stepX;
+                    int ny = y + stepY;
+                    short value;
+                    if (!isFree(nx, ny) || !isFree(nx, y) || !isFree(x, ny)) {
+                        value = 0;
+                    } else {
+                        int next = ny * cols + nx;
+                        if (jumpDistance[horizontal + next] > 0 || jumpDistance[vertical + next] > 0) {
+                            value = 1;
+                        } else {
+                            value = extend(jumpDistance[base + next]);
+                        }
+                    }
+                    jumpDistance[base + y * cols + x] = value;
+                }
+            }
+        }
+    }
+
+    private static short extend(short next) {
+        return (short) (next > 0 ? next + 1 : next - 1);
+    }
+
+    /**
+     * Forced neighbor when entered straight along {@code (stepX, stepY)}: a side cell that is free while the side
+     * cell one step back is not.
+     */
+    private boolean isStraightJumpPoint(int x, int y, int stepX, int stepY) {
+        int sideX = stepY;
+        int sideY = stepX;
+        return (isFree(x + sideX, y + sideY) && !isFree(x + sideX - stepX, y + sideY - stepY))
+                || (isFree(x - sideX, y - sideY) && !isFree(x - sideX - stepX, y - sideY - stepY));
+    }
+
+    private boolean touchesPenalizedCell(int x, int y) {
+        for (int d = 0; d < 8; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (walkable.isWalkable(nx, ny) && !free[ny * cols + nx]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Expands parent links between jump points back into a contiguous cell path.
+     */
+    private int[][] reconstruct(int end) {
+        int nodes = 1;
+        for (int cell = end; parent[cell] >= 0; cell = parent[cell]) {
+            nodes++;
+        }
+        int[] chain = new int[nodes];
+        int cell = end;
+        for (int i = nodes - 1; i >= 0; i--) {
+            chain[i] = cell;
+            cell = parent[cell];
+        }
+        int length = 1;
+        for (int i = 1; i < nodes; i++) {
+            length += Math.max(
+                    Math.abs(chain[i] % cols - chain[i - 1] % cols),
+                    Math.abs(chain[i] / cols - chain[i - 1] / cols)
+            );
+        }
+        int[][] path = new int[length][2];
+        int index = 0;
+        path[index][0] = chain[0] % cols;
+        path[index][1] = chain[0] / cols;
+        for (int i = 1; i < nodes; i++) {
+            int x = chain[i - 1] % cols;
+            int y = chain[i - 1] / cols;
+            int tx = chain[i] % cols;
+            int ty = chain[i] / cols;
+            while (x != tx || y != ty) {
+                x += Integer.signum(tx - x);
+                y += Integer.signum(ty - y);
+                index++;
+                path[index][0] = x;
+                path[index][1] = y;
+            }
+        }
+        return path;
+    }
+
+    private void touch(int cell) {
+        if (stamp[cell] != generation) {
+            stamp[cell] = generation;
+            parent[cell] = -1;
+            arrival[cell] = NO_DIRECTION;
+            g[cell] = Double.MAX_VALUE;
+        }
+    }
+
+    private void nextGeneration() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    private boolean isFree(int x, int y) {
+        return inBounds(x, y) && free[y * cols + x];
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    private double heuristic(int cell, int endX, int endY) {
+        return Math.abs(cell % cols - endX) + Math.abs(cell / cols - endY);
+    }
+}
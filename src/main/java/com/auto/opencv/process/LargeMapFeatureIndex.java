@@ -0,0 +1,320 @@
+package com.auto.opencv.process;
+
+import com.auto.config.MapPreprocessConfig;
+import com.auto.opencv.utils.ImageProcessor;
+import com.auto.vision.MapAlignmentPreprocessor;
+import org.opencv.core.CvType;
+import org.opencv.core.KeyPoint;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepared large map plus per-detector keypoints/descriptors, built once per map image and
+ * {@link MapPreprocessConfig} so that localization ticks only detect features on the minimap patch.
+ * <p>
+ * Detector features are computed lazily on first use and shared read-only afterwards.
+ */
+public final class LargeMapFeatureIndex {
+    /** Keypoint density used for the whole map; matches what a typical cropped search region used to get. */
+    private static final int PIXELS_PER_ORB_FEATURE = 400;
+    /** Side of a keypoint bucket; a typical search window spans a handful of cells per axis. */
+    static final int GRID_CELL_SIZE = 64;
+
+    private final Mat preparedMap;
+    private final Map<FeatureHomographyLocalizer.DetectorKind, DetectorFeatures> detectorFeatures =
+            new EnumMap<>(FeatureHomographyLocalizer.DetectorKind.class);
+
+    private LargeMapFeatureIndex(Mat preparedMap) {
+        this.preparedMap = preparedMap;
+    }
+
+    /**
+     * Runs the shared grayscale + CLAHE preparation on {@code largeMap} and wraps the result.
+     */
+    public static LargeMapFeatureIndex build(Mat largeMap, MapPreprocessConfig config) {
+        return ofPreparedMap(MapAlignmentPreprocessor.prepareLargeMapForFeatureMatching(largeMap, config));
+    }
+
+    /**
+     * Wraps a map that is already prepared for feature matching. The index keeps its own copy.
+     */
+    public static LargeMapFeatureIndex ofPreparedMap(Mat preparedMap) {
+        if (preparedMap == null || preparedMap.empty()) {
+            throw new IllegalArgumentException("large map must not be empty");
+        }
+        return new LargeMapFeatureIndex(preparedMap.clone());
+    }
+
+    public static String cacheKey(String mapImage, MapPreprocessConfig config) {
+        return mapImage + "|" + config;
+    }
+
+    /**
+     * Shared prepared map; callers must clone before modifying.
+     */
+    public Mat preparedMap() {
+        return preparedMap;
+    }
+
+    public int cols() {
+        return preparedMap.cols();
+    }
+
+    public int rows() {
+        return preparedMap.rows();
+    }
+
+    /**
+     * Detects features for every detector up front (e.g. before the first navigation tick).
+     */
+    public void warmUp() {
+        for (FeatureHomographyLocalizer.DetectorKind detector : FeatureHomographyLocalizer.DetectorKind.values()) {
+            detectorFeatures(detector);
+        }
+    }
+
+    public int keypointCount(FeatureHomographyLocalizer.DetectorKind detector) {
+        return detectorFeatures(detector).size();
+    }
+
+    FeatureSet features(FeatureHomographyLocalizer.DetectorKind detector) {
+        return detectorFeatures(detector).all();
+    }
+
+    /**
+     * Features whose keypoints fall inside {@code window} (global map coordinates).
+     */
+    FeatureSet featuresWithin(FeatureHomographyLocalizer.DetectorKind detector, Rect window) {
+        DetectorFeatures features = detectorFeatures(detector);
+        if (window == null) {
+            return features.all();
+        }
+        return features.within(window);
+    }
+
+    /**
+     * Serializes the prepared map and every detector computed so far; see {@link #readFrom(ByteBuffer)}.
+     */
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        ImageProcessor.writeMat(out, preparedMap);
+        out.writeInt(detectorFeatures.size());
+        for (Map.Entry<FeatureHomographyLocalizer.DetectorKind, DetectorFeatures> entry : detectorFeatures.entrySet()) {
+            FeatureSet features = entry.getValue().all();
+            out.writeInt(entry.getKey().ordinal());
+            out.writeInt(features.size());
+            for (KeyPoint keyPoint : features.keypoints()) {
+                out.writeFloat((float) keyPoint.pt.x);
+                out.writeFloat((float) keyPoint.pt.y);
+                out.writeFloat(keyPoint.size);
+                out.writeFloat(keyPoint.angle);
+                out.writeFloat(keyPoint.response);
+                out.writeInt(keyPoint.octave);
+                out.writeInt(keyPoint.class_id);
+            }
+            ImageProcessor.writeMat(out, features.descriptors());
+        }
+    }
+
+    /**
+     * Restores an index written by {@link #writeTo(DataOutput)} without running any detector.
+     */
+    public static LargeMapFeatureIndex readFrom(ByteBuffer in) {
+        Mat preparedMap = ImageProcessor.readMat(in);
+        if (preparedMap.empty()) {
+            throw new IllegalArgumentException("large map must not be empty");
+        }
+        LargeMapFeatureIndex index = new LargeMapFeatureIndex(preparedMap);
+        FeatureHomographyLocalizer.DetectorKind[] detectors = FeatureHomographyLocalizer.DetectorKind.values();
+        int detectorCount = in.getInt();
+        for (int d = 0; d < detectorCount; d++) {
+            int ordinal = in.getInt();
+            if (ordinal < 0 || ordinal >= detectors.length) {
+                throw new IllegalArgumentException("unknown detector ordinal: " + ordinal);
+            }
+            int count = in.getInt();
+            List<KeyPoint> keypoints = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                float x = in.getFloat();
+                float y = in.getFloat();
+                float size = in.getFloat();
+                float angle = in.getFloat();
+                float response = in.getFloat();
+                int octave = in.getInt();
+                int classId = in.getInt();
+                keypoints.add(new KeyPoint(x, y, size, angle, response, octave, classId));
+            }
+            Mat descriptors = ImageProcessor.readMat(in);
+            index.detectorFeatures.put(
+                    detectors[ordinal],
+                    new DetectorFeatures(new FeatureSet(keypoints, descriptors), preparedMap.cols(), preparedMap.rows())
+            );
+        }
+        return index;
+    }
+
+    private synchronized DetectorFeatures detectorFeatures(FeatureHomographyLocalizer.DetectorKind detector) {
+        DetectorFeatures cached = detectorFeatures.get(detector);
+        if (cached != null) {
+            return cached;
+        }
+        int orbFeatures = Math.max(
+                FeatureHomographyLocalizer.ORB_FEATURES,
+                (int) ((long) preparedMap.cols() * preparedMap.rows() / PIXELS_PER_ORB_FEATURE)
+        );
+        FeatureSet detected = FeatureHomographyLocalizer.detectFeatures(
+                FeatureHomographyLocalizer.toGray(preparedMap),
+                detector,
+                orbFeatures
+        );
+        DetectorFeatures built = new DetectorFeatures(detected, preparedMap.cols(), preparedMap.rows());
+        detectorFeatures.put(detector, built);
+        return built;
+    }
+
+    /**
+     * Keypoints with descriptors mirrored into a Java array, so subsets can be gathered without per-row JNI calls.
+     * Keypoint indices are bucketed into a uniform grid of {@link #GRID_CELL_SIZE} cells stored in CSR form
+     * ({@code cellStart[c]..cellStart[c + 1]} indexes {@code cellKeypoints}), so a window query only visits
+     * the cells it overlaps.
+     */
+    private static final class DetectorFeatures {
+        private final FeatureSet all;
+        private final float[] xs;
+        private final float[] ys;
+        private final int descriptorCols;
+        private final int descriptorType;
+        private final byte[] byteDescriptors;
+        private final float[] floatDescriptors;
+        private final int gridCols;
+        private final int gridRows;
+        private final int[] cellStart;
+        private final int[] cellKeypoints;
+
+        private DetectorFeatures(FeatureSet all, int mapCols, int mapRows) {
+            this.all = all;
+            int count = all.size();
+            this.xs = new float[count];
+            this.ys = new float[count];
+            for (int i = 0; i < count; i++) {
+                KeyPoint keyPoint = all.keypoints().get(i);
+                xs[i] = (float) keyPoint.pt.x;
+                ys[i] = (float) keyPoint.pt.y;
+            }
+            Mat descriptors = all.descriptors();
+            this.descriptorCols = descriptors.cols();
+            this.descriptorType = descriptors.type();
+            if (descriptors.empty()) {
+                byteDescriptors = null;
+                floatDescriptors = null;
+            } else if (descriptorType == CvType.CV_32FC1) {
+                floatDescriptors = new float[count * descriptorCols];
+                descriptors.get(0, 0, floatDescriptors);
+                byteDescriptors = null;
+            } else {
+                byteDescriptors = new byte[count * descriptorCols];
+                descriptors.get(0, 0, byteDescriptors);
+                floatDescriptors = null;
+            }
+
+            this.gridCols = Math.max(1, (mapCols + GRID_CELL_SIZE - 1) / GRID_CELL_SIZE);
+            this.gridRows = Math.max(1, (mapRows + GRID_CELL_SIZE - 1) / GRID_CELL_SIZE);
+            this.cellStart = new int[gridCols * gridRows + 1];
+            this.cellKeypoints = new int[count];
+            int[] cellOf = new int[count];
+            for (int i = 0; i < count; i++) {
+                cellOf[i] = cellIndex(xs[i], ys[i]);
+                cellStart[cellOf[i] + 1]++;
+            }
+            for (int c = 0; c < gridCols * gridRows; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+            int[] fill = new int[gridCols * gridRows];
+            for (int i = 0; i < count; i++) {
+                int cell = cellOf[i];
+                cellKeypoints[cellStart[cell] + fill[cell]++] = i;
+            }
+        }
+
+        private int cellIndex(float x, float y) {
+            int gx = Math.min(gridCols - 1, Math.max(0, (int) (x / GRID_CELL_SIZE)));
+            int gy = Math.min(gridRows - 1, Math.max(0, (int) (y / GRID_CELL_SIZE)));
+            return gy * gridCols + gx;
+        }
+
+        int size() {
+            return xs.length;
+        }
+
+        FeatureSet all() {
+            return all;
+        }
+
+        FeatureSet within(Rect window) {
+            int right = window.x + window.width;
+            int bottom = window.y + window.height;
+            int gx0 = Math.max(0, window.x / GRID_CELL_SIZE);
+            int gy0 = Math.max(0, window.y / GRID_CELL_SIZE);
+            int gx1 = Math.min(gridCols - 1, (right - 1) / GRID_CELL_SIZE);
+            int gy1 = Math.min(gridRows - 1, (bottom - 1) / GRID_CELL_SIZE);
+            if (gx1 < gx0 || gy1 < gy0) {
+                return gather(new int[0], 0);
+            }
+
+            int candidates = 0;
+            for (int gy = gy0; gy <= gy1; gy++) {
+                candidates += cellStart[gy * gridCols + gx1 + 1] - cellStart[gy * gridCols + gx0];
+            }
+            int[] selected = new int[candidates];
+            int count = 0;
+            for (int gy = gy0; gy <= gy1; gy++) {
+                for (int gx = gx0; gx <= gx1; gx++) {
+                    int cell = gy * gridCols + gx;
+                    boolean interior = gx * GRID_CELL_SIZE >= window.x
+                            && gy * GRID_CELL_SIZE >= window.y
+                            && (gx + 1) * GRID_CELL_SIZE <= right
+                            && (gy + 1) * GRID_CELL_SIZE <= bottom;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = cellKeypoints[k];
+                        if (interior || (xs[i] >= window.x && xs[i] < right && ys[i] >= window.y && ys[i] < bottom)) {
+                            selected[count++] = i;
+                        }
+                    }
+                }
+            }
+            return gather(selected, count);
+        }
+
+        private FeatureSet gather(int[] indices, int count) {
+            List<KeyPoint> keypoints = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                keypoints.add(all.keypoints().get(indices[i]));
+            }
+            if (count == 0 || (byteDescriptors == null && floatDescriptors == null)) {
+                return new FeatureSet(keypoints, new Mat());
+            }
+            Mat descriptors = new Mat(count, descriptorCols, descriptorType);
+            if (floatDescriptors != null) {
+                float[] rows = new float[count * descriptorCols];
+                for (int i = 0; i < count; i++) {
+                    System.arraycopy(floatDescriptors, indices[i] * descriptorCols, rows, i * descriptorCols, descriptorCols);
+                }
+                descriptors.put(0, 0, rows);
+            } else {
+                byte[] rows = new byte[count * descriptorCols];
+                for (int i = 0; i < count; i++) {
+                    System.arraycopy(byteDescriptors, indices[i] * descriptorCols, rows, i * descriptorCols, descriptorCols);
+                }
+                descriptors.put(0, 0, rows);
+            }
+            return new FeatureSet(keypoints, descriptors);
+        }
+    }
+}
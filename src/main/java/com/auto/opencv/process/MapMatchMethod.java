@@ -4,6 +4,10 @@ public enum MapMatchMethod {
     NONE,
     ORB_HOMOGRAPHY,
     SIFT_HOMOGRAPHY,
+    /** Dead-reckoned from the previous minimap patch, no map matching. */
+    MOTION_TRACK,
+    /** Coarse-to-fine template correlation around the prior, see {@link PyramidTemplateLocalizer}. */
+    TEMPLATE_PYRAMID,
     /** @deprecated use {@link #ORB_HOMOGRAPHY} or {@link #SIFT_HOMOGRAPHY} */
     @Deprecated
     SIFT_AFFINE,
@@ -8,33 +8,73 @@ import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.Rect;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
  * Aligns a minimap patch to a pathfinding map using scale-invariant feature matching
  * (ORB preferred, SIFT fallback) and homography with RANSAC.
+ * <p>
+ * In parallel mode the four strategies (ORB, SIFT, then both on the inverted patch) run concurrently on a
+ * small shared pool; the first result above the confidence threshold wins and the others are cancelled, stopping
+ * at their next detect/match/homography step. When several finish together the earlier strategy wins, and when
+ * none is good enough the result is the same as the sequential search.
+ * <p>
+ * With the template fast path on and a prior to search around, a {@link PyramidTemplateLocalizer} correlation is
+ * tried first and accepted when it clears {@link MapPreprocessConfig#minTemplateScore()} with a lead of at least
+ * {@link MapPreprocessConfig#minTemplateScoreGap()}; feature matching only runs when it does not.
  */
 public class MapMatcher {
     private static final double MIN_ACCEPT_CONFIDENCE = 0.30;
+    private static final FeatureHomographyLocalizer.DetectorKind[] STRATEGY_DETECTORS = {
+            FeatureHomographyLocalizer.DetectorKind.ORB,
+            FeatureHomographyLocalizer.DetectorKind.SIFT,
+            FeatureHomographyLocalizer.DetectorKind.ORB,
+            FeatureHomographyLocalizer.DetectorKind.SIFT
+    };
 
-    private final Mat fullLargeMap;
+    private final LargeMapFeatureIndex largeMapIndex;
     private final Mat smallMap;
     private final int searchRadiusPx;
     private final double minConfidenceThreshold;
+    private final boolean parallelStrategies;
+    private final boolean templateFastPath;
+    private final double minTemplateScore;
+    private final double minTemplateScoreGap;
 
     public MapMatcher(Mat largeMap, Mat smallMap) {
         this(largeMap, smallMap, MapPreprocessConfig.defaults());
     }
 
     private MapMatcher(Mat largeMap, Mat smallMap, MapPreprocessConfig config) {
-        this(largeMap, smallMap, config, 0);
+        this(LargeMapFeatureIndex.ofPreparedMap(largeMap), smallMap, config, 0, false, false);
     }
 
-    private MapMatcher(Mat largeMap, Mat smallMap, MapPreprocessConfig config, int searchRadiusPx) {
-        this.fullLargeMap = largeMap.clone();
+    private MapMatcher(
+            LargeMapFeatureIndex largeMapIndex,
+            Mat smallMap,
+            MapPreprocessConfig config,
+            int searchRadiusPx,
+            boolean parallelStrategies,
+            boolean templateFastPath
+    ) {
+        this.largeMapIndex = largeMapIndex;
         this.smallMap = smallMap.clone();
         this.searchRadiusPx = Math.max(0, searchRadiusPx);
         this.minConfidenceThreshold = Math.max(MIN_ACCEPT_CONFIDENCE, config.minTemplateScore() - 0.15);
+        this.parallelStrategies = parallelStrategies;
+        this.templateFastPath = templateFastPath;
+        this.minTemplateScore = config.minTemplateScore();
+        this.minTemplateScoreGap = config.minTemplateScoreGap();
     }
 
     public static MapMatcher forLocalization(Mat largeMap, Mat minimapPatch, MapPreprocessConfig config) {
@@ -84,13 +124,77 @@ public class MapMatcher {
             Point markerInPatch,
             int searchRadiusPx
     ) {
-        Mat preparedLarge = MapAlignmentPreprocessor.prepareLargeMapForFeatureMatching(largeMap, config);
+        return forFeatureLocalization(
+                LargeMapFeatureIndex.build(largeMap, config),
+                minimapPatch,
+                config,
+                markerInPatch,
+                searchRadiusPx
+        );
+    }
+
+    /**
+     * Same as {@link #forFeatureLocalization(Mat, Mat, MapPreprocessConfig, Point, int)} but reuses a prebuilt
+     * large-map index, so only the minimap patch is prepared and run through the detectors.
+     */
+    public static MapMatcher forFeatureLocalization(
+            LargeMapFeatureIndex largeMapIndex,
+            Mat minimapPatch,
+            MapPreprocessConfig config,
+            Point markerInPatch,
+            int searchRadiusPx
+    ) {
+        return forFeatureLocalization(largeMapIndex, minimapPatch, config, markerInPatch, searchRadiusPx, false);
+    }
+
+    /**
+     * @param parallelStrategies run the ORB/SIFT strategies concurrently, first acceptable result wins
+     */
+    public static MapMatcher forFeatureLocalization(
+            LargeMapFeatureIndex largeMapIndex,
+            Mat minimapPatch,
+            MapPreprocessConfig config,
+            Point markerInPatch,
+            int searchRadiusPx,
+            boolean parallelStrategies
+    ) {
+        return forFeatureLocalization(
+                largeMapIndex,
+                minimapPatch,
+                config,
+                markerInPatch,
+                searchRadiusPx,
+                parallelStrategies,
+                false
+        );
+    }
+
+    /**
+     * @param templateFastPath try a pyramid template match around the prior before feature matching; only for
+     *                         minimaps drawn at map scale
+     */
+    public static MapMatcher forFeatureLocalization(
+            LargeMapFeatureIndex largeMapIndex,
+            Mat minimapPatch,
+            MapPreprocessConfig config,
+            Point markerInPatch,
+            int searchRadiusPx,
+            boolean parallelStrategies,
+            boolean templateFastPath
+    ) {
         Mat preparedPatch = MapAlignmentPreprocessor.prepareMinimapPatchForFeatureMatching(
                 minimapPatch,
                 config,
                 markerInPatch
         );
-        return new MapMatcher(preparedLarge, preparedPatch, config, searchRadiusPx);
+        return new MapMatcher(
+                largeMapIndex,
+                preparedPatch,
+                config,
+                searchRadiusPx,
+                parallelStrategies,
+                templateFastPath
+        );
     }
 
     public MapMatchResult locate(Point localPoint) {
@@ -98,7 +202,10 @@ public class MapMatcher {
     }
 
     public MapMatchResult locate(Point localPoint, Point priorHint) {
-        return locateWithDebug(localPoint, priorHint).result();
+        if (localPoint == null) {
+            return MapMatchResult.failed();
+        }
+        return search(localPoint, priorHint, new ArrayList<>());
     }
 
     public MapMatchDebug locateWithDebug(Point localPoint) {
@@ -110,88 +217,130 @@ public class MapMatcher {
             return new MapMatchDebug(MapMatchResult.failed(), null, null, null, null, null, List.of("缺少局部坐标"));
         }
 
+        List<String> attempts = new ArrayList<>();
+        MapMatchResult best = search(localPoint, priorHint, attempts);
         Mat patchPreparedInverted = new Mat();
         Core.bitwise_not(smallMap, patchPreparedInverted);
+        return new MapMatchDebug(
+                best,
+                null,
+                smallMap.clone(),
+                largeMapIndex.preparedMap().clone(),
+                patchPreparedInverted,
+                null,
+                attempts
+        );
+    }
 
-        List<String> attempts = new ArrayList<>();
-        FeatureHomographyLocalizer.SearchRegion searchRegion = FeatureHomographyLocalizer.buildSearchRegion(
-                fullLargeMap,
+    private MapMatchResult search(Point localPoint, Point priorHint, List<String> attempts) {
+        Rect searchWindow = FeatureHomographyLocalizer.searchWindow(
+                largeMapIndex.cols(),
+                largeMapIndex.rows(),
                 smallMap,
                 priorHint,
                 searchRadiusPx
         );
-        if (priorHint != null && searchRadiusPx > 0) {
+        if (searchWindow != null) {
             attempts.add("局部搜索区域 origin=("
-                    + Math.round(searchRegion.originInGlobalMap().x) + ","
-                    + Math.round(searchRegion.originInGlobalMap().y) + ") size="
-                    + searchRegion.image().cols() + "x" + searchRegion.image().rows());
+                    + searchWindow.x + ","
+                    + searchWindow.y + ") size="
+                    + searchWindow.width + "x" + searchWindow.height);
         } else {
             attempts.add("全图特征搜索");
         }
 
-        MapMatchResult best = tryFeatureLocate(localPoint, smallMap, searchRegion, priorHint, attempts);
+        boolean constrainedSearch = priorHint != null && searchRadiusPx > 0;
+        if (templateFastPath && searchWindow != null) {
+            MapMatchResult template = tryTemplateLocate(localPoint, searchWindow, attempts);
+            if (template.found()) {
+                return template;
+            }
+        }
+        if (parallelStrategies) {
+            return searchInParallel(localPoint, searchWindow, constrainedSearch, attempts);
+        }
+        MapMatchResult best = tryFeatureLocate(localPoint, smallMap, searchWindow, constrainedSearch, attempts);
         if (!best.found()) {
             attempts.add("反色 patch 重试");
-            best = tryFeatureLocate(localPoint, patchPreparedInverted, searchRegion, priorHint, attempts);
+            Mat patchPreparedInverted = new Mat();
+            Core.bitwise_not(smallMap, patchPreparedInverted);
+            best = tryFeatureLocate(localPoint, patchPreparedInverted, searchWindow, constrainedSearch, attempts);
         }
 
         if (!best.found()) {
             attempts.add("ORB/SIFT 特征匹配均失败");
-            return new MapMatchDebug(
-                    MapMatchResult.failed(),
-                    null,
-                    smallMap.clone(),
-                    fullLargeMap.clone(),
-                    patchPreparedInverted,
-                    null,
-                    attempts
-            );
+            return MapMatchResult.failed();
         }
-
         attempts.add("采用 " + best.method() + ", confidence=" + String.format("%.2f", best.confidence()));
-        return new MapMatchDebug(
-                best,
-                null,
-                smallMap.clone(),
-                fullLargeMap.clone(),
-                patchPreparedInverted,
-                null,
-                attempts
+        return best;
+    }
+
+    private MapMatchResult tryTemplateLocate(Point localPoint, Rect searchWindow, List<String> attempts) {
+        PyramidTemplateLocalizer.Match match = PyramidTemplateLocalizer.locate(
+                largeMapIndex.preparedMap(),
+                smallMap,
+                searchWindow
+        );
+        if (match == null) {
+            attempts.add("金字塔模板: patch 纹理不足，跳过");
+            return MapMatchResult.failed();
+        }
+        attempts.add("金字塔模板 score=" + String.format("%.2f", match.score())
+                + " gap=" + String.format("%.2f", match.scoreGap()));
+        if (match.score() < minTemplateScore || match.scoreGap() < minTemplateScoreGap) {
+            attempts.add("金字塔模板不可靠，转入特征匹配");
+            return MapMatchResult.failed();
+        }
+        attempts.add("采用 " + MapMatchMethod.TEMPLATE_PYRAMID
+                + ", confidence=" + String.format("%.2f", match.score()));
+        return new MapMatchResult(
+                new Point(match.topLeft().x + localPoint.x, match.topLeft().y + localPoint.y),
+                match.score(),
+                MapMatchMethod.TEMPLATE_PYRAMID
         );
     }
 
     private MapMatchResult tryFeatureLocate(
             Point localPoint,
             Mat queryPatch,
-            FeatureHomographyLocalizer.SearchRegion searchRegion,
-            Point priorHint,
+            Rect searchWindow,
+            boolean constrainedSearch,
             List<String> attempts
     ) {
-        boolean constrainedSearch = priorHint != null && searchRadiusPx > 0;
         FeatureHomographyLocalizer.MatchOutcome orb = FeatureHomographyLocalizer.locate(
                 queryPatch,
-                searchRegion,
+                largeMapIndex,
+                searchWindow,
                 localPoint,
                 FeatureHomographyLocalizer.DetectorKind.ORB,
-                fullLargeMap.cols(),
-                fullLargeMap.rows(),
                 constrainedSearch,
                 attempts
         );
-        if (orb.found() && orb.confidence() >= minConfidenceThreshold) {
+        if (acceptable(orb)) {
             return toResult(orb);
         }
 
         FeatureHomographyLocalizer.MatchOutcome sift = FeatureHomographyLocalizer.locate(
                 queryPatch,
-                searchRegion,
+                largeMapIndex,
+                searchWindow,
                 localPoint,
                 FeatureHomographyLocalizer.DetectorKind.SIFT,
-                fullLargeMap.cols(),
-                fullLargeMap.rows(),
                 constrainedSearch,
                 attempts
         );
+        return combine(orb, sift, attempts);
+    }
+
+    /**
+     * Sequential fallback rule once ORB fell short of the threshold: the more confident of SIFT and ORB,
+     * then a low-confidence ORB result.
+     */
+    private static MapMatchResult combine(
+            FeatureHomographyLocalizer.MatchOutcome orb,
+            FeatureHomographyLocalizer.MatchOutcome sift,
+            List<String> attempts
+    ) {
         if (sift.found()) {
             if (orb.found() && orb.confidence() > sift.confidence()) {
                 attempts.add("ORB 置信度更高，保留 ORB 结果");
@@ -207,6 +356,145 @@ public class MapMatcher {
         return MapMatchResult.failed();
     }
 
+    private boolean acceptable(FeatureHomographyLocalizer.MatchOutcome outcome) {
+        return outcome.found() && outcome.confidence() >= minConfidenceThreshold;
+    }
+
+    /**
+     * Runs ORB, SIFT, inverted ORB and inverted SIFT concurrently, in that preference order. Each strategy logs
+     * into its own list; the lists of finished strategies are appended to {@code attempts} in preference order.
+     */
+    private MapMatchResult searchInParallel(
+            Point localPoint,
+            Rect searchWindow,
+            boolean constrainedSearch,
+            List<String> attempts
+    ) {
+        Mat patchPreparedInverted = new Mat();
+        Core.bitwise_not(smallMap, patchPreparedInverted);
+        int count = STRATEGY_DETECTORS.length;
+        List<List<String>> logs = new ArrayList<>(count);
+        List<Callable<FeatureHomographyLocalizer.MatchOutcome>> strategies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Strategy strategy = new Strategy(
+                    STRATEGY_DETECTORS[i],
+                    i < 2 ? smallMap : patchPreparedInverted
+            );
+            List<String> log = new ArrayList<>();
+            logs.add(log);
+            strategies.add(() -> FeatureHomographyLocalizer.locate(
+                    strategy.patch(),
+                    largeMapIndex,
+                    searchWindow,
+                    localPoint,
+                    strategy.detector(),
+                    constrainedSearch,
+                    log
+            ));
+        }
+
+        List<FeatureHomographyLocalizer.MatchOutcome> outcomes =
+                Arrays.asList(new FeatureHomographyLocalizer.MatchOutcome[count]);
+        int accepted = firstAccepted(
+                strategies,
+                this::acceptable,
+                FeatureHomographyLocalizer.MatchOutcome.failed(),
+                outcomes,
+                StrategyPool.EXECUTOR
+        );
+
+        for (int i = 0; i < count; i++) {
+            String prefix = i < 2 ? "" : "反色 ";
+            if (outcomes.get(i) == null) {
+                // Still running or never started; its log may be written concurrently, so it is skipped.
+                attempts.add(prefix + STRATEGY_DETECTORS[i] + ": 已取消");
+                outcomes.set(i, FeatureHomographyLocalizer.MatchOutcome.failed());
+                continue;
+            }
+            for (String line : logs.get(i)) {
+                attempts.add(prefix + line);
+            }
+        }
+        MapMatchResult best;
+        if (accepted >= 0) {
+            best = toResult(outcomes.get(accepted));
+            attempts.add("并行策略 " + (accepted < 2 ? "" : "反色 ") + STRATEGY_DETECTORS[accepted] + " 首先达标");
+        } else {
+            best = combine(outcomes.get(0), outcomes.get(1), attempts);
+            if (!best.found()) {
+                best = combine(outcomes.get(2), outcomes.get(3), attempts);
+            }
+        }
+        if (!best.found()) {
+            attempts.add("ORB/SIFT 特征匹配均失败");
+            return MapMatchResult.failed();
+        }
+        attempts.add("采用 " + best.method() + ", confidence=" + String.format("%.2f", best.confidence()));
+        return best;
+    }
+
+    /**
+     * Runs {@code strategies} on {@code executor} until one is accepted or all have finished. Among the finished
+     * ones the earliest in list order that {@code accept} passes wins, and the others are cancelled with an
+     * interrupt: strategies must poll {@link Thread#isInterrupted()} between expensive steps, or they keep the
+     * pool's threads busy after the search has returned.
+     *
+     * @param failed   outcome recorded for a strategy that threw
+     * @param outcomes filled in by index for every finished strategy; left {@code null} for cancelled ones
+     * @return index of the accepted strategy, or -1 when none was
+     */
+    static <T> int firstAccepted(
+            List<Callable<T>> strategies,
+            Predicate<T> accept,
+            T failed,
+            List<T> outcomes,
+            ExecutorService executor
+    ) {
+        int count = strategies.size();
+        List<Future<T>> futures = new ArrayList<>(count);
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        for (Callable<T> strategy : strategies) {
+            futures.add(completion.submit(strategy));
+        }
+
+        int accepted = -1;
+        int pending = count;
+        try {
+            while (pending > 0 && accepted < 0) {
+                Future<T> done = completion.take();
+                do {
+                    pending--;
+                    outcomes.set(futures.indexOf(done), outcomeOf(done, failed));
+                    done = completion.poll();
+                } while (done != null);
+                for (int i = 0; i < count && accepted < 0; i++) {
+                    if (outcomes.get(i) != null && accept.test(outcomes.get(i))) {
+                        accepted = i;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return accepted;
+    }
+
+    /**
+     * Outcome of a finished strategy; one that threw counts as {@code failed}.
+     */
+    private static <T> T outcomeOf(Future<T> done, T failed) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            return failed;
+        }
+    }
+
+    private record Strategy(FeatureHomographyLocalizer.DetectorKind detector, Mat patch) {
+    }
+
     private static MapMatchResult toResult(FeatureHomographyLocalizer.MatchOutcome outcome) {
         return new MapMatchResult(outcome.mapPointInGlobal(), outcome.confidence(), outcome.method());
     }
@@ -239,6 +527,26 @@ public class MapMatcher {
             Point markerInPatch,
             Point priorHint,
             int searchRadiusPx
+    ) {
+        return forLocalizationWithDebug(
+                LargeMapFeatureIndex.build(largeMap, config),
+                minimapPatch,
+                config,
+                localPoint,
+                markerInPatch,
+                priorHint,
+                searchRadiusPx
+        );
+    }
+
+    public static MapMatchDebug forLocalizationWithDebug(
+            LargeMapFeatureIndex largeMapIndex,
+            Mat minimapPatch,
+            MapPreprocessConfig config,
+            Point localPoint,
+            Point markerInPatch,
+            Point priorHint,
+            int searchRadiusPx
     ) {
         List<String> attempts = new ArrayList<>();
         Rect fullPatch = new Rect(0, 0, minimapPatch.cols(), minimapPatch.rows());
@@ -247,7 +555,7 @@ public class MapMatcher {
         Point croppedMarker = markerInPatch;
         attempts.add("featurePatch=" + crop.sourceRect().width + "x" + crop.sourceRect().height);
 
-        MapMatcher matcher = forFeatureLocalization(largeMap, crop.patch(), config, croppedMarker, searchRadiusPx);
+        MapMatcher matcher = forFeatureLocalization(largeMapIndex, crop.patch(), config, croppedMarker, searchRadiusPx);
         MapMatchDebug debug = matcher.locateWithDebug(croppedLocal, priorHint);
         attempts.add("特征预处理=grayscale_clahe");
         attempts.addAll(debug.attempts());
@@ -255,14 +563,30 @@ public class MapMatcher {
         return new MapMatchDebug(
                 debug.result(),
                 crop.patch().clone(),
-                matcher.smallMap.clone(),
-                matcher.fullLargeMap.clone(),
+                debug.patchPrepared(),
+                debug.largeMapPrepared(),
                 debug.patchPreparedInverted(),
                 null,
                 attempts
         );
     }
 
+    /**
+     * Bounded pool shared by all parallel searches; each worker keeps its own detectors and trained matchers
+     * ({@link FeatureMatcherPool}).
+     */
+    private static final class StrategyPool {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+                Math.max(2, Math.min(STRATEGY_DETECTORS.length, Runtime.getRuntime().availableProcessors() / 2)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "map-match-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
     /**
      * Legacy helper retained for manual experiments; uses ORB homography, not template matching.
      */
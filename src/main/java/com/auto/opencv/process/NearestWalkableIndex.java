@@ -0,0 +1,107 @@
+package com.auto.opencv.process;
+
+/**
+ * Euclidean feature transform of a {@link WalkabilityGrid}: for every cell, the index of the nearest
+ * walkable cell (itself if walkable). Built once per map with the separable lower-envelope algorithm of
+ * Felzenszwalb and Huttenlocher in {@code O(cols * rows)}, so snapping a point becomes one array read.
+ */
+public final class NearestWalkableIndex {
+    private final int cols;
+    private final int rows;
+    private final int[] nearest;
+
+    private NearestWalkableIndex(int cols, int rows, int[] nearest) {
+        this.cols = cols;
+        this.rows = rows;
+        this.nearest = nearest;
+    }
+
+    public static NearestWalkableIndex build(WalkabilityGrid walkable) {
+        int cols = walkable.cols();
+        int rows = walkable.rows();
+        int[] nearestRow = new int[cols * rows];
+        for (int x = 0; x < cols; x++) {
+            int last = -1;
+            for (int y = 0; y < rows; y++) {
+                if (walkable.isWalkable(x, y)) {
+                    last = y;
+                }
+                nearestRow[y * cols + x] = last;
+            }
+            last = -1;
+            for (int y = rows - 1; y >= 0; y--) {
+                if (walkable.isWalkable(x, y)) {
+                    last = y;
+                }
+                int above = nearestRow[y * cols + x];
+                if (last >= 0 && (above < 0 || last - y < y - above)) {
+                    nearestRow[y * cols + x] = last;
+                }
+            }
+        }
+
+        int[] nearest = new int[cols * rows];
+        int[] sites = new int[cols];
+        double[] siteHeight = new double[cols];
+        double[] bounds = new double[cols + 1];
+        for (int y = 0; y < rows; y++) {
+            int row = y * cols;
+            int count = 0;
+            for (int q = 0; q < cols; q++) {
+                int r = nearestRow[row + q];
+                if (r < 0) {
+                    continue;
+                }
+                double height = (double) (y - r) * (y - r) + (double) q * q;
+                double s = Double.NEGATIVE_INFINITY;
+                while (count > 0) {
+                    int v = sites[count - 1];
+                    s = (height - siteHeight[count - 1]) / (2.0 * (q - v));
+                    if (s > bounds[count - 1]) {
+                        break;
+                    }
+                    count--;
+                }
+                sites[count] = q;
+                siteHeight[count] = height;
+                bounds[count] = count == 0 ? Double.NEGATIVE_INFINITY : s;
+                count++;
+            }
+            if (count == 0) {
+                for (int x = 0; x < cols; x++) {
+                    nearest[row + x] = -1;
+                }
+                continue;
+            }
+            bounds[count] = Double.POSITIVE_INFINITY;
+            int k = 0;
+            for (int x = 0; x < cols; x++) {
+                while (bounds[k + 1] < x) {
+                    k++;
+                }
+                int q = sites[k];
+                nearest[row + x] = nearestRow[row + q] * cols + q;
+            }
+        }
+        return new NearestWalkableIndex(cols, rows, nearest);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Row-major index ({@code y * cols + x}) of the walkable cell closest to {@code (x, y)}, or {@code -1} if
+     * the cell is outside the map or the map has no walkable cell.
+     */
+    public int nearestCell(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) {
+            return -1;
+        }
+        return nearest[y * cols + x];
+    }
+}
@@ -0,0 +1,92 @@
+package com.auto.opencv.process;
+
+import com.auto.config.ObstacleCostConfig;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Per-cell wall-proximity penalty raster, computed once per pathfinding map by convolving the obstacle mask
+ * with the {@link ObstacleCostConfig} falloff kernel. Planners read it in O(1) per relaxation instead of
+ * scanning a window around every neighbor.
+ */
+public final class ObstacleCostField {
+    /** Convolution noise below this is treated as "no wall in range", so open cells cost exactly zero. */
+    private static final float ZERO_EPSILON = 1e-3f;
+
+    private ObstacleCostField() {
+    }
+
+    public static float[] compute(boolean[] blocked, int cols, int rows, ObstacleCostConfig config) {
+        if (!config.enabled()) {
+            return new float[cols * rows];
+        }
+        byte[] maskData = new byte[cols * rows];
+        for (int i = 0; i < maskData.length; i++) {
+            maskData[i] = blocked[i] ? (byte) 1 : 0;
+        }
+        return convolve(maskData, cols, rows, config);
+    }
+
+    public static float[] compute(WalkabilityGrid walkable, ObstacleCostConfig config) {
+        int cols = walkable.cols();
+        int rows = walkable.rows();
+        if (!config.enabled()) {
+            return new float[cols * rows];
+        }
+        byte[] maskData = new byte[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = walkable.nextBlocked(y, 0); x < cols; x = walkable.nextBlocked(y, x + 1)) {
+                maskData[y * cols + x] = 1;
+            }
+        }
+        return convolve(maskData, cols, rows, config);
+    }
+
+    private static float[] convolve(byte[] maskData, int cols, int rows, ObstacleCostConfig config) {
+        float[] cost = new float[cols * rows];
+        Mat mask = new Mat(rows, cols, CvType.CV_8UC1);
+        mask.put(0, 0, maskData);
+        Mat maskFloat = new Mat();
+        mask.convertTo(maskFloat, CvType.CV_32F);
+
+        Mat field = new Mat();
+        Imgproc.filter2D(
+                maskFloat,
+                field,
+                CvType.CV_32F,
+                kernel(config),
+                new Point(-1, -1),
+                0,
+                Core.BORDER_CONSTANT
+        );
+        field.get(0, 0, cost);
+        for (int i = 0; i < cost.length; i++) {
+            if (cost[i] < ZERO_EPSILON) {
+                cost[i] = 0f;
+            }
+        }
+        mask.release();
+        maskFloat.release();
+        field.release();
+        return cost;
+    }
+
+    static Mat kernel(ObstacleCostConfig config) {
+        int radius = config.radiusPx();
+        int size = radius * 2 + 1;
+        float[] weights = new float[size * size];
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                weights[(dy + radius) * size + dx + radius] =
+                        (float) (config.weight() / Math.pow(distance + 1, config.falloffExponent()));
+            }
+        }
+        Mat kernel = new Mat(size, size, CvType.CV_32F);
+        kernel.put(0, 0, weights);
+        return kernel;
+    }
+}
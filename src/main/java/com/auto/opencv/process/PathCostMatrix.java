@@ -0,0 +1,64 @@
+package com.auto.opencv.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * All-pairs path costs between a handful of map points: one reverse Dijkstra ({@link FlowField}) per point,
+ * run in parallel on a fork/join pool. Costs are those of {@link GridAStarPlanner}.
+ */
+public final class PathCostMatrix {
+    private PathCostMatrix() {
+    }
+
+    /**
+     * One flow field rooted at each {@code {x, y}} point, in input order.
+     */
+    public static FlowField[] buildFields(GridAStarPlanner grid, int[][] points, ForkJoinPool pool) {
+        List<Callable<FlowField>> builds = new ArrayList<>(points.length);
+        for (int[] point : points) {
+            int x = point[0];
+            int y = point[1];
+            builds.add(() -> FlowField.build(grid, x, y));
+        }
+        List<Future<FlowField>> done = pool.invokeAll(builds);
+        FlowField[] fields = new FlowField[points.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = join(done.get(i));
+        }
+        return fields;
+    }
+
+    /**
+     * {@code costs[i][j]} is the path cost from point {@code i} to point {@code j} (0 on the diagonal), or
+     * {@link Double#POSITIVE_INFINITY} if there is no path.
+     */
+    public static double[][] costs(FlowField[] fields, int[][] points) {
+        double[][] costs = new double[points.length][points.length];
+        for (int j = 0; j < points.length; j++) {
+            for (int i = 0; i < points.length; i++) {
+                costs[i][j] = fields[j].distance(points[i][0], points[i][1]);
+            }
+        }
+        return costs;
+    }
+
+    public static double[][] compute(GridAStarPlanner grid, int[][] points) {
+        return costs(buildFields(grid, points, ForkJoinPool.commonPool()), points);
+    }
+
+    private static FlowField join(Future<FlowField> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("path cost computation interrupted", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("path cost computation failed", exception.getCause());
+        }
+    }
+}
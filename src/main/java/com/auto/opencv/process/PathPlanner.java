@@ -15,17 +15,80 @@ public class PathPlanner {
     private Point start; // 起点
     private Point end; // 终点
     private double obstacleThreshold; // 障碍物阈值（像素值大于此值为障碍物）
+    private final PlannerEngine engine; // 搜索实现
+    private final GridPathfinder grid; // 预构建的网格规划器（含障碍代价场），可跨次复用
+    private final boolean smoothPath; // 是否对网格路径做视线（any-angle）平滑
+    private final WalkabilityGrid walkable; // 预构建的可通行位图（旧版搜索用），可跨次复用
     private int[][] path;
 
     public PathPlanner(Mat image, Point start, Point end, double obstacleThreshold) {
+        this(image, start, end, obstacleThreshold, PlannerEngine.LEGACY);
+    }
+
+    public PathPlanner(Mat image, Point start, Point end, double obstacleThreshold, PlannerEngine engine) {
         this.image = image;
         this.start = start;
         this.end = end;
         this.obstacleThreshold = obstacleThreshold; // 以下比较 > obstacleThreshold，即白色为障碍物，黑色可通行
+        this.engine = engine == null ? PlannerEngine.LEGACY : engine;
+        this.grid = null;
+        this.smoothPath = false;
+        this.walkable = null;
+    }
+
+    /**
+     * Runs the legacy search on a prebuilt walkability grid, e.g. one cached per map, instead of a map image.
+     */
+    public PathPlanner(WalkabilityGrid walkable, Point start, Point end) {
+        this.image = null;
+        this.start = start;
+        this.end = end;
+        this.engine = PlannerEngine.LEGACY;
+        this.grid = null;
+        this.smoothPath = false;
+        this.walkable = walkable;
+    }
+
+    /**
+     * Plans on a prebuilt grid planner (blocked cells + obstacle cost field), e.g. one cached per map.
+     */
+    public PathPlanner(GridPathfinder grid, Point start, Point end) {
+        this(grid, start, end, false);
+    }
+
+    /**
+     * @param smoothPath replace staircase runs by line-of-sight segments ({@link PathSmoother}) before
+     *                   collinear simplification
+     */
+    public PathPlanner(GridPathfinder grid, Point start, Point end, boolean smoothPath) {
+        this.image = null;
+        this.start = start;
+        this.end = end;
+        if (grid instanceof JumpPointPlanner) {
+            this.engine = PlannerEngine.JPS_PLUS;
+        } else if (grid instanceof DStarLitePlanner) {
+            this.engine = PlannerEngine.DSTAR_LITE;
+        } else if (grid instanceof FlowField) {
+            this.engine = PlannerEngine.FLOW_FIELD;
+        } else if (grid instanceof HierarchicalPlanner) {
+            this.engine = PlannerEngine.HPA;
+        } else if (grid instanceof AnytimePlanner) {
+            this.engine = PlannerEngine.ANYTIME;
+        } else if (grid instanceof PyramidPlanner) {
+            this.engine = PlannerEngine.PYRAMID;
+        } else {
+            this.engine = PlannerEngine.INDEXED_ASTAR;
+        }
+        this.grid = grid;
+        this.smoothPath = smoothPath;
+        this.walkable = null;
     }
     public int[][] findPath() {
         // 原有的 A* 算法逻辑
         int[][] rawPath = findRawPath(); // 假设这是原有的 A* 算法生成的路径
+        if (smoothPath && grid != null) {
+            rawPath = PathSmoother.smooth(rawPath, grid);
+        }
 
         // 将路径转换为 List<Point>
         List<Point> path = new ArrayList<>();
@@ -69,13 +132,34 @@ public class PathPlanner {
      * @return 返回路径的坐标数组，每个元素是一个二维数组 [x, y]
      */
     public int[][] findRawPath() {
-        // 预处理：将Mat数据缓存到二维数组提升访问速度
-        double[][] mapData = new double[image.rows()][image.cols()];
-        for (int y = 0; y < image.rows(); y++) {
-            for (int x = 0; x < image.cols(); x++) {
-                mapData[y][x] = image.get(y, x)[0]; // 获取像素值
+        if (engine != PlannerEngine.LEGACY) {
+            GridPathfinder planner = grid;
+            if (planner == null) {
+                GridAStarPlanner astar = GridAStarPlanner.fromMat(image, obstacleThreshold);
+                planner = switch (engine) {
+                    case JPS_PLUS -> JumpPointPlanner.fromGrid(astar);
+                    case DSTAR_LITE -> DStarLitePlanner.fromGrid(astar);
+                    case FLOW_FIELD -> FlowField.build(astar, (int) end.x, (int) end.y);
+                    case HPA -> HierarchicalPlanner.fromGrid(astar);
+                    case ANYTIME -> AnytimePlanner.fromGrid(astar, AnytimePlanner.DEFAULT_BUDGET_MS);
+                    case PYRAMID -> PyramidPlanner.fromGrid(astar);
+                    default -> astar;
+                };
+            }
+            int[][] found = planner.findPath((int) start.x, (int) start.y, (int) end.x, (int) end.y);
+            if (found.length == 0) {
+                System.out.println("未找到路径");
             }
+            return found;
         }
+        return findRawPathLegacy();
+    }
+
+    private int[][] findRawPathLegacy() {
+        // 预处理：一次批量读取Mat，按位缓存可通行性
+        WalkabilityGrid walkable = this.walkable != null
+                ? this.walkable
+                : WalkabilityGrid.fromMat(image, obstacleThreshold);
 
         // 内部类：表示路径规划中的一个节点
         class Node {
@@ -103,15 +187,15 @@ public class PathPlanner {
             }
 
             // 计算靠近障碍物的额外代价
-            double calculateObstacleCost(double[][] mapData, double obstacleThreshold) {
+            double calculateObstacleCost(WalkabilityGrid walkable) {
                 double cost = 0;
                 int searchRadius = 10; // 搜索半径，可以根据需要调整
                 for (int dy = -searchRadius; dy <= searchRadius; dy++) {
                     for (int dx = -searchRadius; dx <= searchRadius; dx++) {
                         int nx = x + dx;
                         int ny = y + dy;
-                        if (nx >= 0 && nx < mapData[0].length && ny >= 0 && ny < mapData.length) {
-                            if (mapData[ny][nx] > obstacleThreshold) {
+                        if (nx >= 0 && nx < walkable.cols() && ny >= 0 && ny < walkable.rows()) {
+                            if (!walkable.isWalkable(nx, ny)) {
                                 // 距离越近，代价越高
                                 double distance = Math.sqrt(dx * dx + dy * dy);
                                 cost += 10.0 / (distance + 1); // 可以根据需要调整系数
@@ -128,11 +212,11 @@ public class PathPlanner {
         int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
 
         // 使用二维数组管理节点（替代字符串拼接的Hash）
-        Node[][] nodeMap = new Node[image.rows()][image.cols()];
+        Node[][] nodeMap = new Node[walkable.rows()][walkable.cols()];
 
         // 验证起点和终点的可通行性
-        if (mapData[(int) start.y][(int) start.x] > obstacleThreshold ||
-                mapData[(int) end.y][(int) end.x] > obstacleThreshold) {
+        if (!walkable.isWalkable((int) start.x, (int) start.y) ||
+                !walkable.isWalkable((int) end.x, (int) end.y)) {
             System.out.println("起点或终点不可通行");
             return new int[0][2]; // 返回空路径
         }
@@ -150,7 +234,7 @@ public class PathPlanner {
         openQueue.add(startNode);
         startNode.inOpenList = true;
 
-        int maxIterations = image.cols() * image.rows() * 2; // 最大迭代次数
+        int maxIterations = walkable.cols() * walkable.rows() * 2; // 最大迭代次数
         int iterations = 0;
 
         // A* 算法主循环
@@ -178,8 +262,8 @@ public class PathPlanner {
                 int ny = current.y + directions[i][1]; // 邻居节点的y坐标
 
                 // 边界检查和可通行性检查
-                if (nx < 0 || nx >= image.cols() || ny < 0 || ny >= image.rows()) continue; // 超出边界则跳过
-                if (mapData[ny][nx] > obstacleThreshold) continue; // 障碍物则跳过
+                if (nx < 0 || nx >= walkable.cols() || ny < 0 || ny >= walkable.rows()) continue; // 超出边界则跳过
+                if (!walkable.isWalkable(nx, ny)) continue; // 障碍物则跳过
 
                 // 通过nodeMap检查节点状态
                 Node neighbor = nodeMap[ny][nx];
@@ -194,7 +278,7 @@ public class PathPlanner {
                 // 计算从起点到邻居节点的实际代价
                 double tentativeG = current.g + MOVE_COST[i];
                 // 增加靠近障碍物的额外代价
-                double obstacleCost = neighbor.calculateObstacleCost(mapData, obstacleThreshold);
+                double obstacleCost = neighbor.calculateObstacleCost(walkable);
                 tentativeG += obstacleCost;
 
                 if (tentativeG < neighbor.g) {
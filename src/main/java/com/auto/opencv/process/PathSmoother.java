@@ -0,0 +1,76 @@
+package com.auto.opencv.process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Any-angle string pulling for grid paths: a run of path cells is replaced by one straight segment whenever
+ * the Bresenham line between its ends is walkable, does not cut a blocked corner, and never enters a cell
+ * with a higher obstacle cost than the worst cell of the run it replaces. The last rule keeps shortcuts at
+ * least as far from walls as the planner's own route.
+ */
+public final class PathSmoother {
+    private static final float COST_TOLERANCE = 1e-4f;
+
+    private PathSmoother() {
+    }
+
+    /**
+     * @return the kept waypoints, starting and ending with the original end points
+     */
+    public static int[][] smooth(int[][] path, GridPathfinder grid) {
+        if (path.length <= 2) {
+            return path;
+        }
+        List<int[]> kept = new ArrayList<>();
+        kept.add(path[0]);
+        int anchor = 0;
+        float runMaxCost = cost(grid, path[0]);
+        for (int i = 1; i < path.length; i++) {
+            float withCurrent = Math.max(runMaxCost, cost(grid, path[i]));
+            if (i - anchor > 1 && !lineOfSight(grid, path[anchor], path[i], withCurrent)) {
+                anchor = i - 1;
+                kept.add(path[anchor]);
+                runMaxCost = Math.max(cost(grid, path[anchor]), cost(grid, path[i]));
+            } else {
+                runMaxCost = withCurrent;
+            }
+        }
+        kept.add(path[path.length - 1]);
+        return kept.toArray(new int[0][]);
+    }
+
+    static boolean lineOfSight(GridPathfinder grid, int[] from, int[] to, float maxObstacleCost) {
+        int x = from[0];
+        int y = from[1];
+        int dx = Math.abs(to[0] - x);
+        int dy = -Math.abs(to[1] - y);
+        int stepX = x < to[0] ? 1 : -1;
+        int stepY = y < to[1] ? 1 : -1;
+        int error = dx + dy;
+        while (x != to[0] || y != to[1]) {
+            int doubled = 2 * error;
+            boolean moveX = doubled >= dy;
+            boolean moveY = doubled <= dx;
+            if (moveX && moveY && (grid.isBlocked(x + stepX, y) || grid.isBlocked(x, y + stepY))) {
+                return false;
+            }
+            if (moveX) {
+                error += dy;
+                x += stepX;
+            }
+            if (moveY) {
+                error += dx;
+                y += stepY;
+            }
+            if (grid.isBlocked(x, y) || grid.obstacleCost(x, y) > maxObstacleCost + COST_TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static float cost(GridPathfinder grid, int[] cell) {
+        return grid.obstacleCost(cell[0], cell[1]);
+    }
+}
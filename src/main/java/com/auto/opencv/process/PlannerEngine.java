@@ -0,0 +1,23 @@
+package com.auto.opencv.process;
+
+/**
+ * Search implementation used by {@link PathPlanner}. All engines return the same {@code int[][]} path format.
+ */
+public enum PlannerEngine {
+    /** Original object-per-node A* with {@link java.util.PriorityQueue}. */
+    LEGACY,
+    /** {@link GridAStarPlanner}: flat per-cell arrays and an indexed heap with O(log n) decrease-key. */
+    INDEXED_ASTAR,
+    /** {@link JumpPointPlanner}: JPS+ in open space, weighted A* steps near walls. */
+    JPS_PLUS,
+    /** {@link DStarLitePlanner}: incremental backward search, repaired per query; pays off when reused per session. */
+    DSTAR_LITE,
+    /** {@link FlowField}: one reverse Dijkstra from the end point, then paths are read off the direction raster. */
+    FLOW_FIELD,
+    /** {@link HierarchicalPlanner}: HPA* over precomputed cluster entrances, refining only the first clusters. */
+    HPA,
+    /** {@link AnytimePlanner}: ARA* with a per-query time budget, improving the path on later queries. */
+    ANYTIME,
+    /** {@link PyramidPlanner}: routes on a max-pooled coarse grid, then refines inside a corridor around it. */
+    PYRAMID
+}
@@ -0,0 +1,203 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * Coarse-to-fine planner over a pyramid of the pathfinding grid (1/4 and 1/2 scale by default).
+ * <p>
+ * A coarse cell is blocked if any of its full-resolution cells is (conservative max-pooling), so a coarse
+ * route never squeezes through a gap the player cannot pass. Its obstacle cost is the mean of its cells,
+ * which keeps move and wall costs in the full-resolution proportion (both scale with the cells crossed).
+ * <p>
+ * A query routes on the coarsest level first, then runs the full-resolution A* only inside a corridor of
+ * {@value #CORRIDOR_RADIUS} coarse cell around that route. If pooling closed the way, or the corridor holds
+ * no path, the next finer level is tried, and finally the exact full-resolution search.
+ */
+public final class PyramidPlanner implements GridPathfinder {
+    static final int[] DEFAULT_SCALES = {4, 2};
+    private static final int CORRIDOR_RADIUS = 1;
+
+    private final GridAStarPlanner grid;
+    private final int[] scales;
+    private final GridAStarPlanner[] levels;
+    private final boolean[] corridor;
+    private int[] corridorCells = new int[1024];
+    private int corridorCount;
+    private int lastExpansions;
+
+    private PyramidPlanner(GridAStarPlanner grid, int[] scales, GridAStarPlanner[] levels) {
+        this.grid = grid;
+        this.scales = scales;
+        this.levels = levels;
+        this.corridor = new boolean[grid.cols() * grid.rows()];
+    }
+
+    public static PyramidPlanner fromGrid(GridAStarPlanner grid) {
+        return fromGrid(grid, DEFAULT_SCALES);
+    }
+
+    /**
+     * @param scales downsampling factors, coarsest first; each must be at least 2
+     */
+    static PyramidPlanner fromGrid(GridAStarPlanner grid, int[] scales) {
+        GridAStarPlanner[] levels = new GridAStarPlanner[scales.length];
+        for (int i = 0; i < scales.length; i++) {
+            if (scales[i] < 2) {
+                throw new IllegalArgumentException("pyramid scale must be at least 2");
+            }
+            levels[i] = downsample(grid, scales[i]);
+        }
+        return new PyramidPlanner(grid, scales.clone(), levels);
+    }
+
+    private static GridAStarPlanner downsample(GridAStarPlanner grid, int scale) {
+        int cols = grid.cols();
+        int rows = grid.rows();
+        int coarseCols = (cols + scale - 1) / scale;
+        int coarseRows = (rows + scale - 1) / scale;
+        float[] fineCost = grid.obstacleCostField();
+        boolean[] blocked = new boolean[coarseCols * coarseRows];
+        float[] cost = new float[coarseCols * coarseRows];
+        for (int cy = 0; cy < coarseRows; cy++) {
+            for (int cx = 0; cx < coarseCols; cx++) {
+                boolean anyBlocked = false;
+                double sum = 0;
+                int count = 0;
+                for (int y = cy * scale; y < Math.min(rows, (cy + 1) * scale); y++) {
+                    for (int x = cx * scale; x < Math.min(cols, (cx + 1) * scale); x++) {
+                        anyBlocked |= grid.isBlocked(x, y);
+                        sum += fineCost[y * cols + x];
+                        count++;
+                    }
+                }
+                blocked[cy * coarseCols + cx] = anyBlocked;
+                cost[cy * coarseCols + cx] = (float) (sum / count);
+            }
+        }
+        return new GridAStarPlanner(coarseCols, coarseRows, blocked, cost);
+    }
+
+    @Override
+    public int cols() {
+        return grid.cols();
+    }
+
+    @Override
+    public int rows() {
+        return grid.rows();
+    }
+
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return grid.isBlocked(x, y);
+    }
+
+    @Override
+    public float obstacleCost(int x, int y) {
+        return grid.obstacleCost(x, y);
+    }
+
+    /**
+     * Coarse plus full-resolution expansions of the last query.
+     */
+    @Override
+    public int lastExpansions() {
+        return lastExpansions;
+    }
+
+    @Override
+    public synchronized int[][] findPath(int startX, int startY, int endX, int endY) {
+        lastExpansions = 0;
+        if (startX < 0 || startY < 0 || startX >= cols() || startY >= rows()
+                || endX < 0 || endY < 0 || endX >= cols() || endY >= rows()
+                || grid.isBlocked(startX, startY) || grid.isBlocked(endX, endY)) {
+            return new int[0][2];
+        }
+        for (int i = 0; i < levels.length; i++) {
+            int[][] path = findPathAtLevel(i, startX, startY, endX, endY);
+            if (path.length > 0) {
+                return path;
+            }
+        }
+        int[][] exact = grid.findPath(startX, startY, endX, endY);
+        lastExpansions += grid.lastExpansions();
+        return exact;
+    }
+
+    private int[][] findPathAtLevel(int level, int startX, int startY, int endX, int endY) {
+        GridAStarPlanner coarse = levels[level];
+        int scale = scales[level];
+        int[] coarseStart = openCoarseCell(coarse, startX / scale, startY / scale);
+        int[] coarseEnd = openCoarseCell(coarse, endX / scale, endY / scale);
+        if (coarseStart == null || coarseEnd == null) {
+            return new int[0][2];
+        }
+        int[][] coarsePath = coarse.findPath(coarseStart[0], coarseStart[1], coarseEnd[0], coarseEnd[1]);
+        lastExpansions += coarse.lastExpansions();
+        if (coarsePath.length == 0) {
+            return new int[0][2];
+        }
+        markCorridor(coarsePath, scale, startX / scale, startY / scale, endX / scale, endY / scale);
+        try {
+            int[][] path = grid.findPathWithin(startX, startY, endX, endY, corridor);
+            lastExpansions += grid.lastExpansions();
+            return path;
+        } finally {
+            clearCorridor();
+        }
+    }
+
+    /**
+     * The cell itself if open, else an open neighbor (the corridor still covers the original block), or null.
+     */
+    private static int[] openCoarseCell(GridAStarPlanner coarse, int cx, int cy) {
+        for (int radius = 0; radius <= 1; radius++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    int x = cx + dx;
+                    int y = cy + dy;
+                    if (x >= 0 && y >= 0 && x < coarse.cols() && y < coarse.rows() && !coarse.isBlocked(x, y)) {
+                        return new int[] {x, y};
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void markCorridor(int[][] coarsePath, int scale, int startCx, int startCy, int endCx, int endCy) {
+        for (int[] cell : coarsePath) {
+            markBlocks(cell[0], cell[1], scale);
+        }
+        markBlocks(startCx, startCy, scale);
+        markBlocks(endCx, endCy, scale);
+    }
+
+    private void markBlocks(int centerCx, int centerCy, int scale) {
+        int cols = grid.cols();
+        int rows = grid.rows();
+        int minX = Math.max(0, (centerCx - CORRIDOR_RADIUS) * scale);
+        int minY = Math.max(0, (centerCy - CORRIDOR_RADIUS) * scale);
+        int maxX = Math.min(cols, (centerCx + CORRIDOR_RADIUS + 1) * scale);
+        int maxY = Math.min(rows, (centerCy + CORRIDOR_RADIUS + 1) * scale);
+        for (int y = minY; y < maxY; y++) {
+            for (int x = minX; x < maxX; x++) {
+                int cell = y * cols + x;
+                if (!corridor[cell]) {
+                    corridor[cell] = true;
+                    if (corridorCount == corridorCells.length) {
+                        corridorCells = Arrays.copyOf(corridorCells, corridorCount * 2);
+                    }
+                    corridorCells[corridorCount++] = cell;
+                }
+            }
+        }
+    }
+
+    private void clearCorridor() {
+        for (int i = 0; i < corridorCount; i++) {
+            corridor[corridorCells[i]] = false;
+        }
+        corridorCount = 0;
+    }
+}
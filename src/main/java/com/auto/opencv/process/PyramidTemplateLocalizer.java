@@ -0,0 +1,135 @@
+package com.auto.opencv.process;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coarse-to-fine normalized cross-correlation of a prepared minimap patch inside a search window of the prepared
+ * large map. Only valid when the minimap is drawn at map scale; {@link MapMatcher} uses it as a fast path ahead of
+ * {@link FeatureHomographyLocalizer} and falls through when the best peak is weak or not clearly ahead of the
+ * runner-up.
+ * <p>
+ * The whole window is correlated at the coarsest pyramid level only; each finer level re-scores a few pixels
+ * around the upsampled peak.
+ */
+final class PyramidTemplateLocalizer {
+    /** Coarsest patch side still carrying enough structure to correlate. */
+    static final int MIN_COARSE_SIDE = 24;
+    static final int MAX_LEVELS = 3;
+    private static final int REFINE_RADIUS = 2;
+    /** Below this the patch is too flat for correlation scores to mean anything. */
+    private static final double MIN_PATCH_STDDEV = 4.0;
+
+    /**
+     * @param topLeft  patch origin in global map coordinates
+     * @param score    full-resolution {@code TM_CCOEFF_NORMED} score of the peak
+     * @param scoreGap coarse-level lead of the peak over the best candidate outside its neighbourhood
+     */
+    record Match(Point topLeft, double score, double scoreGap) {
+    }
+
+    private PyramidTemplateLocalizer() {
+    }
+
+    /**
+     * Best placement of {@code patch} inside {@code searchWindow}, or {@code null} when it cannot be correlated
+     * there (flat patch, window smaller than the patch).
+     */
+    static Match locate(Mat preparedMap, Mat patch, Rect searchWindow) {
+        if (searchWindow == null || patch.empty()
+                || searchWindow.width < patch.cols() || searchWindow.height < patch.rows()) {
+            return null;
+        }
+        MatOfDouble mean = new MatOfDouble();
+        MatOfDouble stddev = new MatOfDouble();
+        Core.meanStdDev(patch, mean, stddev);
+        if (stddev.toArray()[0] < MIN_PATCH_STDDEV) {
+            return null;
+        }
+
+        int levels = levelsFor(patch);
+        List<Mat> windows = pyramid(preparedMap.submat(searchWindow), levels);
+        List<Mat> patches = pyramid(patch, levels);
+        Mat coarseWindow = windows.get(levels - 1);
+        Mat coarsePatch = patches.get(levels - 1);
+        if (coarseWindow.cols() < coarsePatch.cols() || coarseWindow.rows() < coarsePatch.rows()) {
+            return null;
+        }
+
+        Mat scores = new Mat();
+        Imgproc.matchTemplate(coarseWindow, coarsePatch, scores, Imgproc.TM_CCOEFF_NORMED);
+        Core.MinMaxLocResult peak = Core.minMaxLoc(scores);
+        double gap = peak.maxVal - runnerUp(scores, peak.maxLoc, Math.min(coarsePatch.cols(), coarsePatch.rows()) / 4);
+
+        Point location = peak.maxLoc;
+        double score = peak.maxVal;
+        for (int level = levels - 2; level >= 0; level--) {
+            Mat window = windows.get(level);
+            Mat template = patches.get(level);
+            int maxX = window.cols() - template.cols();
+            int maxY = window.rows() - template.rows();
+            int x0 = clamp((int) location.x * 2 - REFINE_RADIUS, maxX);
+            int y0 = clamp((int) location.y * 2 - REFINE_RADIUS, maxY);
+            int x1 = clamp((int) location.x * 2 + REFINE_RADIUS, maxX);
+            int y1 = clamp((int) location.y * 2 + REFINE_RADIUS, maxY);
+            Rect roi = new Rect(x0, y0, x1 - x0 + template.cols(), y1 - y0 + template.rows());
+            Imgproc.matchTemplate(window.submat(roi), template, scores, Imgproc.TM_CCOEFF_NORMED);
+            Core.MinMaxLocResult refined = Core.minMaxLoc(scores);
+            location = new Point(x0 + refined.maxLoc.x, y0 + refined.maxLoc.y);
+            score = refined.maxVal;
+        }
+        return new Match(new Point(searchWindow.x + location.x, searchWindow.y + location.y), score, gap);
+    }
+
+    static int levelsFor(Mat patch) {
+        int side = Math.min(patch.cols(), patch.rows());
+        int levels = 1;
+        while (levels < MAX_LEVELS && (side >> levels) >= MIN_COARSE_SIDE) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Level 0 is {@code image} itself (not copied); each further level is half the size of the previous one.
+     */
+    private static List<Mat> pyramid(Mat image, int levels) {
+        List<Mat> pyramid = new ArrayList<>(levels);
+        pyramid.add(image);
+        for (int level = 1; level < levels; level++) {
+            Mat down = new Mat();
+            Imgproc.pyrDown(pyramid.get(level - 1), down);
+            pyramid.add(down);
+        }
+        return pyramid;
+    }
+
+    /**
+     * Highest score outside a {@code suppressRadius} neighbourhood of the peak; -1 when nothing is left.
+     */
+    private static double runnerUp(Mat scores, Point peak, int suppressRadius) {
+        int radius = Math.max(1, suppressRadius);
+        int x0 = Math.max(0, (int) peak.x - radius);
+        int y0 = Math.max(0, (int) peak.y - radius);
+        int x1 = Math.min(scores.cols(), (int) peak.x + radius + 1);
+        int y1 = Math.min(scores.rows(), (int) peak.y + radius + 1);
+        if (x0 == 0 && y0 == 0 && x1 == scores.cols() && y1 == scores.rows()) {
+            return -1.0;
+        }
+        Mat suppressed = scores.clone();
+        suppressed.submat(new Rect(x0, y0, x1 - x0, y1 - y0)).setTo(new Scalar(-1.0));
+        return Core.minMaxLoc(suppressed).maxVal;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,189 @@
+package com.auto.opencv.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Visiting order for several targets on one planning grid.
+ * <p>
+ * One reverse Dijkstra ({@link FlowField}) per target runs in parallel on a fork/join pool
+ * ({@link PathCostMatrix}); together they give the full start-to-target and target-to-target path cost matrix. The order starts from nearest-neighbour and
+ * is then improved with 2-opt segment reversals (costs are asymmetric because entering a cell near a wall
+ * costs extra, so every candidate order is re-measured in full). Targets the start cannot reach are skipped.
+ * <p>
+ * Each leg keeps its flow field, so following the tour never searches again: the path from wherever the
+ * player is to the current leg's target is just read off that leg's field.
+ */
+public final class TargetTour {
+    private final int[] order;
+    private final int[] skipped;
+    private final int[][] targets;
+    private final FlowField[] fields;
+    private final double[] startCost;
+    private final double[][] cost;
+    private final double totalCost;
+
+    private TargetTour(
+            int[] order,
+            int[] skipped,
+            int[][] targets,
+            FlowField[] fields,
+            double[] startCost,
+            double[][] cost
+    ) {
+        this.order = order;
+        this.skipped = skipped;
+        this.targets = targets;
+        this.fields = fields;
+        this.startCost = startCost;
+        this.cost = cost;
+        this.totalCost = routeCost(order, startCost, cost);
+    }
+
+    public static TargetTour plan(GridAStarPlanner grid, int startX, int startY, int[][] targets) {
+        return plan(grid, startX, startY, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param targets {@code {x, y}} map cells, in any order
+     */
+    public static TargetTour plan(GridAStarPlanner grid, int startX, int startY, int[][] targets, ForkJoinPool pool) {
+        int count = targets.length;
+        int[][] points = new int[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = targets[i].clone();
+        }
+        FlowField[] fields = PathCostMatrix.buildFields(grid, points, pool);
+        double[][] cost = PathCostMatrix.costs(fields, points);
+
+        double[] startCost = new double[count];
+        List<Integer> reachable = new ArrayList<>();
+        List<Integer> unreachable = new ArrayList<>();
+        for (int j = 0; j < count; j++) {
+            startCost[j] = fields[j].distance(startX, startY);
+            if (startCost[j] == Float.POSITIVE_INFINITY) {
+                unreachable.add(j);
+            } else {
+                reachable.add(j);
+            }
+        }
+        int[] order = nearestNeighbour(reachable, startCost, cost);
+        twoOpt(order, startCost, cost);
+        return new TargetTour(
+                order,
+                unreachable.stream().mapToInt(Integer::intValue).toArray(),
+                points,
+                fields,
+                startCost,
+                cost
+        );
+    }
+
+    private static int[] nearestNeighbour(List<Integer> reachable, double[] startCost, double[][] cost) {
+        int[] order = new int[reachable.size()];
+        boolean[] visited = new boolean[startCost.length];
+        int current = -1;
+        for (int step = 0; step < order.length; step++) {
+            int best = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int candidate : reachable) {
+                double candidateCost = current < 0 ? startCost[candidate] : cost[current][candidate];
+                if (!visited[candidate] && (best < 0 || candidateCost < bestCost)) {
+                    best = candidate;
+                    bestCost = candidateCost;
+                }
+            }
+            visited[best] = true;
+            order[step] = best;
+            current = best;
+        }
+        return order;
+    }
+
+    /**
+     * Reverses segments while that shortens the open route; stops at a local optimum.
+     */
+    private static void twoOpt(int[] order, double[] startCost, double[][] cost) {
+        double best = routeCost(order, startCost, cost);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < order.length - 1; i++) {
+                for (int k = i + 1; k < order.length; k++) {
+                    reverse(order, i, k);
+                    double candidate = routeCost(order, startCost, cost);
+                    if (candidate < best - 1e-9) {
+                        best = candidate;
+                        improved = true;
+                    } else {
+                        reverse(order, i, k);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        for (int i = from, j = to; i < j; i++, j--) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    private static double routeCost(int[] order, double[] startCost, double[][] cost) {
+        if (order.length == 0) {
+            return 0;
+        }
+        double total = startCost[order[0]];
+        for (int i = 1; i < order.length; i++) {
+            total += cost[order[i - 1]][order[i]];
+        }
+        return total;
+    }
+
+    public int legCount() {
+        return order.length;
+    }
+
+    /**
+     * Index into the planned targets of the {@code leg}-th visit.
+     */
+    public int targetIndex(int leg) {
+        return order[leg];
+    }
+
+    public int[] legTarget(int leg) {
+        return targets[order[leg]].clone();
+    }
+
+    /**
+     * Flow field towards the {@code leg}-th target; paths to it from any cell are read off without searching.
+     */
+    public FlowField legField(int leg) {
+        return fields[order[leg]];
+    }
+
+    /**
+     * Indexes of the targets unreachable from the start, in input order.
+     */
+    public int[] skippedTargets() {
+        return skipped.clone();
+    }
+
+    /**
+     * Path cost from the start (for {@code from = -1}) or target {@code from} to target {@code to}, or
+     * {@link Double#POSITIVE_INFINITY} if there is no path.
+     */
+    public double cost(int from, int to) {
+        return from < 0 ? startCost[to] : cost[from][to];
+    }
+
+    /**
+     * Path cost of visiting every leg in order.
+     */
+    public double totalCost() {
+        return totalCost;
+    }
+}
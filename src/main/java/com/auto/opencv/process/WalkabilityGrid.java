@@ -0,0 +1,208 @@
+package com.auto.opencv.process;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * Immutable walkability bitmap of a pathfinding map: one bit per pixel (set = walkable) in {@code long}
+ * words, each row starting on a new word. Built with a single bulk read of the map, it is meant to be
+ * built once per map and shared by the planner, the localization refiner and the map analyzers instead of
+ * each keeping its own copy or probing the {@link Mat} pixel by pixel.
+ * <p>
+ * Bits past {@link #cols()} in the last word of a row are always clear.
+ */
+public final class WalkabilityGrid {
+    private final int cols;
+    private final int rows;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    private WalkabilityGrid(int cols, int rows, long[] words) {
+        this.cols = cols;
+        this.rows = rows;
+        this.wordsPerRow = wordsPerRow(cols);
+        this.words = words;
+    }
+
+    /**
+     * Pixels whose first channel is {@code <= walkableThreshold} are walkable (dark = walkable).
+     */
+    public static WalkabilityGrid fromMat(Mat map, double walkableThreshold) {
+        if (map == null || map.empty()) {
+            throw new IllegalArgumentException("pathfinding map must not be empty");
+        }
+        Mat channel = map;
+        if (map.channels() != 1) {
+            channel = new Mat();
+            Core.extractChannel(map, channel, 0);
+        }
+        int cols = map.cols();
+        int rows = map.rows();
+        int stride = wordsPerRow(cols);
+        long[] words = new long[stride * rows];
+        if (channel.type() == CvType.CV_8UC1) {
+            byte[] pixels = new byte[cols * rows];
+            (channel.isContinuous() ? channel : channel.clone()).get(0, 0, pixels);
+            for (int y = 0; y < rows; y++) {
+                int offset = y * cols;
+                for (int x = 0; x < cols; x++) {
+                    if ((pixels[offset + x] & 0xFF) <= walkableThreshold) {
+                        words[y * stride + (x >>> 6)] |= 1L << x;
+                    }
+                }
+            }
+        } else {
+            Mat asFloat = new Mat();
+            channel.convertTo(asFloat, CvType.CV_32F);
+            float[] pixels = new float[cols * rows];
+            asFloat.get(0, 0, pixels);
+            for (int y = 0; y < rows; y++) {
+                int offset = y * cols;
+                for (int x = 0; x < cols; x++) {
+                    if (pixels[offset + x] <= walkableThreshold) {
+                        words[y * stride + (x >>> 6)] |= 1L << x;
+                    }
+                }
+            }
+        }
+        return new WalkabilityGrid(cols, rows, words);
+    }
+
+    /**
+     * @param walkable row-major cells, {@code true} = walkable
+     */
+    public static WalkabilityGrid fromWalkable(boolean[] walkable, int cols, int rows) {
+        if (cols <= 0 || rows <= 0 || walkable.length != cols * rows) {
+            throw new IllegalArgumentException("grid size does not match walkable cells");
+        }
+        int stride = wordsPerRow(cols);
+        long[] words = new long[stride * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (walkable[y * cols + x]) {
+                    words[y * stride + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+        return new WalkabilityGrid(cols, rows, words);
+    }
+
+    /**
+     * @param blocked row-major cells, {@code true} = blocked
+     */
+    static WalkabilityGrid fromBlocked(boolean[] blocked, int cols, int rows) {
+        if (cols <= 0 || rows <= 0 || blocked.length != cols * rows) {
+            throw new IllegalArgumentException("grid size does not match blocked cells");
+        }
+        boolean[] walkable = new boolean[blocked.length];
+        for (int i = 0; i < blocked.length; i++) {
+            walkable[i] = !blocked[i];
+        }
+        return fromWalkable(walkable, cols, rows);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int wordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * {@code false} outside the map.
+     */
+    public boolean isWalkable(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) {
+            return false;
+        }
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Raw row word; bit {@code i} is column {@code wordIndex * 64 + i}.
+     */
+    public long word(int y, int wordIndex) {
+        return words[y * wordsPerRow + wordIndex];
+    }
+
+    /**
+     * First walkable column {@code >= fromX} in row {@code y}, or {@code -1}.
+     */
+    public int nextWalkable(int y, int fromX) {
+        if (fromX >= cols) {
+            return -1;
+        }
+        int start = Math.max(0, fromX);
+        int wordIndex = start >>> 6;
+        long word = words[y * wordsPerRow + wordIndex] & (-1L << start);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == wordsPerRow) {
+                return -1;
+            }
+            word = words[y * wordsPerRow + wordIndex];
+        }
+    }
+
+    /**
+     * First non-walkable column {@code >= fromX} in row {@code y}, or {@link #cols()} if the rest is walkable.
+     */
+    public int nextBlocked(int y, int fromX) {
+        if (fromX >= cols) {
+            return cols;
+        }
+        int start = Math.max(0, fromX);
+        int wordIndex = start >>> 6;
+        long word = ~words[y * wordsPerRow + wordIndex] & (-1L << start);
+        while (true) {
+            if (word != 0) {
+                return Math.min(cols, (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++wordIndex == wordsPerRow) {
+                return cols;
+            }
+            word = ~words[y * wordsPerRow + wordIndex];
+        }
+    }
+
+    public int countWalkable(int y) {
+        int count = 0;
+        for (int i = 0; i < wordsPerRow; i++) {
+            count += Long.bitCount(words[y * wordsPerRow + i]);
+        }
+        return count;
+    }
+
+    public int countWalkable() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Mutable {@code [y][x]} copy for flood fills that edit their own mask.
+     */
+    public boolean[][] toWalkableRows() {
+        boolean[][] walkable = new boolean[rows][cols];
+        for (int y = 0; y < rows; y++) {
+            for (int x = nextWalkable(y, 0); x >= 0; x = nextWalkable(y, x + 1)) {
+                walkable[y][x] = true;
+            }
+        }
+        return walkable;
+    }
+
+    private static int wordsPerRow(int cols) {
+        return (cols + 63) >>> 6;
+    }
+}
@@ -0,0 +1,127 @@
+package com.auto.opencv.process;
+
+import java.util.Arrays;
+
+/**
+ * 8-connected component labels of a {@link WalkabilityGrid} (the same moves the grid planners make). Built
+ * once per map from row runs with a union-find, so "can start reach target at all" becomes two array reads
+ * instead of a search that exhausts the whole reachable region before giving up.
+ * <p>
+ * Labels start at 1 in row-major order of first appearance; blocked and out-of-bounds cells are 0.
+ */
+public final class WalkableComponents {
+    private final int cols;
+    private final int rows;
+    private final int[] labels;
+    private final int[] sizes;
+
+    private WalkableComponents(int cols, int rows, int[] labels, int[] sizes) {
+        this.cols = cols;
+        this.rows = rows;
+        this.labels = labels;
+        this.sizes = sizes;
+    }
+
+    public static WalkableComponents build(WalkabilityGrid walkable) {
+        int cols = walkable.cols();
+        int rows = walkable.rows();
+        int[] runOfCell = new int[cols * rows];
+        int[] parent = new int[16];
+        int[] runStart = new int[16];
+        int[] runEnd = new int[16];
+        int runCount = 0;
+        int previousFirst = 0;
+        int previousEnd = 0;
+        for (int y = 0; y < rows; y++) {
+            int rowFirst = runCount;
+            int scan = previousFirst;
+            int start = walkable.nextWalkable(y, 0);
+            while (start >= 0) {
+                int end = walkable.nextBlocked(y, start);
+                if (runCount == parent.length) {
+                    parent = Arrays.copyOf(parent, runCount * 2);
+                    runStart = Arrays.copyOf(runStart, runCount * 2);
+                    runEnd = Arrays.copyOf(runEnd, runCount * 2);
+                }
+                int run = runCount++;
+                parent[run] = run;
+                runStart[run] = start;
+                runEnd[run] = end;
+                while (scan < previousEnd && runEnd[scan] < start) {
+                    scan++;
+                }
+                for (int above = scan; above < previousEnd && runStart[above] <= end; above++) {
+                    union(parent, above, run);
+                }
+                for (int x = start; x < end; x++) {
+                    runOfCell[y * cols + x] = run + 1;
+                }
+                start = walkable.nextWalkable(y, end);
+            }
+            previousFirst = rowFirst;
+            previousEnd = runCount;
+        }
+
+        int[] labelOfRoot = new int[runCount];
+        int[] sizes = new int[runCount + 1];
+        int componentCount = 0;
+        int[] labels = runOfCell;
+        for (int cell = 0; cell < labels.length; cell++) {
+            if (labels[cell] == 0) {
+                continue;
+            }
+            int root = find(parent, labels[cell] - 1);
+            if (labelOfRoot[root] == 0) {
+                labelOfRoot[root] = ++componentCount;
+            }
+            labels[cell] = labelOfRoot[root];
+            sizes[labels[cell]]++;
+        }
+        return new WalkableComponents(cols, rows, labels, Arrays.copyOf(sizes, componentCount + 1));
+    }
+
+    public int componentCount() {
+        return sizes.length - 1;
+    }
+
+    /**
+     * Component of {@code (x, y)}, or 0 if the cell is blocked or outside the map.
+     */
+    public int label(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) {
+            return 0;
+        }
+        return labels[y * cols + x];
+    }
+
+    /**
+     * Walkable cells in component {@code label}; 0 for label 0 or an unknown label.
+     */
+    public int size(int label) {
+        return label <= 0 || label >= sizes.length ? 0 : sizes[label];
+    }
+
+    /**
+     * Whether a grid planner can find any path between the two cells.
+     */
+    public boolean connected(int fromX, int fromY, int toX, int toY) {
+        int from = label(fromX, fromY);
+        return from != 0 && from == label(toX, toY);
+    }
+
+    private static int find(int[] parent, int run) {
+        while (parent[run] != run) {
+            parent[run] = parent[parent[run]];
+            run = parent[run];
+        }
+        return run;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
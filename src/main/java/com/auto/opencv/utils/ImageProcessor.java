@@ -10,10 +10,12 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -139,6 +141,110 @@ public class ImageProcessor {
         }
     }
 
+    /**
+     * Filesystem location of a map resolved the same way as {@link #loadMapImage(String)}, or {@code null}
+     * when the map only exists inside a jar.
+     */
+    public static Path locateMapFile(String mapPath) {
+        if (mapPath == null || mapPath.isBlank()) {
+            throw new IllegalArgumentException("map path is required");
+        }
+        URL resource = Thread.currentThread().getContextClassLoader().getResource(mapPath);
+        if (resource != null) {
+            if (!"file".equalsIgnoreCase(resource.getProtocol())) {
+                return null;
+            }
+            try {
+                return Paths.get(resource.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+        Path relative = Paths.get(mapPath);
+        if (Files.isRegularFile(relative)) {
+            return relative.toAbsolutePath();
+        }
+        Path fromUserDir = Paths.get(System.getProperty("user.dir", ".")).resolve(mapPath);
+        if (Files.isRegularFile(fromUserDir)) {
+            return fromUserDir.toAbsolutePath();
+        }
+        return null;
+    }
+
+    /**
+     * Raw bytes of a map file, resolved like {@link #loadMapImage(String)}.
+     */
+    public static byte[] readMapBytes(String mapPath) throws IOException {
+        Path file = locateMapFile(mapPath);
+        if (file != null) {
+            return Files.readAllBytes(file);
+        }
+        try (InputStream inputStream = Thread.currentThread()
+                .getContextClassLoader()
+                .getResourceAsStream(mapPath)) {
+            if (inputStream == null) {
+                throw new IOException("无法定位地图: " + mapPath);
+            }
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * Writes rows, cols, type and the pixel data of an 8-bit or 32F Mat.
+     */
+    public static void writeMat(DataOutput out, Mat mat) throws IOException {
+        Mat continuous = mat.isContinuous() ? mat : mat.clone();
+        int depth = CvType.depth(continuous.type());
+        int length = (int) (continuous.total() * continuous.channels());
+        out.writeInt(continuous.rows());
+        out.writeInt(continuous.cols());
+        out.writeInt(continuous.type());
+        if (continuous.empty()) {
+            return;
+        }
+        if (depth == CvType.CV_8U || depth == CvType.CV_8S) {
+            byte[] data = new byte[length];
+            continuous.get(0, 0, data);
+            out.write(data);
+        } else if (depth == CvType.CV_32F) {
+            float[] data = new float[length];
+            continuous.get(0, 0, data);
+            for (float value : data) {
+                out.writeFloat(value);
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported Mat depth: " + depth);
+        }
+    }
+
+    /**
+     * Reads a Mat written by {@link #writeMat(DataOutput, Mat)}.
+     */
+    public static Mat readMat(ByteBuffer in) {
+        int rows = in.getInt();
+        int cols = in.getInt();
+        int type = in.getInt();
+        if (rows <= 0 || cols <= 0) {
+            return new Mat();
+        }
+        Mat mat = new Mat(rows, cols, type);
+        int depth = CvType.depth(type);
+        int length = (int) (mat.total() * mat.channels());
+        if (depth == CvType.CV_8U || depth == CvType.CV_8S) {
+            byte[] data = new byte[length];
+            in.get(data);
+            mat.put(0, 0, data);
+        } else if (depth == CvType.CV_32F) {
+            float[] data = new float[length];
+            in.asFloatBuffer().get(data);
+            in.position(in.position() + length * Float.BYTES);
+            mat.put(0, 0, data);
+        } else {
+            throw new IllegalArgumentException("unsupported Mat depth: " + depth);
+        }
+        return mat;
+    }
+
     public static Mat loadResourceImage(String resourcePath) {
         try {
             Path path = materializeResource(resourcePath);
@@ -0,0 +1,149 @@
+package com.auto.vision;
+
+import org.opencv.core.Point;
+
+/**
+ * Constant-velocity Kalman filter over the player's map position, one navigation tick per step. The x and y axes
+ * are filtered independently with state {@code [position, velocity]} and white-noise acceleration.
+ * <p>
+ * A commanded heading (the waypoint the last click walked towards) turns the velocity estimate towards it during
+ * the next prediction, keeping its speed.
+ */
+final class ConstantVelocityFilter {
+    /** Standard deviation of a measurement at confidence 1. */
+    static final double MEASUREMENT_SIGMA_PX = 6.0;
+    private static final double MIN_MEASUREMENT_CONFIDENCE = 0.1;
+    /** Share of the velocity turned towards the commanded heading per prediction. */
+    private static final double STEER_WEIGHT = 0.5;
+
+    private final Axis x = new Axis();
+    private final Axis y = new Axis();
+    private boolean initialized;
+    private Point heading;
+
+    boolean initialized() {
+        return initialized;
+    }
+
+    Point position() {
+        return initialized ? new Point(x.position, y.position) : null;
+    }
+
+    Point velocity() {
+        return initialized ? new Point(x.velocity, y.velocity) : null;
+    }
+
+    /**
+     * Position expected at the next tick, without advancing the filter.
+     */
+    Point predictedPosition() {
+        return initialized ? new Point(x.position + x.velocity, y.position + y.velocity) : null;
+    }
+
+    /**
+     * Standard deviation of {@link #predictedPosition()} along the less certain axis.
+     */
+    double predictedSigma(double accelerationSigma) {
+        if (!initialized) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double q = accelerationSigma * accelerationSigma;
+        return Math.sqrt(Math.max(x.predictedPositionVariance(q), y.predictedPositionVariance(q)));
+    }
+
+    /**
+     * Unit direction the player was sent in; consumed by the next {@link #predict}.
+     */
+    void steer(Point towards) {
+        if (!initialized || towards == null) {
+            return;
+        }
+        double dx = towards.x - x.position;
+        double dy = towards.y - y.position;
+        double length = Math.hypot(dx, dy);
+        heading = length < 1e-6 ? null : new Point(dx / length, dy / length);
+    }
+
+    void predict(double accelerationSigma) {
+        if (!initialized) {
+            return;
+        }
+        if (heading != null) {
+            double speed = Math.hypot(x.velocity, y.velocity);
+            x.velocity += STEER_WEIGHT * (heading.x * speed - x.velocity);
+            y.velocity += STEER_WEIGHT * (heading.y * speed - y.velocity);
+            heading = null;
+        }
+        double q = accelerationSigma * accelerationSigma;
+        x.predict(q);
+        y.predict(q);
+    }
+
+    /**
+     * Fuses a measurement whose noise grows as {@code confidence} falls; the first one initializes the filter at
+     * rest with a velocity spread of {@code initialSpeedSigma}.
+     */
+    void update(Point measured, double confidence, double initialSpeedSigma) {
+        double sigma = MEASUREMENT_SIGMA_PX / Math.max(MIN_MEASUREMENT_CONFIDENCE, Math.min(1.0, confidence));
+        double r = sigma * sigma;
+        if (!initialized) {
+            double velocityVariance = initialSpeedSigma * initialSpeedSigma;
+            x.reset(measured.x, r, velocityVariance);
+            y.reset(measured.y, r, velocityVariance);
+            initialized = true;
+            return;
+        }
+        x.update(measured.x, r);
+        y.update(measured.y, r);
+    }
+
+    void reset() {
+        initialized = false;
+        heading = null;
+    }
+
+    private static final class Axis {
+        private double position;
+        private double velocity;
+        private double p00;
+        private double p01;
+        private double p11;
+
+        void reset(double measured, double positionVariance, double velocityVariance) {
+            position = measured;
+            velocity = 0.0;
+            p00 = positionVariance;
+            p01 = 0.0;
+            p11 = velocityVariance;
+        }
+
+        void predict(double q) {
+            position += velocity;
+            double n00 = p00 + 2.0 * p01 + p11 + q / 4.0;
+            double n01 = p01 + p11 + q / 2.0;
+            double n11 = p11 + q;
+            p00 = n00;
+            p01 = n01;
+            p11 = n11;
+        }
+
+        double predictedPositionVariance(double q) {
+            return p00 + 2.0 * p01 + p11 + q / 4.0;
+        }
+
+        void update(double measured, double r) {
+            double innovation = measured - position;
+            double s = p00 + r;
+            double k0 = p00 / s;
+            double k1 = p01 / s;
+            position += k0 * innovation;
+            velocity += k1 * innovation;
+            double n00 = (1.0 - k0) * p00;
+            double n01 = (1.0 - k0) * p01;
+            double n11 = p11 - k1 * p01;
+            p00 = n00;
+            p01 = n01;
+            p11 = n11;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.auto.vision;
 
+import com.auto.opencv.process.NearestWalkableIndex;
+import com.auto.opencv.process.WalkabilityGrid;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
 /**
@@ -16,9 +18,19 @@ public final class LocalizationRefiner {
         if (pathfindingMap == null || pathfindingMap.empty() || point == null) {
             return point;
         }
-        int cx = clamp((int) Math.round(point.x), 0, pathfindingMap.cols() - 1);
-        int cy = clamp((int) Math.round(point.y), 0, pathfindingMap.rows() - 1);
-        if (isWalkable(pathfindingMap, cx, cy, walkableThreshold)) {
+        return snapToWalkable(WalkabilityGrid.fromMat(pathfindingMap, walkableThreshold), point, maxRadius);
+    }
+
+    /**
+     * Same as the {@link Mat} overload, over a walkability grid that is shared across frames.
+     */
+    public static Point snapToWalkable(WalkabilityGrid walkable, Point point, int maxRadius) {
+        if (walkable == null || point == null) {
+            return point;
+        }
+        int cx = clamp((int) Math.round(point.x), 0, walkable.cols() - 1);
+        int cy = clamp((int) Math.round(point.y), 0, walkable.rows() - 1);
+        if (walkable.isWalkable(cx, cy)) {
             return new Point(cx, cy);
         }
 
@@ -29,13 +41,8 @@ public final class LocalizationRefiner {
                     if (Math.abs(dx) != radius && Math.abs(dy) != radius) {
                         continue;
                     }
-                    int x = cx + dx;
-                    int y = cy + dy;
-                    if (x < 0 || y < 0 || x >= pathfindingMap.cols() || y >= pathfindingMap.rows()) {
-                        continue;
-                    }
-                    if (isWalkable(pathfindingMap, x, y, walkableThreshold)) {
-                        return new Point(x, y);
+                    if (walkable.isWalkable(cx + dx, cy + dy)) {
+                        return new Point(cx + dx, cy + dy);
                     }
                 }
             }
@@ -43,12 +50,27 @@ public final class LocalizationRefiner {
         return point;
     }
 
-    private static boolean isWalkable(Mat pathfindingMap, int x, int y, double walkableThreshold) {
-        double[] pixel = pathfindingMap.get(y, x);
-        if (pixel == null || pixel.length == 0) {
-            return false;
+    /**
+     * Snaps with a precomputed nearest-walkable index: one lookup, accepted if it lies within the same
+     * {@code maxRadius} square the ring search would probe.
+     */
+    public static Point snapToWalkable(NearestWalkableIndex index, Point point, int maxRadius) {
+        if (index == null || point == null) {
+            return point;
+        }
+        int cx = clamp((int) Math.round(point.x), 0, index.cols() - 1);
+        int cy = clamp((int) Math.round(point.y), 0, index.rows() - 1);
+        int cell = index.nearestCell(cx, cy);
+        if (cell < 0) {
+            return point;
+        }
+        int x = cell % index.cols();
+        int y = cell / index.cols();
+        int limit = Math.max(1, maxRadius);
+        if (Math.abs(x - cx) > limit || Math.abs(y - cy) > limit) {
+            return point;
         }
-        return pixel[0] < walkableThreshold;
+        return new Point(x, y);
     }
 
     private static int clamp(int value, int min, int max) {
@@ -4,10 +4,18 @@ import com.auto.config.NavigationConfig;
 import com.auto.opencv.utils.ImageProcessor;
 import org.opencv.core.Point;
 
+/**
+ * Turns raw map matches into the accepted player position: outlier rejection, a few frames of prediction when
+ * matching fails, and either an exponential blend or, with {@code navigation.kalmanLocalization}, a
+ * {@link ConstantVelocityFilter} whose predicted spread also sizes the next search window.
+ */
 final class LocalizationSmoother {
     private static final double HIGH_CONFIDENCE_BYPASS = 0.88;
     private static final double LOW_CONFIDENCE_BLEND_THRESHOLD = 0.5;
+    private static final double SEARCH_GATE_SIGMAS = 3.0;
+    static final int MIN_SEARCH_RADIUS_PX = 48;
 
+    private final ConstantVelocityFilter filter = new ConstantVelocityFilter();
     private Point smoothedPoint;
     private int predictFramesRemaining;
 
@@ -15,9 +23,18 @@ final class LocalizationSmoother {
         int maxPredictFrames = navigation.localizationMaxPredictFrames();
         double alpha = navigation.localizationSmoothingAlpha();
         double maxJump = resolveMaxJump(navigation, moveStepPx);
+        boolean filtering = navigation.kalmanLocalization();
+        if (filtering && filter.initialized()) {
+            filter.predict(accelerationSigma(moveStepPx));
+            smoothedPoint = filter.position();
+        }
 
         if (rawPoint == null) {
             Point predicted = predictWithoutMeasurement(maxPredictFrames);
+            if (predicted == null) {
+                // Prediction ran out; the next measurement starts the filter over.
+                filter.reset();
+            }
             if (predicted != null) {
                 return new LocalizationResult(
                         predicted,
@@ -54,7 +71,12 @@ final class LocalizationSmoother {
 
         if (smoothedPoint == null || confidence >= LOW_CONFIDENCE_BLEND_THRESHOLD) {
             Point previous = smoothedPoint;
-            smoothedPoint = blend(smoothedPoint, rawPoint, alpha);
+            if (filtering) {
+                filter.update(rawPoint, confidence, Math.max(1, moveStepPx));
+                smoothedPoint = filter.position();
+            } else {
+                smoothedPoint = blend(smoothedPoint, rawPoint, alpha);
+            }
             predictFramesRemaining = maxPredictFrames;
             String detail = "";
             if (previous != null && ImageProcessor.getDistance(previous, rawPoint) > 5.0) {
@@ -94,9 +116,40 @@ final class LocalizationSmoother {
         return smoothedPoint;
     }
 
+    /**
+     * Where the next match should be searched around: the filter's one-tick prediction, else the last position.
+     */
+    Point searchCenter(NavigationConfig navigation) {
+        if (navigation.kalmanLocalization() && filter.initialized()) {
+            return filter.predictedPosition();
+        }
+        return smoothedPoint;
+    }
+
+    /**
+     * {@code fallbackRadiusPx} narrowed to three predicted standard deviations while the filter is tracking, but
+     * never below {@link #MIN_SEARCH_RADIUS_PX}.
+     */
+    int searchRadius(NavigationConfig navigation, int moveStepPx, int fallbackRadiusPx) {
+        if (!navigation.kalmanLocalization() || !filter.initialized()) {
+            return fallbackRadiusPx;
+        }
+        double gate = SEARCH_GATE_SIGMAS * filter.predictedSigma(accelerationSigma(moveStepPx));
+        int floor = Math.min(MIN_SEARCH_RADIUS_PX, fallbackRadiusPx);
+        return (int) Math.max(floor, Math.min(fallbackRadiusPx, Math.ceil(gate)));
+    }
+
+    /**
+     * Direction the player is being sent in, used by the next filter prediction.
+     */
+    void steer(Point nextMapPoint) {
+        filter.steer(nextMapPoint);
+    }
+
     void reset() {
         smoothedPoint = null;
         predictFramesRemaining = 0;
+        filter.reset();
     }
 
     private Point predictWithoutMeasurement(int maxPredictFrames) {
@@ -107,6 +160,10 @@ final class LocalizationSmoother {
         return null;
     }
 
+    private static double accelerationSigma(int moveStepPx) {
+        return Math.max(1, moveStepPx) / 4.0;
+    }
+
     private static double resolveMaxJump(NavigationConfig navigation, int moveStepPx) {
         if (navigation.maxLocalizationJumpPx() > 0) {
             return navigation.maxLocalizationJumpPx();
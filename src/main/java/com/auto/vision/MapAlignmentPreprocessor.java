@@ -1,6 +1,7 @@
 package com.auto.vision;
 
 import com.auto.config.MapPreprocessConfig;
+import com.auto.opencv.process.WalkabilityGrid;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.Rect;
@@ -130,6 +131,25 @@ public final class MapAlignmentPreprocessor {
     return new MinimapPatchCrop(cropped, croppedMarker, bounds);
   }
 
+  /**
+   * Explored (non-fog) pixels of a BGR minimap patch as the walkable cells of a grid of the patch's size.
+   */
+  static WalkabilityGrid exploredMask(Mat patch) {
+    Mat gray = new Mat();
+    if (patch.channels() == 1) {
+      patch.copyTo(gray);
+    } else {
+      Imgproc.cvtColor(patch, gray, Imgproc.COLOR_BGR2GRAY);
+    }
+    Mat pathfinding = MapMarkerRemover.toPathfindingPolarity(gray, MINIMAP_FOG_THRESHOLD);
+    try {
+      return WalkabilityGrid.fromMat(pathfinding, 127);
+    } finally {
+      gray.release();
+      pathfinding.release();
+    }
+  }
+
   public static Mat prepareMinimapPatch(Mat patch, MapPreprocessConfig config) {
     return prepareMinimapPatch(patch, config, null);
   }
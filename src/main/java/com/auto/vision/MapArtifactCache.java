@@ -0,0 +1,188 @@
+package com.auto.vision;
+
+import com.auto.config.VisionConfig;
+import com.auto.opencv.process.LargeMapFeatureIndex;
+import com.auto.opencv.utils.ImageProcessor;
+import org.opencv.core.Mat;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * On-disk cache of the compiled artifacts of a map image: the post-processed pathfinding map and the
+ * {@link LargeMapFeatureIndex} (prepared map + keypoints/descriptors).
+ * <p>
+ * Artifacts are keyed by the SHA-256 of the map file content plus {@link PathfindingMapLoader#cacheKey}
+ * and the preprocess config. They are written next to the map ({@code <map>.<key>.aamap}), or under
+ * {@code java.io.tmpdir/auto-action-map-cache} when the map lives in a jar or its directory is read-only,
+ * and loaded back through a memory-mapped {@link FileChannel}. A missing, stale or corrupt artifact is
+ * rebuilt from the image.
+ */
+public final class MapArtifactCache {
+    static final int MAGIC = 0x41414D43;
+    static final int FORMAT_VERSION = 1;
+    static final String FILE_EXTENSION = ".aamap";
+
+    private MapArtifactCache() {
+    }
+
+    public record MapArtifacts(Mat pathfindingMap, LargeMapFeatureIndex featureIndex) {
+    }
+
+    /**
+     * In-memory key for the artifacts of {@code config}; does not touch the map file.
+     */
+    public static String cacheKey(VisionConfig config) {
+        return PathfindingMapLoader.cacheKey(config) + "|p=" + config.mapPreprocess();
+    }
+
+    public static MapArtifacts loadOrBuild(VisionConfig config) {
+        String artifactKey;
+        try {
+            artifactKey = contentHash(ImageProcessor.readMapBytes(config.mapImage())) + "|" + cacheKey(config);
+        } catch (IOException e) {
+            return build(config);
+        }
+
+        Path primary = artifactPath(primaryDirectory(config.mapImage()), config.mapImage(), artifactKey);
+        Path fallback = artifactPath(fallbackDirectory(), config.mapImage(), artifactKey);
+        for (Path candidate : new Path[] {primary, fallback}) {
+            if (candidate != null) {
+                MapArtifacts cached = read(candidate, artifactKey);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        MapArtifacts built = build(config);
+        built.featureIndex().warmUp();
+        if (primary == null || !write(primary, artifactKey, built)) {
+            write(fallback, artifactKey, built);
+        }
+        return built;
+    }
+
+    static MapArtifacts build(VisionConfig config) {
+        Mat pathfindingMap = PathfindingMapLoader.build(config);
+        Mat mapImage = ImageProcessor.loadMapImage(config.mapImage());
+        try {
+            return new MapArtifacts(pathfindingMap, LargeMapFeatureIndex.build(mapImage, config.mapPreprocess()));
+        } finally {
+            mapImage.release();
+        }
+    }
+
+    /**
+     * Returns the artifacts stored in {@code file}, or {@code null} if it is missing, was written by another
+     * format version, or belongs to a different map/config.
+     */
+    static MapArtifacts read(Path file, String artifactKey) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] storedKey = new byte[buffer.getInt()];
+            buffer.get(storedKey);
+            if (!artifactKey.equals(new String(storedKey, StandardCharsets.UTF_8))) {
+                return null;
+            }
+            Mat pathfindingMap = ImageProcessor.readMat(buffer);
+            LargeMapFeatureIndex featureIndex = LargeMapFeatureIndex.readFrom(buffer);
+            if (pathfindingMap.empty()) {
+                return null;
+            }
+            return new MapArtifacts(pathfindingMap, featureIndex);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code artifacts} atomically (temp file + move); returns {@code false} if the directory is not writable.
+     */
+    static boolean write(Path file, String artifactKey, MapArtifacts artifacts) {
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), "auto-action-map-", ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                byte[] key = artifactKey.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(key.length);
+                out.write(key);
+                ImageProcessor.writeMat(out, artifacts.pathfindingMap());
+                artifacts.featureIndex().writeTo(out);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+            return false;
+        }
+    }
+
+    static Path artifactPath(Path directory, String mapImage, String artifactKey) {
+        return artifactPath(directory, mapImage, artifactKey, FILE_EXTENSION);
+    }
+
+    static Path artifactPath(Path directory, String mapImage, String artifactKey, String extension) {
+        if (directory == null) {
+            return null;
+        }
+        String fileName = Paths.get(mapImage).getFileName().toString();
+        String keyHash = contentHash(artifactKey.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+        return directory.resolve(fileName + "." + keyHash + extension);
+    }
+
+    static Path primaryDirectory(String mapImage) {
+        Path mapFile = ImageProcessor.locateMapFile(mapImage);
+        if (mapFile == null || mapFile.getParent() == null || !Files.isWritable(mapFile.getParent())) {
+            return null;
+        }
+        return mapFile.getParent();
+    }
+
+    static Path fallbackDirectory() {
+        return Paths.get(System.getProperty("java.io.tmpdir", "."), "auto-action-map-cache");
+    }
+
+    static String contentHash(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
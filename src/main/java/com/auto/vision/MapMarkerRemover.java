@@ -1,6 +1,7 @@
 package com.auto.vision;
 
 import com.auto.config.HsvColorRange;
+import com.auto.opencv.process.WalkabilityGrid;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
@@ -113,12 +114,19 @@ final class MapMarkerRemover {
       return new Rect(0, 0, pathfindingBinary == null ? 0 : pathfindingBinary.cols(),
           pathfindingBinary == null ? 0 : pathfindingBinary.rows());
     }
-    Point walkableSeed = findWalkableSeed(pathfindingBinary, seed);
-    int cols = pathfindingBinary.cols();
-    int rows = pathfindingBinary.rows();
+    return boundingBoxOfExploredComponent(WalkabilityGrid.fromMat(pathfindingBinary, 127), seed, padding);
+  }
+
+  /**
+   * Same as the {@link Mat} overload, over a grid the caller already holds.
+   */
+  static Rect boundingBoxOfExploredComponent(WalkabilityGrid walkable, Point seed, int padding) {
+    Point walkableSeed = findWalkableSeed(walkable, seed);
+    int cols = walkable.cols();
+    int rows = walkable.rows();
     int startX = (int) Math.round(walkableSeed.x);
     int startY = (int) Math.round(walkableSeed.y);
-  if (!isWalkable(pathfindingBinary, startX, startY)) {
+    if (!walkable.isWalkable(startX, startY)) {
       return new Rect(0, 0, cols, rows);
     }
 
@@ -139,10 +147,10 @@ final class MapMarkerRemover {
       maxX = Math.max(maxX, x);
       minY = Math.min(minY, y);
       maxY = Math.max(maxY, y);
-      visitWalkableNeighbor(pathfindingBinary, visited, queue, x - 1, y);
-      visitWalkableNeighbor(pathfindingBinary, visited, queue, x + 1, y);
-      visitWalkableNeighbor(pathfindingBinary, visited, queue, x, y - 1);
-      visitWalkableNeighbor(pathfindingBinary, visited, queue, x, y + 1);
+      visitWalkableNeighbor(walkable, visited, queue, x - 1, y);
+      visitWalkableNeighbor(walkable, visited, queue, x + 1, y);
+      visitWalkableNeighbor(walkable, visited, queue, x, y - 1);
+      visitWalkableNeighbor(walkable, visited, queue, x, y + 1);
     }
 
     int x = Math.max(0, minX - padding);
@@ -153,26 +161,23 @@ final class MapMarkerRemover {
   }
 
   private static void visitWalkableNeighbor(
-      Mat pathfindingBinary,
+      WalkabilityGrid walkable,
       boolean[][] visited,
       Queue<int[]> queue,
       int x,
       int y
   ) {
-    if (x < 0 || y < 0 || x >= pathfindingBinary.cols() || y >= pathfindingBinary.rows()) {
-      return;
-    }
-    if (visited[y][x] || !isWalkable(pathfindingBinary, x, y)) {
+    if (!walkable.isWalkable(x, y) || visited[y][x]) {
       return;
     }
     visited[y][x] = true;
     queue.add(new int[] {x, y});
   }
 
-  private static Point findWalkableSeed(Mat pathfindingBinary, Point preferred) {
-    int px = clamp((int) Math.round(preferred.x), 0, pathfindingBinary.cols() - 1);
-    int py = clamp((int) Math.round(preferred.y), 0, pathfindingBinary.rows() - 1);
-    if (isWalkable(pathfindingBinary, px, py)) {
+  private static Point findWalkableSeed(WalkabilityGrid walkable, Point preferred) {
+    int px = clamp((int) Math.round(preferred.x), 0, walkable.cols() - 1);
+    int py = clamp((int) Math.round(preferred.y), 0, walkable.rows() - 1);
+    if (walkable.isWalkable(px, py)) {
       return new Point(px, py);
     }
     for (int radius = 1; radius <= 10; radius++) {
@@ -183,7 +188,7 @@ final class MapMarkerRemover {
           }
           int x = px + dx;
           int y = py + dy;
-          if (isWalkable(pathfindingBinary, x, y)) {
+          if (walkable.isWalkable(x, y)) {
             return new Point(x, y);
           }
         }
@@ -192,13 +197,6 @@ final class MapMarkerRemover {
     return new Point(px, py);
   }
 
-  private static boolean isWalkable(Mat pathfindingBinary, int x, int y) {
-    if (x < 0 || y < 0 || x >= pathfindingBinary.cols() || y >= pathfindingBinary.rows()) {
-      return false;
-    }
-    return pathfindingBinary.get(y, x)[0] <= 127;
-  }
-
   private static int clamp(int value, int min, int max) {
     return Math.max(min, Math.min(max, value));
   }
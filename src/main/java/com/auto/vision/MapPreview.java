@@ -0,0 +1,132 @@
+package com.auto.vision;
+
+import com.auto.opencv.utils.ImageProcessor;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Map preview drawn in map coordinates but rendered only around what was drawn: the bounding box of all
+ * marks plus a margin, read from a {@link TiledMapStore} at the finest level that fits {@link #MAX_SIDE}.
+ * Marks keep their pixel radius and thickness at every level.
+ */
+final class MapPreview {
+    static final int MAX_SIDE = 1024;
+    private static final int MARGIN = 96;
+
+    private final TiledMapStore store;
+    private final List<Mark> marks = new ArrayList<>();
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    MapPreview(TiledMapStore store) {
+        this.store = store;
+    }
+
+    @FunctionalInterface
+    private interface Mark {
+        void draw(Mat canvas, View view);
+    }
+
+    private record View(int originX, int originY, int level) {
+        Point toCanvas(Point mapPoint) {
+            double scale = 1 << level;
+            return new Point((mapPoint.x - originX) / scale, (mapPoint.y - originY) / scale);
+        }
+    }
+
+    void point(Point center, Scalar color, int radius) {
+        if (center == null) {
+            return;
+        }
+        include(center);
+        marks.add((canvas, view) -> Imgproc.circle(canvas, view.toCanvas(center), radius, color, -1));
+    }
+
+    void line(Point from, Point to, Scalar color, int thickness) {
+        include(from);
+        include(to);
+        marks.add((canvas, view) -> Imgproc.line(canvas, view.toCanvas(from), view.toCanvas(to), color, thickness));
+    }
+
+    void rectangle(Point topLeft, Point bottomRight, Scalar color, int thickness) {
+        include(topLeft);
+        include(bottomRight);
+        marks.add((canvas, view) -> Imgproc.rectangle(
+                canvas,
+                view.toCanvas(topLeft),
+                view.toCanvas(bottomRight),
+                color,
+                thickness
+        ));
+    }
+
+    void text(String text, Point origin, Scalar color) {
+        include(origin);
+        marks.add((canvas, view) -> Imgproc.putText(
+                canvas,
+                text,
+                view.toCanvas(origin),
+                Imgproc.FONT_HERSHEY_SIMPLEX,
+                0.45,
+                color,
+                1
+        ));
+    }
+
+    BufferedImage render() {
+        Rect bounds = marks.isEmpty()
+                ? new Rect(0, 0, store.cols(), store.rows())
+                : clip(
+                        (int) Math.floor(minX) - MARGIN,
+                        (int) Math.floor(minY) - MARGIN,
+                        (int) Math.ceil(maxX) + MARGIN + 1,
+                        (int) Math.ceil(maxY) + MARGIN + 1
+                );
+        View view = new View(bounds.x, bounds.y, store.levelFor(bounds.width, bounds.height, MAX_SIDE));
+        Mat canvas = store.region(bounds, view.level());
+        try {
+            for (Mark mark : marks) {
+                mark.draw(canvas, view);
+            }
+            return ImageProcessor.matToBufferedImage(canvas);
+        } finally {
+            canvas.release();
+        }
+    }
+
+    /**
+     * The whole map at preview size, without marks.
+     */
+    BufferedImage overview() {
+        Mat canvas = store.overview(MAX_SIDE);
+        try {
+            return ImageProcessor.matToBufferedImage(canvas);
+        } finally {
+            canvas.release();
+        }
+    }
+
+    private void include(Point point) {
+        minX = Math.min(minX, point.x);
+        minY = Math.min(minY, point.y);
+        maxX = Math.max(maxX, point.x);
+        maxY = Math.max(maxY, point.y);
+    }
+
+    private Rect clip(int left, int top, int right, int bottom) {
+        left = Math.max(0, Math.min(store.cols() - 1, left));
+        top = Math.max(0, Math.min(store.rows() - 1, top));
+        right = Math.max(left + 1, Math.min(store.cols(), right));
+        bottom = Math.max(top + 1, Math.min(store.rows(), bottom));
+        return new Rect(left, top, right - left, bottom - top);
+    }
+}
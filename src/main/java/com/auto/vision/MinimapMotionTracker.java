@@ -0,0 +1,114 @@
+package com.auto.vision;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Dead-reckons the player between full feature relocalizations by phase-correlating consecutive arrow-centred
+ * minimap patches. The minimap is drawn at map scale (as {@code revealExplored} also assumes), so the patch
+ * content moving by {@code (dx, dy)} means the player moved by {@code (-dx, -dy)} on the map.
+ * <p>
+ * Tracking starts from the position accepted after a full relocalization ({@link #anchor}) and stops, asking
+ * for the next relocalization, when the correlation peak is weak, the accumulated motion exceeds
+ * {@link #DRIFT_BUDGET_PX} or {@link #MAX_TRACKED_FRAMES} frames were tracked in a row.
+ */
+final class MinimapMotionTracker {
+    static final double MIN_RESPONSE = 0.2;
+    static final double DRIFT_BUDGET_PX = 120.0;
+    static final int MAX_TRACKED_FRAMES = 10;
+    private static final int ARROW_MASK_RADIUS = 9;
+
+    private Mat previous;
+    private Mat window;
+    private Point position;
+    private double drift;
+    private int trackedFrames;
+
+    /**
+     * @param mapPoint   dead-reckoned map position of the player
+     * @param confidence derived from the correlation peak, in {@code [0.5, 1]}
+     */
+    record Step(Point mapPoint, double confidence, double shiftPx) {
+    }
+
+    /**
+     * Map position on {@code patch}, or {@code null} when a full relocalization is due. The patch becomes the
+     * reference for the next frame either way.
+     */
+    Step track(Mat patch, Point arrowInPatch) {
+        Mat current = prepare(patch, arrowInPatch);
+        Mat reference = previous;
+        previous = current;
+        if (position == null || reference == null || reference.size().width != current.size().width
+                || reference.size().height != current.size().height) {
+            position = null;
+            return null;
+        }
+        if (trackedFrames >= MAX_TRACKED_FRAMES) {
+            position = null;
+            return null;
+        }
+        double[] response = new double[1];
+        Point shift = Imgproc.phaseCorrelate(reference, current, hanningWindow(current), response);
+        double shiftPx = Math.hypot(shift.x, shift.y);
+        if (response[0] < MIN_RESPONSE || drift + shiftPx > DRIFT_BUDGET_PX) {
+            position = null;
+            return null;
+        }
+        drift += shiftPx;
+        trackedFrames++;
+        position = new Point(position.x - shift.x, position.y - shift.y);
+        return new Step(position, Math.min(1.0, 0.5 + response[0] / 2.0), shiftPx);
+    }
+
+    /**
+     * A full relocalization placed the player on {@code patch} at {@code mapPoint}; drift starts over.
+     */
+    void anchor(Mat patch, Point arrowInPatch, Point mapPoint) {
+        if (mapPoint == null) {
+            return;
+        }
+        previous = prepare(patch, arrowInPatch);
+        position = mapPoint;
+        drift = 0.0;
+        trackedFrames = 0;
+    }
+
+    void reset() {
+        previous = null;
+        position = null;
+        drift = 0.0;
+        trackedFrames = 0;
+    }
+
+    /**
+     * Grayscale float copy with the arrow painted over by the patch mean, so the static marker does not pull
+     * the correlation peak towards zero shift.
+     */
+    private static Mat prepare(Mat patch, Point arrowInPatch) {
+        Mat gray = new Mat();
+        if (patch.channels() == 1) {
+            patch.copyTo(gray);
+        } else {
+            Imgproc.cvtColor(patch, gray, Imgproc.COLOR_BGR2GRAY);
+        }
+        Mat prepared = new Mat();
+        gray.convertTo(prepared, CvType.CV_32F);
+        gray.release();
+        if (arrowInPatch != null) {
+            Imgproc.circle(prepared, arrowInPatch, ARROW_MASK_RADIUS, Core.mean(prepared), -1);
+        }
+        return prepared;
+    }
+
+    private Mat hanningWindow(Mat like) {
+        if (window == null || window.cols() != like.cols() || window.rows() != like.rows()) {
+            window = new Mat();
+            Imgproc.createHanningWindow(window, like.size(), CvType.CV_32F);
+        }
+        return window;
+    }
+}
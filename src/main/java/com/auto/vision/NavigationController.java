@@ -1,11 +1,15 @@
 package com.auto.vision;
 
 import com.auto.config.NavigationConfig;
+import com.auto.config.PointConfig;
 import com.auto.opencv.utils.ImageProcessor;
 import org.opencv.core.Point;
 
+import java.util.List;
+
 public final class NavigationController {
     private final NavigationConfig config;
+    private final List<PointConfig> targets;
     private NavigationControllerState state = NavigationControllerState.IDLE;
     private Point lastMapPoint;
     private long lastProgressAtMs;
@@ -14,10 +18,20 @@ public final class NavigationController {
     private int waypointIndex;
     private int consecutiveLowConfidenceFrames;
     private int consecutiveAnalysisFailures;
+    private int targetIndex;
     private String lastMessage = "";
 
     public NavigationController(NavigationConfig config) {
+        this(config, List.of());
+    }
+
+    /**
+     * Visits {@code targets} back-to-back: arriving at one switches to the next instead of stopping, and only
+     * the last one stops the run. The caller navigates towards {@link #currentTarget()}.
+     */
+    public NavigationController(NavigationConfig config, List<PointConfig> targets) {
         this.config = config;
+        this.targets = List.copyOf(targets);
     }
 
     public void reset() {
@@ -29,6 +43,7 @@ public final class NavigationController {
         waypointIndex = 0;
         consecutiveLowConfidenceFrames = 0;
         consecutiveAnalysisFailures = 0;
+        targetIndex = 0;
         lastMessage = "";
     }
 
@@ -40,6 +55,17 @@ public final class NavigationController {
         return waypointIndex;
     }
 
+    /**
+     * Target of the current leg, or {@code null} for a single-target run (navigate to the configured target).
+     */
+    public PointConfig currentTarget() {
+        return targets.isEmpty() ? null : targets.get(targetIndex);
+    }
+
+    public int targetIndex() {
+        return targetIndex;
+    }
+
     public String lastMessage() {
         return lastMessage;
     }
@@ -49,6 +75,16 @@ public final class NavigationController {
             return record(stopFailed("缺少导航分析结果"));
         }
 
+        if (analysis.arrived() && targetIndex < targets.size() - 1) {
+            targetIndex++;
+            startNextLeg();
+            return record(NavigationDecision.skip(
+                    NavigationControllerState.MOVING,
+                    "已到达第 " + targetIndex + "/" + targets.size() + " 个目标，前往下一个目标",
+                    0
+            ));
+        }
+
         if (analysis.arrived()) {
             state = NavigationControllerState.ARRIVED;
             return record(NavigationDecision.stopArrived(
@@ -142,6 +178,14 @@ public final class NavigationController {
         ));
     }
 
+    private void startNextLeg() {
+        lastMapPoint = null;
+        lastProgressAtMs = 0L;
+        lastClickAtMs = 0L;
+        stuckCount = 0;
+        waypointIndex = 0;
+    }
+
     private void updateProgress(Point currentMapPoint, long nowMs) {
         if (lastMapPoint == null) {
             lastMapPoint = currentMapPoint;
@@ -1,15 +1,35 @@
 package com.auto.vision;
 
 import com.auto.config.MapPreprocessConfig;
+import com.auto.config.PlannerMode;
+import com.auto.config.PointConfig;
 import com.auto.config.RegionConfig;
 import com.auto.config.VisionConfig;
+import com.auto.detection.DetectedObject;
+import com.auto.opencv.process.AnytimePlanner;
 import com.auto.opencv.process.ArrowMatchDebug;
 import com.auto.opencv.process.ArrowMatchResult;
 import com.auto.opencv.process.ArrowMatcher;
+import com.auto.opencv.process.DStarLitePlanner;
+import com.auto.opencv.process.DynamicObstacleOverlay;
+import com.auto.opencv.process.ExplorationFrontier;
+import com.auto.opencv.process.ExplorationRoute;
+import com.auto.opencv.process.FlowField;
+import com.auto.opencv.process.GridAStarPlanner;
+import com.auto.opencv.process.GridPathfinder;
+import com.auto.opencv.process.HierarchicalPlanner;
+import com.auto.opencv.process.JumpPointPlanner;
+import com.auto.opencv.process.LargeMapFeatureIndex;
 import com.auto.opencv.process.MapMatchDebug;
+import com.auto.opencv.process.MapMatchMethod;
 import com.auto.opencv.process.MapMatchResult;
 import com.auto.opencv.process.MapMatcher;
+import com.auto.opencv.process.NearestWalkableIndex;
 import com.auto.opencv.process.PathPlanner;
+import com.auto.opencv.process.PyramidPlanner;
+import com.auto.opencv.process.TargetTour;
+import com.auto.opencv.process.WalkabilityGrid;
+import com.auto.opencv.process.WalkableComponents;
 import com.auto.opencv.utils.ImageProcessor;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
@@ -29,10 +49,36 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class OpenCvNavigationAnalyzer {
+    private static final int MAX_FLOW_FIELDS = 4;
+    /** Each tour target keeps a full-map flow field for the whole run. */
+    static final int MAX_TOUR_TARGETS = 8;
+
     private final ArrowMatcher arrowMatcher;
     private final LocalizationSmoother localizationSmoother = new LocalizationSmoother();
+    private final MinimapMotionTracker motionTracker = new MinimapMotionTracker();
     private final Map<String, Mat> imageCache = new ConcurrentHashMap<>();
-    private final Map<String, Mat> pathfindingMapCache = new ConcurrentHashMap<>();
+    private final Map<String, TiledMapStore> tiledMapCache = new ConcurrentHashMap<>();
+    private final Map<String, MapArtifactCache.MapArtifacts> mapArtifactsCache = new ConcurrentHashMap<>();
+    private final Map<String, WalkabilityGrid> walkabilityCache = new ConcurrentHashMap<>();
+    private final Map<String, NearestWalkableIndex> nearestWalkableCache = new ConcurrentHashMap<>();
+    private final Map<String, WalkableComponents> componentsCache = new ConcurrentHashMap<>();
+    private final Map<String, GridAStarPlanner> planningGridCache = new ConcurrentHashMap<>();
+    private final Map<String, JumpPointPlanner> jumpPointPlannerCache = new ConcurrentHashMap<>();
+    private final Map<String, FlowField> flowFieldCache = new ConcurrentHashMap<>();
+    private final Map<String, FlowField> tourFieldCache = new ConcurrentHashMap<>();
+    private final Map<String, HierarchicalPlanner> hierarchicalPlannerCache = new ConcurrentHashMap<>();
+    private final Map<String, PyramidPlanner> pyramidPlannerCache = new ConcurrentHashMap<>();
+    private final Map<String, ExplorationFrontier> explorationCache = new ConcurrentHashMap<>();
+    private final Map<String, ExplorationRoute> explorationRouteCache = new ConcurrentHashMap<>();
+    private final Object sessionPlannerLock = new Object();
+    private GridPathfinder sessionPlanner;
+    private String sessionPlannerKey;
+    private DynamicObstacleOverlay dynamicObstacles;
+    private String dynamicObstaclesKey;
+    private DynamicObstacleOverlay.DirtyRegionListener sessionOverlayListener;
+    private DStarLitePlanner detourPlanner;
+    private String detourPlannerKey;
+    private DynamicObstacleOverlay.DirtyRegionListener detourOverlayListener;
 
     public OpenCvNavigationAnalyzer() {
         this(new ArrowMatcher());
@@ -44,11 +90,208 @@ public final class OpenCvNavigationAnalyzer {
 
     public void resetLocalizationState() {
         localizationSmoother.reset();
+        motionTracker.reset();
+    }
+
+    /**
+     * Starts a new navigation session: forgets the localization history and the incremental planner state.
+     */
+    public void resetNavigationSession() {
+        resetLocalizationState();
+        dropSessionPlanner();
+        dropDetourPlanner();
+        clearTour();
+    }
+
+    /**
+     * Drops the leg flow fields of the last {@link #planTour} run.
+     */
+    public void clearTour() {
+        tourFieldCache.clear();
     }
 
     public void clearMapCaches() {
         imageCache.clear();
-        pathfindingMapCache.clear();
+        tiledMapCache.values().forEach(TiledMapStore::release);
+        tiledMapCache.clear();
+        mapArtifactsCache.clear();
+        walkabilityCache.clear();
+        nearestWalkableCache.clear();
+        componentsCache.clear();
+        planningGridCache.clear();
+        jumpPointPlannerCache.clear();
+        flowFieldCache.clear();
+        tourFieldCache.clear();
+        hierarchicalPlannerCache.clear();
+        pyramidPlannerCache.clear();
+        explorationCache.clear();
+        explorationRouteCache.clear();
+        dropSessionPlanner();
+        dropDetourPlanner();
+        synchronized (sessionPlannerLock) {
+            dynamicObstacles = null;
+            dynamicObstaclesKey = null;
+        }
+    }
+
+    /**
+     * Drops everything cached for {@code config}'s map image (image, artifacts, grids, planners, fields), e.g.
+     * when a {@link ZoneRegistry} evicts a zone that is no longer resident. Other maps stay cached.
+     */
+    public void evictMap(VisionConfig config) {
+        String prefix = config.mapImage() + "|";
+        imageCache.remove(config.mapImage());
+        TiledMapStore tiles = tiledMapCache.remove(config.mapImage());
+        if (tiles != null) {
+            tiles.release();
+        }
+        for (Map<String, ?> cache : List.of(
+                mapArtifactsCache,
+                walkabilityCache,
+                nearestWalkableCache,
+                componentsCache,
+                planningGridCache,
+                jumpPointPlannerCache,
+                flowFieldCache,
+                tourFieldCache,
+                hierarchicalPlannerCache,
+                pyramidPlannerCache,
+                explorationCache,
+                explorationRouteCache
+        )) {
+            cache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        synchronized (sessionPlannerLock) {
+            if (sessionPlannerKey != null && sessionPlannerKey.startsWith(prefix)) {
+                dropSessionPlanner();
+            }
+            if (detourPlannerKey != null && detourPlannerKey.startsWith(prefix)) {
+                dropDetourPlanner();
+            }
+            if (dynamicObstaclesKey != null && dynamicObstaclesKey.startsWith(prefix)) {
+                dynamicObstacles = null;
+                dynamicObstaclesKey = null;
+            }
+        }
+    }
+
+    /**
+     * Blocks a map rectangle for {@code ttlMs} on top of the pathfinding map, e.g. a gate that is closed for now.
+     *
+     * @return stamp id, or 0 if the rectangle lies outside the map
+     */
+    public long markDynamicObstacle(VisionConfig config, Rect mapRegion, long ttlMs) {
+        return dynamicObstacles(config).stamp(
+                mapRegion.x,
+                mapRegion.y,
+                mapRegion.width,
+                mapRegion.height,
+                ttlMs,
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * Blocks the map area under each detection for {@code ttlMs}; detection bounds are in source image
+     * coordinates and are mapped through the screen calibration, so nothing is marked without one. The
+     * navigation pipeline calls this every tick when {@code navigation.detectedObstacleTtlMs} is set.
+     *
+     * @return number of detections marked
+     */
+    public int markDetectedObstacles(VisionConfig config, List<DetectedObject> detections, long ttlMs) {
+        ScreenMapper screenMapper = new ScreenMapper(config.navigation().screenCalibration());
+        if (!screenMapper.enabled()) {
+            return 0;
+        }
+        DynamicObstacleOverlay overlay = dynamicObstacles(config);
+        long nowMs = System.currentTimeMillis();
+        int marked = 0;
+        for (DetectedObject detection : detections) {
+            Rectangle bounds = detection.bounds();
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int corner = 0; corner < 4; corner++) {
+                Point mapPoint = screenMapper.screenToMap(new Point(
+                        bounds.getX() + (corner % 2) * bounds.getWidth(),
+                        bounds.getY() + (corner / 2) * bounds.getHeight()
+                ));
+                minX = Math.min(minX, mapPoint.x);
+                minY = Math.min(minY, mapPoint.y);
+                maxX = Math.max(maxX, mapPoint.x);
+                maxY = Math.max(maxY, mapPoint.y);
+            }
+            int x = (int) Math.floor(minX);
+            int y = (int) Math.floor(minY);
+            long id = overlay.stamp(x, y, (int) Math.ceil(maxX) - x + 1, (int) Math.ceil(maxY) - y + 1, ttlMs, nowMs);
+            if (id != 0) {
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    public void clearDynamicObstacles() {
+        DynamicObstacleOverlay overlay;
+        synchronized (sessionPlannerLock) {
+            overlay = dynamicObstacles;
+        }
+        if (overlay != null) {
+            overlay.clear();
+        }
+    }
+
+    /**
+     * Starts tracking explored space on this map: from now on every localized minimap patch is revealed into
+     * the map's {@link ExplorationFrontier}. What was explored before is kept until the map caches are cleared.
+     */
+    public void beginExploration(VisionConfig config) {
+        explorationCache.computeIfAbsent(
+                planningGridKey(config),
+                ignored -> ExplorationFrontier.forGrid(cachedPlanningGrid(config))
+        );
+    }
+
+    /**
+     * Frontier cell to walk to from {@code currentMapPoint}, or {@code null} once no reachable frontier is left
+     * (or {@link #beginExploration} was not called for this map). The cheapest frontier is chosen once and kept
+     * until it is reached, stops being a frontier or the player leaves the route to it; planning towards it
+     * follows that route instead of running the configured planner.
+     */
+    public Point nextExplorationTarget(VisionConfig config, Point currentMapPoint) {
+        String key = planningGridKey(config);
+        ExplorationFrontier frontier = explorationCache.get(key);
+        if (frontier == null || currentMapPoint == null) {
+            return null;
+        }
+        int x = (int) Math.round(currentMapPoint.x);
+        int y = (int) Math.round(currentMapPoint.y);
+        ExplorationRoute route = explorationRouteCache.get(key);
+        if (route != null) {
+            int[] goal = route.goal();
+            boolean reached = Math.hypot(goal[0] - currentMapPoint.x, goal[1] - currentMapPoint.y)
+                    <= config.navigation().waypointReachDistance();
+            if (!reached && frontier.isFrontier(goal[0], goal[1]) && route.covers(x, y)) {
+                return new Point(goal[0], goal[1]);
+            }
+        }
+        route = frontier.cheapestFrontierRoute(x, y, explorationRouteTolerance(config));
+        if (route == null) {
+            explorationRouteCache.remove(key);
+            return null;
+        }
+        explorationRouteCache.put(key, route);
+        int[] goal = route.goal();
+        return new Point(goal[0], goal[1]);
+    }
+
+    private static int explorationRouteTolerance(VisionConfig config) {
+        return Math.max(4, (int) Math.ceil(config.navigation().waypointReachDistance()));
+    }
+
+    public Point lastKnownMapPoint() {
+        return localizationSmoother.lastKnownPoint();
     }
 
     public NavigationAnalysis analyzeWindowCapture(
@@ -117,11 +360,10 @@ public final class OpenCvNavigationAnalyzer {
     ) {
         OpenCvLoader.load();
 
-        Mat largeMap = cachedImage(config.mapImage()).clone();
         Mat arrowTemplate = cachedImage(config.arrowTemplate());
         Mat miniMap = ImageProcessor.bufferedImageToMat(miniMapImage);
         Mat miniMapPreview = miniMap.clone();
-        Mat mapPreview = largeMap.clone();
+        MapPreview mapPreview = new MapPreview(cachedTiledMap(config));
         Point targetMapPoint = new Point(config.target().x(), config.target().y());
         drawMapPoint(mapPreview, targetMapPoint, new Scalar(255, 0, 0), 6);
         ScreenMapper screenMapper = new ScreenMapper(config.navigation().screenCalibration());
@@ -166,7 +408,7 @@ public final class OpenCvNavigationAnalyzer {
                             sourceImage,
                             miniMapImage,
                             ImageProcessor.matToBufferedImage(miniMapPreview),
-                            ImageProcessor.matToBufferedImage(mapPreview),
+                            mapPreview.render(),
                             buildClickPreview(sourceImage, sourceBounds, null, screenMapper, config),
                             arrowCenter,
                             null,
@@ -195,14 +437,23 @@ public final class OpenCvNavigationAnalyzer {
 
                 Mat matchArea = new Mat(miniMap, matchRect).clone();
                 Point arrowInPatch = arrowInMatchArea(arrowCenter, matchRect);
-                MapMatchResult mapMatch = locateOnLargeMap(
-                        config,
-                        largeMap,
-                        matchArea,
-                        arrowInPatch,
-                        preprocess,
-                        localizationSmoother.lastKnownPoint()
-                );
+                boolean motionTracking = config.navigation().motionTracking();
+                MinimapMotionTracker.Step tracked = motionTracking
+                        ? motionTracker.track(matchArea, arrowInPatch)
+                        : null;
+                MapMatchResult mapMatch = tracked != null
+                        ? snapToWalkable(
+                                config,
+                                new MapMatchResult(tracked.mapPoint(), tracked.confidence(), MapMatchMethod.MOTION_TRACK)
+                        )
+                        : locateOnLargeMap(
+                                config,
+                                cachedFeatureIndex(config),
+                                matchArea,
+                                arrowInPatch,
+                                preprocess,
+                                localizationSmoother.searchCenter(config.navigation())
+                        );
                 rawMapPoint = mapMatch.mapPoint();
                 if (rawMapPoint == null && !isArrowCenteredMiniMap(miniMap, config.matchAreaSize())) {
                     int expandedSize = (int) Math.round(config.matchAreaSize() * 1.1);
@@ -210,11 +461,11 @@ public final class OpenCvNavigationAnalyzer {
                     Mat expandedArea = new Mat(miniMap, expandedRect).clone();
                     mapMatch = locateOnLargeMap(
                             config,
-                            largeMap,
+                            cachedFeatureIndex(config),
                             expandedArea,
                             arrowInMatchArea(arrowCenter, expandedRect),
                             preprocess,
-                            localizationSmoother.lastKnownPoint()
+                            localizationSmoother.searchCenter(config.navigation())
                     );
                     rawMapPoint = mapMatch.mapPoint();
                     if (rawMapPoint != null) {
@@ -240,7 +491,7 @@ public final class OpenCvNavigationAnalyzer {
                                 sourceImage,
                                 miniMapImage,
                                 ImageProcessor.matToBufferedImage(miniMapPreview),
-                                ImageProcessor.matToBufferedImage(mapPreview),
+                                mapPreview.render(),
                                 buildClickPreview(sourceImage, sourceBounds, null, screenMapper, config),
                                 arrowCenter,
                                 null,
@@ -268,7 +519,11 @@ public final class OpenCvNavigationAnalyzer {
                     currentMapPoint = localizationResult.acceptedPoint();
                     localizationConfidence = localizationResult.effectiveConfidence();
                     localizationMethod = localizationResult.method();
+                    if (motionTracking && tracked == null) {
+                        motionTracker.anchor(matchArea, arrowInPatch, currentMapPoint);
+                    }
                     drawLocalizationOnMap(mapPreview, localizationResult, matchRect);
+                    revealExplored(config, miniMap, matchRect, arrowCenter, currentMapPoint);
                 }
             }
 
@@ -279,7 +534,7 @@ public final class OpenCvNavigationAnalyzer {
                         sourceImage,
                         miniMapImage,
                         ImageProcessor.matToBufferedImage(miniMapPreview),
-                        ImageProcessor.matToBufferedImage(mapPreview),
+                        mapPreview.render(),
                         buildClickPreview(sourceImage, sourceBounds, null, screenMapper, config),
                         arrowCenter,
                         currentMapPoint,
@@ -296,20 +551,15 @@ public final class OpenCvNavigationAnalyzer {
                 );
             }
 
-            Mat pathfindingMap = cachedPathfindingMap(config);
-            try {
-                path = new PathPlanner(pathfindingMap, currentMapPoint, targetMapPoint, config.obstacleThreshold())
-                        .findPath();
-            } finally {
-                pathfindingMap.release();
-            }
+            String unreachable = unreachableReason(config, currentMapPoint, targetMapPoint);
+            path = unreachable == null ? findMapPath(config, currentMapPoint, targetMapPoint) : new int[0][2];
             if (path.length == 0) {
                 return buildResult(
                         sourceName,
                         sourceImage,
                         miniMapImage,
                         ImageProcessor.matToBufferedImage(miniMapPreview),
-                        ImageProcessor.matToBufferedImage(mapPreview),
+                        mapPreview.render(),
                         buildClickPreview(sourceImage, sourceBounds, null, screenMapper, config),
                         arrowCenter,
                         currentMapPoint,
@@ -319,7 +569,7 @@ public final class OpenCvNavigationAnalyzer {
                         path,
                         false,
                         false,
-                        "路径规划失败，起点和终点之间没有可用通路。",
+                        unreachable != null ? unreachable : emptyPathMessage(config),
                         localizationConfidence,
                         localizationMethod,
                         localizationResult
@@ -334,6 +584,7 @@ public final class OpenCvNavigationAnalyzer {
                     config.navigation().waypointReachDistance(),
                     waypointIndex
             );
+            localizationSmoother.steer(nextMapPoint);
             drawMapPoint(mapPreview, nextMapPoint, new Scalar(0, 255, 255), 5);
 
             if (sourceBounds != null) {
@@ -363,7 +614,7 @@ public final class OpenCvNavigationAnalyzer {
                     sourceImage,
                     miniMapImage,
                     ImageProcessor.matToBufferedImage(miniMapPreview),
-                    ImageProcessor.matToBufferedImage(mapPreview),
+                    mapPreview.render(),
                     buildClickPreview(sourceImage, sourceBounds, nextScreenPoint, screenMapper, config),
                     arrowCenter,
                     currentMapPoint,
@@ -384,7 +635,7 @@ public final class OpenCvNavigationAnalyzer {
                     sourceImage,
                     miniMapImage,
                     ImageProcessor.matToBufferedImage(miniMapPreview),
-                    ImageProcessor.matToBufferedImage(mapPreview),
+                    mapPreview.render(),
                     buildClickPreview(sourceImage, sourceBounds, nextScreenPoint, screenMapper, config),
                     arrowCenter,
                     currentMapPoint,
@@ -503,10 +754,9 @@ public final class OpenCvNavigationAnalyzer {
 
     public LocateOnMapDebug locateOnMapWithDebug(VisionConfig config, BufferedImage miniMapImage, Point arrowCenter) {
         OpenCvLoader.load();
-        Mat largeMap = cachedImage(config.mapImage()).clone();
         Mat miniMap = ImageProcessor.bufferedImageToMat(miniMapImage);
         Mat miniMapPreview = miniMap.clone();
-        Mat mapPreview = largeMap.clone();
+        MapPreview mapPreview = new MapPreview(cachedTiledMap(config));
         Point targetMapPoint = new Point(config.target().x(), config.target().y());
         drawMapPoint(mapPreview, targetMapPoint, new Scalar(255, 0, 0), 6);
 
@@ -527,13 +777,13 @@ public final class OpenCvNavigationAnalyzer {
         artifacts.add(NavigationDebugArtifacts.image("minimap_marked", "小地图+匹配框", ImageProcessor.matToBufferedImage(miniMapPreview)));
 
         MapMatchDebug mapMatchDebug = MapMatcher.forLocalizationWithDebug(
-                largeMap,
+                cachedFeatureIndex(config),
                 matchArea,
                 preprocess,
                 arrowInPatch,
                 arrowInPatch,
-                localizationSmoother.lastKnownPoint(),
-                localizationSearchRadius(config)
+                localizationSmoother.searchCenter(config.navigation()),
+                searchRadius(config)
         );
         MapMatchResult mapMatch = snapToWalkable(config, mapMatchDebug.result());
         collectMapMatchArtifacts(artifacts, mapMatchDebug);
@@ -543,13 +793,13 @@ public final class OpenCvNavigationAnalyzer {
             int expandedSize = (int) Math.round(config.matchAreaSize() * 1.1);
             Rect expandedRect = centeredRect(miniMap, arrowCenter, expandedSize, expandedSize);
             mapMatchDebug = MapMatcher.forLocalizationWithDebug(
-                    largeMap,
+                    cachedFeatureIndex(config),
                     new Mat(miniMap, expandedRect).clone(),
                     preprocess,
                     arrowInMatchArea(arrowCenter, expandedRect),
                     arrowInMatchArea(arrowCenter, expandedRect),
-                    localizationSmoother.lastKnownPoint(),
-                    localizationSearchRadius(config)
+                    localizationSmoother.searchCenter(config.navigation()),
+                    searchRadius(config)
             );
             mapMatch = snapToWalkable(config, mapMatchDebug.result());
             collectMapMatchArtifacts(artifacts, mapMatchDebug);
@@ -559,12 +809,12 @@ public final class OpenCvNavigationAnalyzer {
             }
         }
         if (rawMapPoint == null) {
-            artifacts.add(NavigationDebugArtifacts.image("large_map_input", "大地图输入", ImageProcessor.matToBufferedImage(largeMap)));
+            artifacts.add(NavigationDebugArtifacts.image("large_map_input", "大地图输入", mapPreview.overview()));
             String detail = String.join("; ", mapMatchDebug.attempts());
             return LocateOnMapDebug.failed(
                     "大地图匹配失败，当前小地图特征不足以定位角色位置。诊断: " + detail,
                     NavigationDebugArtifacts.nonEmpty(artifacts),
-                    ImageProcessor.matToBufferedImage(mapPreview)
+                    mapPreview.render()
             );
         }
 
@@ -577,7 +827,7 @@ public final class OpenCvNavigationAnalyzer {
         );
         Point currentMapPoint = localizationResult.acceptedPoint();
         drawLocalizationOnMap(mapPreview, localizationResult, matchRect);
-        artifacts.add(NavigationDebugArtifacts.image("map_locate_result", "大地图定位结果", ImageProcessor.matToBufferedImage(mapPreview)));
+        artifacts.add(NavigationDebugArtifacts.image("map_locate_result", "大地图定位结果", mapPreview.render()));
 
         String detailSuffix = localizationResult.detail().isEmpty() ? "" : "；" + localizationResult.detail();
         NavigationAnalysis analysis = buildResult(
@@ -585,7 +835,7 @@ public final class OpenCvNavigationAnalyzer {
                 null,
                 miniMapImage,
                 ImageProcessor.matToBufferedImage(miniMapPreview),
-                ImageProcessor.matToBufferedImage(mapPreview),
+                mapPreview.render(),
                 null,
                 arrowCenter,
                 currentMapPoint,
@@ -618,8 +868,7 @@ public final class OpenCvNavigationAnalyzer {
 
     public PathPlanResult planPath(VisionConfig config, Point currentMapPoint, int waypointIndex) {
         OpenCvLoader.load();
-        Mat largeMap = cachedImage(config.mapImage()).clone();
-        Mat mapPreview = largeMap.clone();
+        MapPreview mapPreview = new MapPreview(cachedTiledMap(config));
         Point targetMapPoint = new Point(config.target().x(), config.target().y());
         drawMapPoint(mapPreview, targetMapPoint, new Scalar(255, 0, 0), 6);
         drawMapPoint(mapPreview, currentMapPoint, new Scalar(0, 0, 255), 6);
@@ -630,7 +879,7 @@ public final class OpenCvNavigationAnalyzer {
                     null,
                     null,
                     null,
-                    ImageProcessor.matToBufferedImage(mapPreview),
+                    mapPreview.render(),
                     null,
                     null,
                     currentMapPoint,
@@ -647,15 +896,13 @@ public final class OpenCvNavigationAnalyzer {
             return new PathPlanResult(true, analysis.message(), new int[0][2], targetMapPoint, analysis);
         }
 
-        Mat pathfindingMap = cachedPathfindingMap(config);
-        int[][] path;
-        try {
-            path = new PathPlanner(pathfindingMap, currentMapPoint, targetMapPoint, config.obstacleThreshold()).findPath();
-        } finally {
-            pathfindingMap.release();
+        String unreachable = unreachableReason(config, currentMapPoint, targetMapPoint);
+        if (unreachable != null) {
+            return new PathPlanResult(false, unreachable, new int[0][2], null, null);
         }
+        int[][] path = findMapPath(config, currentMapPoint, targetMapPoint);
         if (path.length == 0) {
-            return new PathPlanResult(false, "路径规划失败，起点和终点之间没有可用通路。", new int[0][2], null, null);
+            return new PathPlanResult(false, emptyPathMessage(config), new int[0][2], null, null);
         }
         drawPath(mapPreview, path);
         Point nextMapPoint = chooseNextMapPoint(
@@ -671,7 +918,7 @@ public final class OpenCvNavigationAnalyzer {
                 null,
                 null,
                 null,
-                ImageProcessor.matToBufferedImage(mapPreview),
+                mapPreview.render(),
                 null,
                 null,
                 currentMapPoint,
@@ -990,34 +1237,392 @@ public final class OpenCvNavigationAnalyzer {
         return imageCache.computeIfAbsent(resourcePath, ImageProcessor::loadMapImage);
     }
 
-    private Mat cachedPathfindingMap(VisionConfig config) {
-        String key = PathfindingMapLoader.cacheKey(config);
-        Mat cached = pathfindingMapCache.get(key);
-        if (cached != null) {
-            return cached.clone();
+    /**
+     * The map image as tiles (see {@link TiledMapStore}); previews decode only the tiles they show.
+     */
+    private TiledMapStore cachedTiledMap(VisionConfig config) {
+        return tiledMapCache.computeIfAbsent(config.mapImage(), TiledMapStore::load);
+    }
+
+    private MapArtifactCache.MapArtifacts cachedMapArtifacts(VisionConfig config) {
+        return mapArtifactsCache.computeIfAbsent(
+                MapArtifactCache.cacheKey(config),
+                key -> MapArtifactCache.loadOrBuild(config)
+        );
+    }
+
+    /**
+     * Bit-packed walkability of the pathfinding map, shared by the planners and the walkable snap.
+     */
+    private WalkabilityGrid cachedWalkability(VisionConfig config) {
+        return walkabilityCache.computeIfAbsent(
+                walkabilityKey(config),
+                ignored -> WalkabilityGrid.fromMat(
+                        cachedMapArtifacts(config).pathfindingMap(),
+                        config.obstacleThreshold()
+                )
+        );
+    }
+
+    /**
+     * Nearest walkable pixel of every map pixel, so the per-frame snap is a single lookup.
+     */
+    private NearestWalkableIndex cachedNearestWalkable(VisionConfig config) {
+        return nearestWalkableCache.computeIfAbsent(
+                walkabilityKey(config),
+                ignored -> NearestWalkableIndex.build(cachedWalkability(config))
+        );
+    }
+
+    /**
+     * Walkable connected components of the pathfinding map, for the O(1) reachability check before planning.
+     */
+    private WalkableComponents cachedComponents(VisionConfig config) {
+        return componentsCache.computeIfAbsent(
+                walkabilityKey(config),
+                ignored -> WalkableComponents.build(cachedWalkability(config))
+        );
+    }
+
+    /**
+     * Explains why no path can exist between {@code start} and {@code end}, or returns {@code null} if they lie
+     * in the same walkable component and a search is worth running.
+     */
+    private String unreachableReason(VisionConfig config, Point start, Point end) {
+        WalkableComponents components = cachedComponents(config);
+        int startLabel = components.label((int) start.x, (int) start.y);
+        int endLabel = components.label((int) end.x, (int) end.y);
+        if (startLabel == 0) {
+            return "路径规划失败，当前位置 " + pointText(start) + " 不在可走区域内。";
+        }
+        if (endLabel == 0) {
+            return "路径规划失败，目标点 " + pointText(end) + " 不在可走区域内。";
+        }
+        if (startLabel != endLabel) {
+            return "路径规划失败，当前位置被困在连通区域 #" + startLabel
+                    + "（" + components.size(startLabel) + " px），目标点位于连通区域 #" + endLabel
+                    + "（" + components.size(endLabel) + " px），两者之间没有通路。";
+        }
+        return null;
+    }
+
+    /**
+     * Folds the explored part of a localized patch into the exploration frontier, if exploration is on. The
+     * patch is placed 1:1 with its arrow on the accepted map point, as the match area is drawn on the map.
+     */
+    private void revealExplored(VisionConfig config, Mat miniMap, Rect matchRect, Point arrowCenter, Point mapPoint) {
+        ExplorationFrontier frontier = explorationCache.get(planningGridKey(config));
+        if (frontier == null || mapPoint == null) {
+            return;
+        }
+        Point arrowInPatch = arrowInMatchArea(arrowCenter, matchRect);
+        frontier.reveal(
+                (int) Math.round(mapPoint.x - arrowInPatch.x),
+                (int) Math.round(mapPoint.y - arrowInPatch.y),
+                MapAlignmentPreprocessor.exploredMask(new Mat(miniMap, matchRect))
+        );
+    }
+
+    /**
+     * Start and target are known to be connected here, so an empty anytime result only means the search is
+     * still running.
+     */
+    private static String emptyPathMessage(VisionConfig config) {
+        if (config.navigation().planner() == PlannerMode.ANYTIME) {
+            return "路径规划未在 " + config.navigation().planningBudgetMs() + " ms 预算内完成，下一帧继续搜索。";
+        }
+        return "路径规划失败，起点和终点之间没有可用通路。";
+    }
+
+    private static String walkabilityKey(VisionConfig config) {
+        return PathfindingMapLoader.cacheKey(config) + "|t=" + config.obstacleThreshold();
+    }
+
+    private int[][] findMapPath(VisionConfig config, Point start, Point end) {
+        PlannerMode mode = config.navigation().planner();
+        if (mode == PlannerMode.LEGACY) {
+            return new PathPlanner(cachedWalkability(config), start, end).findPath();
+        }
+        if (hasLiveDynamicObstacles(config)) {
+            GridPathfinder repaired = mode == PlannerMode.DSTAR_LITE
+                    ? sessionPlanner(config, mode)
+                    : detourPlanner(config);
+            return new PathPlanner(repaired, start, end, config.navigation().smoothPath()).findPath();
+        }
+        ExplorationRoute explorationRoute = explorationRouteCache.get(planningGridKey(config));
+        if (explorationRoute != null
+                && explorationRoute.leadsTo((int) end.x, (int) end.y)
+                && explorationRoute.covers((int) Math.round(start.x), (int) Math.round(start.y))) {
+            return new PathPlanner(explorationRoute, start, end, config.navigation().smoothPath()).findPath();
+        }
+        FlowField tourLeg = tourFieldCache.get(flowFieldKey(config, (int) end.x, (int) end.y));
+        if (tourLeg != null) {
+            return new PathPlanner(tourLeg, start, end, config.navigation().smoothPath()).findPath();
+        }
+        GridPathfinder planner = switch (mode) {
+            case JPS -> cachedJumpPointPlanner(config);
+            case DSTAR_LITE, ANYTIME -> sessionPlanner(config, mode);
+            case FLOW_FIELD -> cachedFlowField(config, end);
+            case HPA -> cachedHierarchicalPlanner(config);
+            case PYRAMID -> cachedPyramidPlanner(config);
+            default -> cachedPlanningGrid(config);
+        };
+        return new PathPlanner(planner, start, end, config.navigation().smoothPath()).findPath();
+    }
+
+    /**
+     * Planning grid of {@code config}'s map, for callers that run their own searches over it.
+     */
+    GridAStarPlanner planningGrid(VisionConfig config) {
+        return cachedPlanningGrid(config);
+    }
+
+    static String planningGridKey(VisionConfig config) {
+        return MapArtifactCache.cacheKey(config)
+                + "|t=" + config.obstacleThreshold()
+                + "|o=" + config.navigation().obstacleCost();
+    }
+
+    /**
+     * Blocked cells plus the obstacle cost field of the pathfinding map, built once per map and cost settings.
+     */
+    private GridAStarPlanner cachedPlanningGrid(VisionConfig config) {
+        return planningGridCache.computeIfAbsent(
+                planningGridKey(config),
+                ignored -> GridAStarPlanner.fromWalkability(
+                        cachedWalkability(config),
+                        config.navigation().obstacleCost()
+                )
+        );
+    }
+
+    private LargeMapFeatureIndex cachedFeatureIndex(VisionConfig config) {
+        return cachedMapArtifacts(config).featureIndex();
+    }
+
+    /**
+     * JPS+ jump distances over the cached planning grid, precomputed once per map and cost settings.
+     */
+    private JumpPointPlanner cachedJumpPointPlanner(VisionConfig config) {
+        return jumpPointPlannerCache.computeIfAbsent(
+                planningGridKey(config),
+                ignored -> JumpPointPlanner.fromGrid(cachedPlanningGrid(config))
+        );
+    }
+
+    /**
+     * HPA* cluster entrances and intra-cluster distances, precomputed once per map and cost settings.
+     */
+    private HierarchicalPlanner cachedHierarchicalPlanner(VisionConfig config) {
+        return hierarchicalPlannerCache.computeIfAbsent(
+                planningGridKey(config),
+                ignored -> HierarchicalPlanner.fromGrid(cachedPlanningGrid(config))
+        );
+    }
+
+    /**
+     * Max-pooled 1/4 and 1/2 scale levels of the planning grid, built once per map and cost settings.
+     */
+    private PyramidPlanner cachedPyramidPlanner(VisionConfig config) {
+        return pyramidPlannerCache.computeIfAbsent(
+                planningGridKey(config),
+                ignored -> PyramidPlanner.fromGrid(cachedPlanningGrid(config))
+        );
+    }
+
+    /**
+     * Direction raster towards {@code target}, computed once per map, cost settings and target cell. The target
+     * is fixed for a run, so every later tick (including after a localization jump) just follows the field.
+     */
+    private FlowField cachedFlowField(VisionConfig config, Point target) {
+        int targetX = (int) target.x;
+        int targetY = (int) target.y;
+        String key = flowFieldKey(config, targetX, targetY);
+        if (!flowFieldCache.containsKey(key) && flowFieldCache.size() >= MAX_FLOW_FIELDS) {
+            flowFieldCache.clear();
         }
-        Mat built = PathfindingMapLoader.build(config);
-        pathfindingMapCache.put(key, built);
-        return built.clone();
+        return flowFieldCache.computeIfAbsent(
+                key,
+                ignored -> FlowField.build(cachedPlanningGrid(config), targetX, targetY)
+        );
+    }
+
+    private static String flowFieldKey(VisionConfig config, int targetX, int targetY) {
+        return planningGridKey(config) + "|target=" + targetX + "," + targetY;
+    }
+
+    /**
+     * Orders a multi-target run from {@code start} (see {@link TargetTour}) and keeps each leg's flow field,
+     * so while the run follows the tour every tick, in any planner mode, reads its path off the current leg's
+     * field. Replaces the fields of the previous tour; at most {@link #MAX_TOUR_TARGETS} targets.
+     */
+    public TargetTour planTour(VisionConfig config, Point start, List<PointConfig> targets) {
+        if (targets.size() > MAX_TOUR_TARGETS) {
+            throw new IllegalArgumentException(
+                    "巡游目标最多 " + MAX_TOUR_TARGETS + " 个，当前 " + targets.size() + " 个。");
+        }
+        int[][] cells = new int[targets.size()][];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new int[] {targets.get(i).x(), targets.get(i).y()};
+        }
+        clearTour();
+        TargetTour tour = TargetTour.plan(cachedPlanningGrid(config), (int) start.x, (int) start.y, cells);
+        for (int leg = 0; leg < tour.legCount(); leg++) {
+            int[] target = tour.legTarget(leg);
+            tourFieldCache.put(flowFieldKey(config, target[0], target[1]), tour.legField(leg));
+        }
+        return tour;
+    }
+
+    /**
+     * Incremental planner state (D* Lite or ARA*) for the current navigation session. Each tick resumes the
+     * previous search for the new start instead of planning from scratch; a different map, cost setting,
+     * planner or budget starts a fresh planner. A D* Lite planner also follows the dynamic obstacle overlay,
+     * repairing only the rectangles it reports as changed.
+     */
+    private GridPathfinder sessionPlanner(VisionConfig config, PlannerMode mode) {
+        String key = planningGridKey(config) + "|p=" + mode + "|b=" + config.navigation().planningBudgetMs();
+        synchronized (sessionPlannerLock) {
+            if (sessionPlanner == null || !key.equals(sessionPlannerKey)) {
+                dropSessionPlanner();
+                GridAStarPlanner grid = cachedPlanningGrid(config);
+                sessionPlanner = mode == PlannerMode.ANYTIME
+                        ? AnytimePlanner.fromGrid(grid, config.navigation().planningBudgetMs())
+                        : DStarLitePlanner.fromGrid(grid);
+                sessionPlannerKey = key;
+                bindSessionPlannerToOverlay(config);
+            }
+            return sessionPlanner;
+        }
+    }
+
+    /**
+     * D* Lite planner that routes around live dynamic obstacles while the configured planner is not D* Lite.
+     * It is kept beside the session planner, so an ARA* session keeps its progress while stamps come and go.
+     */
+    private DStarLitePlanner detourPlanner(VisionConfig config) {
+        String key = planningGridKey(config);
+        synchronized (sessionPlannerLock) {
+            if (detourPlanner == null || !key.equals(detourPlannerKey)) {
+                dropDetourPlanner();
+                detourPlanner = DStarLitePlanner.fromGrid(cachedPlanningGrid(config));
+                detourPlannerKey = key;
+                detourOverlayListener = bindToOverlay(config, detourPlanner);
+            }
+            return detourPlanner;
+        }
+    }
+
+    private void dropDetourPlanner() {
+        synchronized (sessionPlannerLock) {
+            if (detourOverlayListener != null && dynamicObstacles != null) {
+                dynamicObstacles.removeListener(detourOverlayListener);
+            }
+            detourOverlayListener = null;
+            detourPlanner = null;
+            detourPlannerKey = null;
+        }
+    }
+
+    private void dropSessionPlanner() {
+        synchronized (sessionPlannerLock) {
+            if (sessionOverlayListener != null && dynamicObstacles != null) {
+                dynamicObstacles.removeListener(sessionOverlayListener);
+            }
+            sessionOverlayListener = null;
+            sessionPlanner = null;
+            sessionPlannerKey = null;
+        }
+    }
+
+    /**
+     * Temporary obstacles over the pathfinding map, kept per map and cost settings across navigation sessions
+     * (stamps expire on their own).
+     */
+    private DynamicObstacleOverlay dynamicObstacles(VisionConfig config) {
+        String key = planningGridKey(config);
+        synchronized (sessionPlannerLock) {
+            if (dynamicObstacles == null || !key.equals(dynamicObstaclesKey)) {
+                GridAStarPlanner grid = cachedPlanningGrid(config);
+                if (dynamicObstacles != null) {
+                    if (sessionOverlayListener != null) {
+                        dynamicObstacles.removeListener(sessionOverlayListener);
+                    }
+                    if (detourOverlayListener != null) {
+                        dynamicObstacles.removeListener(detourOverlayListener);
+                    }
+                }
+                sessionOverlayListener = null;
+                detourOverlayListener = null;
+                dynamicObstacles = new DynamicObstacleOverlay(grid.cols(), grid.rows());
+                dynamicObstaclesKey = key;
+                if (sessionPlannerKey != null && sessionPlannerKey.startsWith(key + "|p=")) {
+                    bindSessionPlannerToOverlay(config);
+                }
+                if (key.equals(detourPlannerKey)) {
+                    detourOverlayListener = bindToOverlay(config, detourPlanner);
+                }
+            }
+            return dynamicObstacles;
+        }
+    }
+
+    /**
+     * Lifts expired stamps (their rectangles are repaired in a bound planner) and reports whether any remain.
+     */
+    private boolean hasLiveDynamicObstacles(VisionConfig config) {
+        DynamicObstacleOverlay overlay;
+        synchronized (sessionPlannerLock) {
+            if (dynamicObstacles == null || !planningGridKey(config).equals(dynamicObstaclesKey)) {
+                return false;
+            }
+            overlay = dynamicObstacles;
+        }
+        overlay.expire(System.currentTimeMillis());
+        return overlay.activeStamps() > 0;
+    }
+
+    private void bindSessionPlannerToOverlay(VisionConfig config) {
+        if (sessionPlanner instanceof DStarLitePlanner planner) {
+            sessionOverlayListener = bindToOverlay(config, planner);
+        }
+    }
+
+    /**
+     * Subscribes {@code planner} to the current overlay of {@code config}'s map and replays the live stamps.
+     *
+     * @return the listener, or {@code null} if the map has no overlay yet
+     */
+    private DynamicObstacleOverlay.DirtyRegionListener bindToOverlay(VisionConfig config, DStarLitePlanner planner) {
+        if (dynamicObstacles == null || !planningGridKey(config).equals(dynamicObstaclesKey)) {
+            return null;
+        }
+        GridAStarPlanner grid = cachedPlanningGrid(config);
+        DynamicObstacleOverlay overlay = dynamicObstacles;
+        DynamicObstacleOverlay.DirtyRegionListener listener =
+                (x, y, width, height) -> planner.updateRegion(grid, overlay, x, y, width, height);
+        overlay.addListener(listener);
+        overlay.replay(listener);
+        return listener;
     }
 
     private MapMatchResult locateOnLargeMap(
             VisionConfig config,
-            Mat largeMap,
+            LargeMapFeatureIndex largeMapIndex,
             Mat matchArea,
             Point arrowInMatchArea,
             MapPreprocessConfig preprocess,
             Point priorHint
     ) {
-        MapMatchResult raw = MapMatcher.forLocalizationWithDebug(
-                largeMap,
+        MapMatchResult raw = MapMatcher.forFeatureLocalization(
+                largeMapIndex,
                 matchArea,
                 preprocess,
                 arrowInMatchArea,
-                arrowInMatchArea,
-                priorHint,
-                localizationSearchRadius(config)
-        ).result();
+                searchRadius(config),
+                config.navigation().parallelLocalization(),
+                config.navigation().templateLocalization()
+        ).locate(arrowInMatchArea, priorHint);
         return snapToWalkable(config, raw);
     }
 
@@ -1025,22 +1630,20 @@ public final class OpenCvNavigationAnalyzer {
         if (!raw.found() || raw.mapPoint() == null) {
             return raw;
         }
-        Mat pathfindingMap = cachedPathfindingMap(config);
-        try {
-            int snapRadius = Math.max(12, config.moveStep() / 3);
-            Point snapped = LocalizationRefiner.snapToWalkable(
-                    pathfindingMap,
-                    raw.mapPoint(),
-                    config.obstacleThreshold(),
-                    snapRadius
-            );
-            if (snapped.equals(raw.mapPoint())) {
-                return raw;
-            }
-            return new MapMatchResult(snapped, raw.confidence() * 0.98, raw.method());
-        } finally {
-            pathfindingMap.release();
+        int snapRadius = Math.max(12, config.moveStep() / 3);
+        Point snapped = LocalizationRefiner.snapToWalkable(cachedNearestWalkable(config), raw.mapPoint(), snapRadius);
+        if (snapped.equals(raw.mapPoint())) {
+            return raw;
         }
+        return new MapMatchResult(snapped, raw.confidence() * 0.98, raw.method());
+    }
+
+    private int searchRadius(VisionConfig config) {
+        return localizationSmoother.searchRadius(
+                config.navigation(),
+                config.moveStep(),
+                localizationSearchRadius(config)
+        );
     }
 
     private static int localizationSearchRadius(VisionConfig config) {
@@ -1109,7 +1712,7 @@ public final class OpenCvNavigationAnalyzer {
         return new Rect(x, y, Math.max(1, cropWidth), Math.max(1, cropHeight));
     }
 
-    private static void drawLocalizationOnMap(Mat mapPreview, LocalizationResult localization, Rect matchRect) {
+    private static void drawLocalizationOnMap(MapPreview mapPreview, LocalizationResult localization, Rect matchRect) {
         if (localization == null || localization.acceptedPoint() == null) {
             return;
         }
@@ -1125,37 +1728,33 @@ public final class OpenCvNavigationAnalyzer {
         drawMatchArea(mapPreview, acceptedPoint, matchRect.width, matchRect.height);
     }
 
-    private static void drawLocalizationCorrection(Mat mapPreview, Point rawPoint, Point acceptedPoint) {
-        Imgproc.line(mapPreview, rawPoint, acceptedPoint, new Scalar(0, 0, 255), 2);
-        Imgproc.putText(
-                mapPreview,
-                "rejected",
-                new Point(rawPoint.x + 6, rawPoint.y - 6),
-                Imgproc.FONT_HERSHEY_SIMPLEX,
-                0.45,
-                new Scalar(0, 0, 255),
-                1
-        );
+    private static void drawLocalizationCorrection(MapPreview mapPreview, Point rawPoint, Point acceptedPoint) {
+        mapPreview.line(rawPoint, acceptedPoint, new Scalar(0, 0, 255), 2);
+        mapPreview.text("rejected", new Point(rawPoint.x + 6, rawPoint.y - 6), new Scalar(0, 0, 255));
     }
 
-    private static void drawPath(Mat mapPreview, int[][] path) {
+    private static void drawPath(MapPreview mapPreview, int[][] path) {
         for (int i = 1; i < path.length; i++) {
             Point start = new Point(path[i - 1][0], path[i - 1][1]);
             Point end = new Point(path[i][0], path[i][1]);
-            Imgproc.line(mapPreview, start, end, new Scalar(0, 255, 0), 1);
+            mapPreview.line(start, end, new Scalar(0, 255, 0), 1);
         }
     }
 
-    private static void drawMapPoint(Mat mapPreview, Point point, Scalar color, int radius) {
+    private static void drawMapPoint(MapPreview mapPreview, Point point, Scalar color, int radius) {
+        mapPreview.point(point, color, radius);
+    }
+
+    private static void drawMapPoint(Mat preview, Point point, Scalar color, int radius) {
         if (point != null) {
-            Imgproc.circle(mapPreview, point, radius, color, -1);
+            Imgproc.circle(preview, point, radius, color, -1);
         }
     }
 
-    private static void drawMatchArea(Mat mapPreview, Point center, int width, int height) {
+    private static void drawMatchArea(MapPreview mapPreview, Point center, int width, int height) {
         Point topLeft = new Point(center.x - width / 2.0, center.y - height / 2.0);
         Point bottomRight = new Point(topLeft.x + width, topLeft.y + height);
-        Imgproc.rectangle(mapPreview, topLeft, bottomRight, new Scalar(255, 255, 0), 2);
+        mapPreview.rectangle(topLeft, bottomRight, new Scalar(255, 255, 0), 2);
     }
 
     private static BufferedImage buildClickPreview(
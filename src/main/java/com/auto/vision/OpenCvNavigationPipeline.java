@@ -1,6 +1,9 @@
 package com.auto.vision;
 
 import com.auto.config.VisionConfig;
+import com.auto.detection.DetectedObject;
+import com.auto.detection.ObjectDetectionService;
+import com.auto.detection.OnnxYoloDetectionService;
 import com.auto.window.WindowCaptureFrames;
 import com.auto.window.WindowRef;
 import com.auto.window.WindowService;
@@ -8,19 +11,30 @@ import org.opencv.core.Point;
 
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.List;
 import java.util.Optional;
 
 public final class OpenCvNavigationPipeline implements NavigationPipeline, NavigationTickClient {
     private final WindowService windowService;
     private final OpenCvNavigationAnalyzer analyzer;
+    private final ObjectDetectionService detectionService;
 
     public OpenCvNavigationPipeline(WindowService windowService) {
         this(windowService, new OpenCvNavigationAnalyzer());
     }
 
     OpenCvNavigationPipeline(WindowService windowService, OpenCvNavigationAnalyzer analyzer) {
+        this(windowService, analyzer, new OnnxYoloDetectionService());
+    }
+
+    OpenCvNavigationPipeline(
+            WindowService windowService,
+            OpenCvNavigationAnalyzer analyzer,
+            ObjectDetectionService detectionService
+    ) {
         this.windowService = windowService;
         this.analyzer = analyzer;
+        this.detectionService = detectionService;
     }
 
   public OpenCvNavigationAnalyzer analyzer() {
@@ -30,6 +44,7 @@ public final class OpenCvNavigationPipeline implements NavigationPipeline, Navig
     @Override
     public Optional<NavigationStep> planNext(VisionConfig config, WindowRef window, int waypointIndex) {
         WindowCaptureFrames frames = captureWindow(window);
+        markDetectedObstacles(config, frames.image());
         NavigationAnalysis analysis = analyzer.analyzeWindowCapture(
                 config,
                 frames.image(),
@@ -47,6 +62,7 @@ public final class OpenCvNavigationPipeline implements NavigationPipeline, Navig
     @Override
     public Optional<NavigationAnalysis> analyzeNext(VisionConfig config, WindowRef window, int waypointIndex) {
         WindowCaptureFrames frames = captureWindow(window);
+        markDetectedObstacles(config, frames.image());
         NavigationAnalysis analysis = analyzer.analyzeWindowCapture(
                 config,
                 frames.image(),
@@ -61,6 +77,29 @@ public final class OpenCvNavigationPipeline implements NavigationPipeline, Navig
         return Optional.of(analysis);
     }
 
+    /**
+     * With {@code navigation.detectedObstacleTtlMs} set, runs YOLO on the captured frame and blocks the map
+     * under each detection of {@code navigation.detectedObstacleClasses} (all classes when empty) for that long.
+     */
+    int markDetectedObstacles(VisionConfig config, BufferedImage frame) {
+        int ttlMs = config.navigation().detectedObstacleTtlMs();
+        if (ttlMs <= 0 || !config.yolo().enabled() || frame == null) {
+            return 0;
+        }
+        List<DetectedObject> detections;
+        try {
+            detections = detectionService.detect(config.yolo(), frame);
+        } catch (RuntimeException e) {
+            System.out.println("YOLO 运行失败: " + e.getMessage());
+            return 0;
+        }
+        List<String> classes = config.navigation().detectedObstacleClasses();
+        List<DetectedObject> obstacles = classes.isEmpty()
+                ? detections
+                : detections.stream().filter(detection -> classes.contains(detection.label())).toList();
+        return obstacles.isEmpty() ? 0 : analyzer.markDetectedObstacles(config, obstacles, ttlMs);
+    }
+
     private WindowCaptureFrames captureWindow(WindowRef window) {
         return WindowCaptureFrames.capture(windowService, window);
     }
@@ -1,6 +1,7 @@
 package com.auto.vision;
 
 import com.auto.config.MapClosureConfig;
+import com.auto.opencv.process.WalkabilityGrid;
 import com.auto.opencv.utils.ImageProcessor;
 import org.opencv.core.Mat;
 import org.opencv.imgproc.Imgproc;
@@ -78,13 +79,14 @@ public final class PathfindingMapClosureAnalyzer {
     int rows = gray.rows();
     int cols = gray.cols();
     double threshold = config.walkableThreshold();
-    boolean[][] walkable = buildWalkable(gray, threshold);
-    int walkableBefore = countTrue(walkable);
+    WalkabilityGrid walkableGrid = WalkabilityGrid.fromMat(gray, threshold);
+    int walkableBefore = walkableGrid.countWalkable();
 
     if (walkableBefore <= 0) {
       return failure("未检测到可走区域（全白或阈值过高）。");
     }
 
+    boolean[][] walkable = walkableGrid.toWalkableRows();
     boolean borderWalkable = hasBorderWalkable(walkable, rows, cols);
     boolean[][] exteriorWalkable = null;
     PathfindingMapClosureFloodTrace trace;
@@ -301,18 +303,6 @@ public final class PathfindingMapClosureAnalyzer {
     return gray;
   }
 
-  private static boolean[][] buildWalkable(Mat map, double walkableThreshold) {
-    int rows = map.rows();
-    int cols = map.cols();
-    boolean[][] walkable = new boolean[rows][cols];
-    for (int y = 0; y < rows; y++) {
-      for (int x = 0; x < cols; x++) {
-        walkable[y][x] = map.get(y, x)[0] <= walkableThreshold;
-      }
-    }
-    return walkable;
-  }
-
   private static boolean[][] walkableMask(boolean[][] walkable) {
     boolean[][] copy = new boolean[walkable.length][walkable[0].length];
     for (int y = 0; y < walkable.length; y++) {
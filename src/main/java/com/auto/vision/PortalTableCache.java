@@ -0,0 +1,99 @@
+package com.auto.vision;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * On-disk copy of a zone's portal-to-portal path cost table ({@code <map>.<key>.aaportals}), laid out like a
+ * {@link MapArtifactCache} file: magic, format version, key, then the {@code n * n} costs row by row.
+ */
+final class PortalTableCache {
+    static final int MAGIC = 0x41415054;
+    static final int FORMAT_VERSION = 1;
+    static final String FILE_EXTENSION = ".aaportals";
+
+    private PortalTableCache() {
+    }
+
+    /**
+     * Returns the {@code size * size} table stored in {@code file}, or {@code null} if it is missing, was
+     * written by another format version, or belongs to a different map, config or portal set.
+     */
+    static double[][] read(Path file, String tableKey, int size) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] storedKey = new byte[in.readInt()];
+            in.readFully(storedKey);
+            if (!tableKey.equals(new String(storedKey, StandardCharsets.UTF_8)) || in.readInt() != size) {
+                return null;
+            }
+            double[][] table = new double[size][size];
+            for (double[] row : table) {
+                for (int j = 0; j < size; j++) {
+                    row[j] = in.readDouble();
+                }
+            }
+            return table;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code table} atomically (temp file + move); returns {@code false} if the directory is not writable.
+     */
+    static boolean write(Path file, String tableKey, double[][] table) {
+        if (file == null) {
+            return false;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), "auto-action-portals-", ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                byte[] key = tableKey.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(table.length);
+                for (double[] row : table) {
+                    for (double cost : row) {
+                        out.writeDouble(cost);
+                    }
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+            return false;
+        }
+    }
+}
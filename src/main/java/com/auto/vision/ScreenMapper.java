@@ -13,10 +13,15 @@ import java.util.List;
 public final class ScreenMapper {
     private final boolean enabled;
     private final Mat affineTransform;
+    private final Mat inverseTransform;
 
     public ScreenMapper(ScreenCalibrationConfig calibration) {
         this.enabled = calibration.enabled() && calibration.points().size() >= 3;
         this.affineTransform = enabled ? buildTransform(calibration.points()) : null;
+        this.inverseTransform = enabled ? new Mat() : null;
+        if (enabled) {
+            Imgproc.invertAffineTransform(affineTransform, inverseTransform);
+        }
     }
 
     public boolean enabled() {
@@ -41,6 +46,23 @@ public final class ScreenMapper {
         return mapToScreen(new Point(mapX, mapY));
     }
 
+    /**
+     * Inverse of {@link #mapToScreen}: the map point shown at a screen (source image) point.
+     */
+    public Point screenToMap(Point screenPoint) {
+        if (!enabled || screenPoint == null) {
+            return null;
+        }
+        MatOfPoint2f src = new MatOfPoint2f(screenPoint);
+        MatOfPoint2f dst = new MatOfPoint2f();
+        Core.transform(src, dst, inverseTransform);
+        Point[] points = dst.toArray();
+        if (points.length == 0) {
+            return null;
+        }
+        return points[0];
+    }
+
     public static Point fallbackScreenPoint(
             Point currentMapPoint,
             Point nextMapPoint,
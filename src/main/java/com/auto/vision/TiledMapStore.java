@@ -0,0 +1,215 @@
+package com.auto.vision;
+
+import com.auto.opencv.utils.ImageProcessor;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map image split into fixed-size tiles at several zoom levels (level {@code l} is downscaled by
+ * {@code 2^l}; the top level fits in one tile).
+ * <p>
+ * The image is decoded once while the store is built; afterwards tiles are kept PNG-encoded on the heap and
+ * only the most recently used ones stay decoded, so native memory is bounded by the tile budget rather than
+ * the map size. {@link #region} composes just the tiles a rectangle overlaps.
+ */
+public final class TiledMapStore {
+    public static final int DEFAULT_TILE_SIZE = 512;
+    public static final int DEFAULT_MAX_DECODED_TILES = 48;
+
+    private final int cols;
+    private final int rows;
+    private final int type;
+    private final int tileSize;
+    private final int[] levelCols;
+    private final int[] levelRows;
+    private final byte[][][] encodedTiles;
+    private final Map<Long, Mat> decodedTiles;
+
+    private TiledMapStore(Mat map, int tileSize, int maxDecodedTiles) {
+        this.cols = map.cols();
+        this.rows = map.rows();
+        this.type = map.type();
+        this.tileSize = tileSize;
+        int levels = 1;
+        while (Math.max(cols, rows) > (tileSize << (levels - 1))) {
+            levels++;
+        }
+        this.levelCols = new int[levels];
+        this.levelRows = new int[levels];
+        this.encodedTiles = new byte[levels][][];
+        Mat level = map;
+        for (int l = 0; l < levels; l++) {
+            if (l > 0) {
+                Mat next = new Mat();
+                Imgproc.resize(level, next, new Size((level.cols() + 1) / 2, (level.rows() + 1) / 2), 0, 0, Imgproc.INTER_AREA);
+                if (level != map) {
+                    level.release();
+                }
+                level = next;
+            }
+            levelCols[l] = level.cols();
+            levelRows[l] = level.rows();
+            encodedTiles[l] = encodeTiles(level);
+        }
+        if (level != map) {
+            level.release();
+        }
+        this.decodedTiles = new LinkedHashMap<>(maxDecodedTiles, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Mat> eldest) {
+                if (size() > maxDecodedTiles) {
+                    eldest.getValue().release();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static TiledMapStore load(String mapImage) {
+        Mat map = ImageProcessor.loadMapImage(mapImage);
+        try {
+            return fromMat(map, DEFAULT_TILE_SIZE, DEFAULT_MAX_DECODED_TILES);
+        } finally {
+            map.release();
+        }
+    }
+
+    /**
+     * Tiles {@code map}; the caller keeps ownership of it.
+     */
+    public static TiledMapStore fromMat(Mat map, int tileSize, int maxDecodedTiles) {
+        if (map.empty()) {
+            throw new IllegalArgumentException("map image is empty");
+        }
+        if (tileSize <= 0 || maxDecodedTiles <= 0) {
+            throw new IllegalArgumentException("tile size and tile budget must be positive");
+        }
+        return new TiledMapStore(map, tileSize, maxDecodedTiles);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int levels() {
+        return levelCols.length;
+    }
+
+    /**
+     * Finest level at which a {@code width x height} map rectangle is at most {@code maxSide} pixels on its
+     * longer side.
+     */
+    public int levelFor(int width, int height, int maxSide) {
+        int level = 0;
+        while (level < levels() - 1 && Math.max(width, height) > ((long) maxSide << level)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Copy of {@code mapRect} (map pixels, clipped to the map) at {@code level}, composed from the tiles it
+     * overlaps. The caller owns the returned {@link Mat}.
+     */
+    public synchronized Mat region(Rect mapRect, int level) {
+        int x0 = Math.max(0, Math.min(cols, mapRect.x)) >> level;
+        int y0 = Math.max(0, Math.min(rows, mapRect.y)) >> level;
+        int x1 = Math.min(levelCols[level], ceilShift(Math.max(0, Math.min(cols, mapRect.x + mapRect.width)), level));
+        int y1 = Math.min(levelRows[level], ceilShift(Math.max(0, Math.min(rows, mapRect.y + mapRect.height)), level));
+        Mat region = new Mat(Math.max(1, y1 - y0), Math.max(1, x1 - x0), type, Scalar.all(0));
+        if (x1 <= x0 || y1 <= y0) {
+            return region;
+        }
+        int tilesPerRow = tilesAcross(levelCols[level]);
+        for (int ty = y0 / tileSize; ty <= (y1 - 1) / tileSize; ty++) {
+            for (int tx = x0 / tileSize; tx <= (x1 - 1) / tileSize; tx++) {
+                Mat tile = decodedTile(level, ty * tilesPerRow + tx);
+                int left = Math.max(x0, tx * tileSize);
+                int top = Math.max(y0, ty * tileSize);
+                int right = Math.min(x1, tx * tileSize + tile.cols());
+                int bottom = Math.min(y1, ty * tileSize + tile.rows());
+                Rect source = new Rect(left - tx * tileSize, top - ty * tileSize, right - left, bottom - top);
+                Rect target = new Rect(left - x0, top - y0, right - left, bottom - top);
+                Mat from = tile.submat(source);
+                Mat to = region.submat(target);
+                from.copyTo(to);
+                from.release();
+                to.release();
+            }
+        }
+        return region;
+    }
+
+    /**
+     * The whole map at the finest level that fits in {@code maxSide}. The caller owns the returned {@link Mat}.
+     */
+    public Mat overview(int maxSide) {
+        return region(new Rect(0, 0, cols, rows), levelFor(cols, rows, maxSide));
+    }
+
+    public synchronized int decodedTileCount() {
+        return decodedTiles.size();
+    }
+
+    /**
+     * Frees every decoded tile; later reads decode them again.
+     */
+    public synchronized void release() {
+        decodedTiles.values().forEach(Mat::release);
+        decodedTiles.clear();
+    }
+
+    private Mat decodedTile(int level, int index) {
+        long key = ((long) level << 32) | index;
+        Mat tile = decodedTiles.get(key);
+        if (tile == null) {
+            MatOfByte encoded = new MatOfByte(encodedTiles[level][index]);
+            tile = Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_UNCHANGED);
+            encoded.release();
+            decodedTiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    private byte[][] encodeTiles(Mat level) {
+        int across = tilesAcross(level.cols());
+        int down = tilesAcross(level.rows());
+        byte[][] tiles = new byte[across * down][];
+        MatOfByte buffer = new MatOfByte();
+        for (int ty = 0; ty < down; ty++) {
+            for (int tx = 0; tx < across; tx++) {
+                int x = tx * tileSize;
+                int y = ty * tileSize;
+                Mat tile = level.submat(new Rect(x, y, Math.min(tileSize, level.cols() - x), Math.min(tileSize, level.rows() - y)));
+                if (!Imgcodecs.imencode(".png", tile, buffer)) {
+                    throw new IllegalStateException("failed to encode map tile");
+                }
+                tiles[ty * across + tx] = buffer.toArray();
+                tile.release();
+            }
+        }
+        buffer.release();
+        return tiles;
+    }
+
+    private int tilesAcross(int pixels) {
+        return (pixels + tileSize - 1) / tileSize;
+    }
+
+    private static int ceilShift(int value, int level) {
+        return (value + (1 << level) - 1) >> level;
+    }
+}
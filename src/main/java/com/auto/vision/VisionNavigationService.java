@@ -1,12 +1,16 @@
 package com.auto.vision;
 
 import com.auto.config.ClickBackend;
+import com.auto.config.PointConfig;
 import com.auto.config.VisionConfig;
 import com.auto.input.InputController;
+import com.auto.opencv.process.TargetTour;
 import com.auto.window.WindowRef;
 import com.auto.window.WindowService;
 import org.opencv.core.Point;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -29,6 +33,7 @@ public final class VisionNavigationService implements AutoCloseable {
     private volatile ClickBackend clickBackend = ClickBackend.WIN32;
     private volatile Supplier<VisionConfig> configSupplier;
     private volatile boolean dryRun;
+    private volatile boolean exploring;
 
     public VisionNavigationService(
             WindowService windowService,
@@ -93,18 +98,108 @@ public final class VisionNavigationService implements AutoCloseable {
         if (!running.compareAndSet(false, true)) {
             return;
         }
-        this.configSupplier = configSupplier;
-        this.dryRun = dryRun;
-        VisionConfig initial = this.configSupplier.get();
-        controller = new NavigationController(initial.navigation());
+        VisionConfig initial = configSupplier.get();
         if (tickClient instanceof OpenCvNavigationPipeline openCvPipeline) {
-            openCvPipeline.analyzer().resetLocalizationState();
+            openCvPipeline.analyzer().resetNavigationSession();
         }
         System.out.println(
                 "Vision navigation started. dryRun=" + dryRun
                         + " window=" + initial.windowTitle()
                         + " target=(" + initial.target().x() + "," + initial.target().y() + ")"
         );
+        schedule(configSupplier, dryRun, new NavigationController(initial.navigation()), initial, false);
+    }
+
+    /**
+     * Visits several map targets in one run. The visiting order is planned once from {@code startMapPoint}
+     * over the pathfinding map (targets it cannot reach are dropped); each tick then navigates to the current
+     * leg's target, and arriving there moves on to the next leg without stopping. At most
+     * {@link OpenCvNavigationAnalyzer#MAX_TOUR_TARGETS} targets; the leg fields are dropped on {@link #stop()}.
+     */
+    public void startTour(
+            Supplier<VisionConfig> configSupplier,
+            Point startMapPoint,
+            List<PointConfig> targets,
+            boolean dryRun
+    ) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        VisionConfig initial;
+        List<PointConfig> legs;
+        try {
+            initial = configSupplier.get();
+            legs = orderTour(initial, startMapPoint, targets);
+        } catch (RuntimeException exception) {
+            running.set(false);
+            throw exception;
+        }
+        if (legs.isEmpty()) {
+            running.set(false);
+            System.out.println("Vision: no reachable target to visit");
+            return;
+        }
+        System.out.println(
+                "Vision tour started. dryRun=" + dryRun
+                        + " window=" + initial.windowTitle()
+                        + " targets=" + legs.stream().map(VisionNavigationService::pointText).toList()
+        );
+        schedule(configSupplier, dryRun, new NavigationController(initial.navigation(), legs), initial, false);
+    }
+
+    private List<PointConfig> orderTour(VisionConfig config, Point startMapPoint, List<PointConfig> targets) {
+        if (!(tickClient instanceof OpenCvNavigationPipeline openCvPipeline)) {
+            return List.copyOf(targets);
+        }
+        openCvPipeline.analyzer().resetNavigationSession();
+        TargetTour tour = openCvPipeline.analyzer().planTour(config, startMapPoint, targets);
+        for (int skipped : tour.skippedTargets()) {
+            System.out.println("Vision: skipping unreachable target " + pointText(targets.get(skipped)));
+        }
+        List<PointConfig> ordered = new ArrayList<>(tour.legCount());
+        for (int leg = 0; leg < tour.legCount(); leg++) {
+            ordered.add(targets.get(tour.targetIndex(leg)));
+        }
+        return ordered;
+    }
+
+    /**
+     * Walks to unexplored map regions until none is reachable. Each tick heads for the cheapest frontier
+     * (explored walkable cell next to fog) from the last localized position. Until the first localization
+     * there is no position to explore from, so those ticks only localize and never click.
+     */
+    public void startExploration(Supplier<VisionConfig> configSupplier, boolean dryRun) {
+        if (!(tickClient instanceof OpenCvNavigationPipeline openCvPipeline)) {
+            System.out.println("Vision: exploration needs the OpenCV navigation pipeline");
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        VisionConfig initial;
+        try {
+            initial = configSupplier.get();
+            openCvPipeline.analyzer().resetNavigationSession();
+            openCvPipeline.analyzer().beginExploration(initial);
+        } catch (RuntimeException exception) {
+            running.set(false);
+            throw exception;
+        }
+        System.out.println("Vision exploration started. dryRun=" + dryRun + " window=" + initial.windowTitle());
+        schedule(configSupplier, dryRun, new NavigationController(initial.navigation()), initial, true);
+    }
+
+    private void schedule(
+            Supplier<VisionConfig> configSupplier,
+            boolean dryRun,
+            NavigationController activeController,
+            VisionConfig initial,
+            boolean explore
+    ) {
+        this.exploring = explore;
+        this.configSupplier = configSupplier;
+        this.dryRun = dryRun;
+        controller = activeController;
         cancelScheduledTask();
         scheduledTask = executorService.scheduleWithFixedDelay(
                 this::runSafely,
@@ -120,6 +215,10 @@ public final class VisionNavigationService implements AutoCloseable {
         }
         cancelScheduledTask();
         controller = null;
+        exploring = false;
+        if (tickClient instanceof OpenCvNavigationPipeline openCvPipeline) {
+            openCvPipeline.analyzer().clearTour();
+        }
     }
 
     public boolean runOnceNow(VisionConfig config, boolean dryRun) {
@@ -137,10 +236,11 @@ public final class VisionNavigationService implements AutoCloseable {
     }
 
     boolean runOnce(Supplier<VisionConfig> configSupplier, boolean dryRun) {
-        VisionConfig config = configSupplier.get();
+        VisionConfig baseConfig = configSupplier.get();
         NavigationController activeController = controller != null
                 ? controller
-                : new NavigationController(config.navigation());
+                : new NavigationController(baseConfig.navigation());
+        VisionConfig config = legConfig(baseConfig, activeController);
         Optional<WindowRef> window = windowService.findWindow(config.windowTitle());
         if (window.isEmpty()) {
             System.out.println("Vision: window not found: " + config.windowTitle());
@@ -202,8 +302,19 @@ public final class VisionNavigationService implements AutoCloseable {
                 stop();
                 return;
             }
-            VisionConfig config = configSupplier.get();
-            boolean shouldStop = executeContinuousTick(config, dryRun, controller);
+            NavigationController activeController = controller;
+            VisionConfig config = legConfig(configSupplier.get(), activeController);
+            boolean awaitingFix = false;
+            if (exploring) {
+                awaitingFix = !hasLocalizationFix();
+                config = explorationConfig(config);
+                if (config == null) {
+                    System.out.println("Vision: exploration complete, no reachable unexplored region left");
+                    stop();
+                    return;
+                }
+            }
+            boolean shouldStop = executeContinuousTick(config, dryRun, activeController, awaitingFix);
             if (shouldStop) {
                 stop();
             }
@@ -217,7 +328,8 @@ public final class VisionNavigationService implements AutoCloseable {
     private boolean executeContinuousTick(
             VisionConfig config,
             boolean dryRun,
-            NavigationController activeController
+            NavigationController activeController,
+            boolean awaitingFix
     ) {
         Optional<WindowRef> window = windowService.findWindow(config.windowTitle());
         if (window.isEmpty()) {
@@ -236,6 +348,10 @@ public final class VisionNavigationService implements AutoCloseable {
         publishStatus(activeController, analysis, decision);
 
         if (decision.action() == NavigationAction.STOP_ARRIVED) {
+            if (exploring) {
+                activeController.reset();
+                return false;
+            }
             System.out.println("Vision: target reached — " + decision.message());
             return true;
         }
@@ -251,6 +367,10 @@ public final class VisionNavigationService implements AutoCloseable {
             }
             return false;
         }
+        if (awaitingFix) {
+            System.out.println("Vision exploration: waiting for the first localization, not clicking");
+            return false;
+        }
 
         Point screenPoint = resolveClickPoint(decision, analysis, window.get().bounds());
         if (screenPoint == null) {
@@ -274,6 +394,40 @@ public final class VisionNavigationService implements AutoCloseable {
         return false;
     }
 
+    private boolean hasLocalizationFix() {
+        return tickClient instanceof OpenCvNavigationPipeline openCvPipeline
+                && openCvPipeline.analyzer().lastKnownMapPoint() != null;
+    }
+
+    /**
+     * The config aimed at the cheapest frontier, the config itself before the first localization (the tick
+     * then only localizes), or {@code null} once nothing is left to explore.
+     */
+    private VisionConfig explorationConfig(VisionConfig config) {
+        if (!(tickClient instanceof OpenCvNavigationPipeline openCvPipeline)) {
+            return null;
+        }
+        OpenCvNavigationAnalyzer analyzer = openCvPipeline.analyzer();
+        Point current = analyzer.lastKnownMapPoint();
+        if (current == null) {
+            return config;
+        }
+        Point frontier = analyzer.nextExplorationTarget(config, current);
+        if (frontier == null) {
+            return null;
+        }
+        return config.withTarget(new PointConfig((int) frontier.x, (int) frontier.y));
+    }
+
+    private static VisionConfig legConfig(VisionConfig config, NavigationController activeController) {
+        PointConfig target = activeController.currentTarget();
+        return target == null ? config : config.withTarget(target);
+    }
+
+    private static String pointText(PointConfig point) {
+        return "(" + point.x() + "," + point.y() + ")";
+    }
+
     private Point resolveClickPoint(NavigationDecision decision, NavigationAnalysis analysis, java.awt.Rectangle bounds) {
         Point screenPoint = decision.clickScreenPoint();
         if (screenPoint == null && analysis != null) {
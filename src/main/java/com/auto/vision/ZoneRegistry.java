@@ -0,0 +1,388 @@
+package com.auto.vision;
+
+import com.auto.config.PointConfig;
+import com.auto.config.PortalConfig;
+import com.auto.config.VisionConfig;
+import com.auto.config.ZoneConfig;
+import com.auto.opencv.process.FlowField;
+import com.auto.opencv.process.GridAStarPlanner;
+import com.auto.opencv.process.PathCostMatrix;
+import com.auto.opencv.utils.ImageProcessor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * The zone maps of {@code vision.zones}, linked by their portals into one routable world.
+ * <p>
+ * Per zone, the path costs between all of its portals are computed once ({@link PathCostMatrix}) and cached on
+ * disk ({@code <map>.<key>.aaportals}, next to the map or in the {@link MapArtifactCache} fallback directory).
+ * A cross-zone route is a Dijkstra search over the portal nodes, so besides those tables it only needs one
+ * flow field rooted at the start and one rooted at the target. Only the current zone and the most recently
+ * used others (up to {@code maxResidentZones}) keep their map, feature index and planners in the analyzer;
+ * the least recently used zone beyond that is evicted.
+ */
+public final class ZoneRegistry {
+    public static final int DEFAULT_RESIDENT_ZONES = 2;
+
+    private final VisionConfig base;
+    private final ZoneMaps maps;
+    private final int maxResidentZones;
+    private final Map<String, ZoneConfig> zones = new LinkedHashMap<>();
+    private final Map<String, Integer> firstNode = new HashMap<>();
+    private final List<PortalNode> nodes = new ArrayList<>();
+    private final Map<String, double[][]> portalTables = new HashMap<>();
+    private final LinkedHashMap<String, Boolean> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private String currentZone;
+
+    public ZoneRegistry(VisionConfig base, OpenCvNavigationAnalyzer analyzer) {
+        this(base, analyzer, DEFAULT_RESIDENT_ZONES);
+    }
+
+    public ZoneRegistry(VisionConfig base, OpenCvNavigationAnalyzer analyzer, int maxResidentZones) {
+        this(base, maxResidentZones, new AnalyzerZoneMaps(Objects.requireNonNull(analyzer, "analyzer")));
+    }
+
+    ZoneRegistry(VisionConfig base, int maxResidentZones, ZoneMaps maps) {
+        this.base = Objects.requireNonNull(base, "base");
+        this.maps = Objects.requireNonNull(maps, "maps");
+        if (base.zones().isEmpty()) {
+            throw new IllegalArgumentException("vision.zones is empty");
+        }
+        if (maxResidentZones <= 0) {
+            throw new IllegalArgumentException("resident zone count must be positive");
+        }
+        this.maxResidentZones = maxResidentZones;
+        for (ZoneConfig zone : base.zones()) {
+            zones.put(zone.name(), zone);
+            firstNode.put(zone.name(), nodes.size());
+            for (PortalConfig portal : zone.portals()) {
+                nodes.add(new PortalNode(zone.name(), portal));
+            }
+        }
+    }
+
+    /**
+     * Map access the registry needs; the analyzer's caches in production.
+     */
+    interface ZoneMaps {
+        GridAStarPlanner planningGrid(VisionConfig zoneConfig);
+
+        /**
+         * Releases everything held for the zone's map.
+         */
+        void evict(VisionConfig zoneConfig);
+
+        /**
+         * Identifies the zone's map content and planning settings, or {@code null} to skip the disk cache.
+         */
+        String contentKey(VisionConfig zoneConfig);
+
+        /**
+         * Files the portal table may be cached in, most preferred first.
+         */
+        List<Path> tableFiles(VisionConfig zoneConfig, String tableKey);
+    }
+
+    /**
+     * Walk to {@code target} on the {@code zone} map; every leg but the last ends on a portal.
+     */
+    public record ZoneLeg(String zone, PointConfig target) {
+    }
+
+    public record ZoneRoute(List<ZoneLeg> legs, double cost) {
+        public ZoneRoute {
+            legs = List.copyOf(legs);
+        }
+    }
+
+    /**
+     * The base config on {@code zoneName}'s map.
+     */
+    public VisionConfig configFor(String zoneName) {
+        return base.withMapImage(zone(zoneName).mapImage());
+    }
+
+    /**
+     * Makes {@code zoneName} the current zone, which is never evicted, and returns its config.
+     */
+    public synchronized VisionConfig enterZone(String zoneName) {
+        zone(zoneName);
+        currentZone = zoneName;
+        touch(zoneName);
+        return configFor(zoneName);
+    }
+
+    public synchronized String currentZone() {
+        return currentZone;
+    }
+
+    /**
+     * Zones whose maps are resident, least recently used first.
+     */
+    public synchronized List<String> residentZones() {
+        return List.copyOf(resident.keySet());
+    }
+
+    /**
+     * {@code costs[i][j]} is the path cost from portal {@code i} to portal {@code j} of the zone, in declaration
+     * order, or {@link Double#POSITIVE_INFINITY} if there is no path.
+     */
+    public synchronized double[][] portalCosts(String zoneName) {
+        double[][] table = portalTable(zone(zoneName));
+        double[][] copy = new double[table.length][];
+        for (int i = 0; i < table.length; i++) {
+            copy[i] = table[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Cheapest route from {@code from} on {@code fromZone} to {@code to} on {@code toZone}, taking any portals
+     * on the way, or {@code null} if the target cannot be reached.
+     */
+    public synchronized ZoneRoute route(String fromZone, PointConfig from, String toZone, PointConfig to) {
+        ZoneConfig startZone = zone(fromZone);
+        ZoneConfig targetZone = zone(toZone);
+        for (ZoneConfig zone : zones.values()) {
+            portalTable(zone);
+        }
+
+        int start = nodes.size();
+        int goal = start + 1;
+        double[][] edges = new double[goal + 1][goal + 1];
+        for (double[] row : edges) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (ZoneConfig zone : zones.values()) {
+            double[][] table = portalTables.get(zone.name());
+            int offset = firstNode.get(zone.name());
+            for (int i = 0; i < table.length; i++) {
+                for (int j = 0; j < table.length; j++) {
+                    if (i != j) {
+                        edges[offset + i][offset + j] = table[i][j];
+                    }
+                }
+                PortalConfig portal = zone.portals().get(i);
+                edges[offset + i][portalNode(portal.targetZone(), portal.targetPortal())] = 0;
+            }
+        }
+
+        GridAStarPlanner startGrid = grid(startZone);
+        FlowField towardsStart = FlowField.build(startGrid, from.x(), from.y());
+        int startOffset = firstNode.get(fromZone);
+        for (int i = 0; i < startZone.portals().size(); i++) {
+            PortalConfig portal = startZone.portals().get(i);
+            edges[start][startOffset + i] = reversedCost(startGrid, towardsStart, from, portal);
+        }
+        FlowField towardsTarget = FlowField.build(grid(targetZone), to.x(), to.y());
+        int targetOffset = firstNode.get(toZone);
+        for (int i = 0; i < targetZone.portals().size(); i++) {
+            PortalConfig portal = targetZone.portals().get(i);
+            edges[targetOffset + i][goal] = towardsTarget.distance(portal.x(), portal.y());
+        }
+        if (fromZone.equals(toZone)) {
+            edges[start][goal] = towardsTarget.distance(from.x(), from.y());
+        }
+
+        int[] previous = new int[goal + 1];
+        double[] cost = shortestPaths(edges, start, previous);
+        if (cost[goal] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int node = goal; node != start; node = previous[node]) {
+            path.add(0, node);
+        }
+        List<ZoneLeg> legs = new ArrayList<>();
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int node = path.get(i);
+            int next = path.get(i + 1);
+            if (next < start && !nodes.get(node).zone().equals(nodes.get(next).zone())) {
+                PortalNode portal = nodes.get(node);
+                legs.add(new ZoneLeg(portal.zone(), new PointConfig(portal.portal().x(), portal.portal().y())));
+            }
+        }
+        legs.add(new ZoneLeg(toZone, to));
+        return new ZoneRoute(legs, cost[goal]);
+    }
+
+    /**
+     * Cost of walking {@code from -> portal}, read off a field rooted at {@code from}. The reverse path crosses
+     * the same cells, but pays for entering the portal instead of the start.
+     */
+    private static double reversedCost(GridAStarPlanner grid, FlowField towardsStart, PointConfig from, PortalConfig portal) {
+        double back = towardsStart.distance(portal.x(), portal.y());
+        if (back == Float.POSITIVE_INFINITY) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return back - grid.obstacleCost(from.x(), from.y()) + grid.obstacleCost(portal.x(), portal.y());
+    }
+
+    /**
+     * Dense Dijkstra; the graph is a few dozen portals, so a heap buys nothing.
+     */
+    private static double[] shortestPaths(double[][] edges, int source, int[] previous) {
+        int count = edges.length;
+        double[] cost = new double[count];
+        boolean[] settled = new boolean[count];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        cost[source] = 0;
+        for (int round = 0; round < count; round++) {
+            int current = -1;
+            for (int node = 0; node < count; node++) {
+                if (!settled[node] && (current < 0 || cost[node] < cost[current])) {
+                    current = node;
+                }
+            }
+            if (cost[current] == Double.POSITIVE_INFINITY) {
+                break;
+            }
+            settled[current] = true;
+            for (int next = 0; next < count; next++) {
+                double candidate = cost[current] + edges[current][next];
+                if (!settled[next] && candidate < cost[next]) {
+                    cost[next] = candidate;
+                    previous[next] = current;
+                }
+            }
+        }
+        return cost;
+    }
+
+    private double[][] portalTable(ZoneConfig zone) {
+        double[][] table = portalTables.get(zone.name());
+        if (table != null) {
+            return table;
+        }
+        int[][] points = new int[zone.portals().size()][];
+        StringBuilder portalsKey = new StringBuilder();
+        for (int i = 0; i < points.length; i++) {
+            PortalConfig portal = zone.portals().get(i);
+            points[i] = new int[] {portal.x(), portal.y()};
+            portalsKey.append(portal.x()).append(',').append(portal.y()).append(';');
+        }
+        if (points.length == 0) {
+            table = new double[0][0];
+            portalTables.put(zone.name(), table);
+            return table;
+        }
+
+        VisionConfig config = configFor(zone.name());
+        String contentKey = maps.contentKey(config);
+        String tableKey = contentKey == null ? null : contentKey + "|portals=" + portalsKey;
+        List<Path> files = tableKey == null ? List.of() : maps.tableFiles(config, tableKey);
+        for (Path file : files) {
+            table = PortalTableCache.read(file, tableKey, points.length);
+            if (table != null) {
+                portalTables.put(zone.name(), table);
+                return table;
+            }
+        }
+
+        table = PathCostMatrix.compute(grid(zone), points);
+        for (Path file : files) {
+            if (PortalTableCache.write(file, tableKey, table)) {
+                break;
+            }
+        }
+        portalTables.put(zone.name(), table);
+        return table;
+    }
+
+    private GridAStarPlanner grid(ZoneConfig zone) {
+        touch(zone.name());
+        return maps.planningGrid(configFor(zone.name()));
+    }
+
+    /**
+     * Marks the zone most recently used and evicts the least recently used zones past the limit, never the
+     * current one.
+     */
+    private void touch(String zoneName) {
+        resident.put(zoneName, Boolean.TRUE);
+        Iterator<String> eldest = resident.keySet().iterator();
+        while (resident.size() > maxResidentZones && eldest.hasNext()) {
+            String candidate = eldest.next();
+            if (!candidate.equals(currentZone) && !candidate.equals(zoneName)) {
+                eldest.remove();
+                maps.evict(configFor(candidate));
+            }
+        }
+    }
+
+    private ZoneConfig zone(String zoneName) {
+        ZoneConfig zone = zones.get(zoneName);
+        if (zone == null) {
+            throw new IllegalArgumentException("未知区域: " + zoneName);
+        }
+        return zone;
+    }
+
+    private int portalNode(String zoneName, String portalName) {
+        int offset = firstNode.get(zoneName);
+        List<PortalConfig> portals = zones.get(zoneName).portals();
+        for (int i = 0; i < portals.size(); i++) {
+            if (portals.get(i).name().equals(portalName)) {
+                return offset + i;
+            }
+        }
+        throw new IllegalStateException("portal not found: " + zoneName + "/" + portalName);
+    }
+
+    private record PortalNode(String zone, PortalConfig portal) {
+    }
+
+    private record AnalyzerZoneMaps(OpenCvNavigationAnalyzer analyzer) implements ZoneMaps {
+        @Override
+        public GridAStarPlanner planningGrid(VisionConfig zoneConfig) {
+            return analyzer.planningGrid(zoneConfig);
+        }
+
+        @Override
+        public void evict(VisionConfig zoneConfig) {
+            analyzer.evictMap(zoneConfig);
+        }
+
+        @Override
+        public String contentKey(VisionConfig zoneConfig) {
+            try {
+                return MapArtifactCache.contentHash(ImageProcessor.readMapBytes(zoneConfig.mapImage()))
+                        + "|" + OpenCvNavigationAnalyzer.planningGridKey(zoneConfig);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public List<Path> tableFiles(VisionConfig zoneConfig, String tableKey) {
+            String mapImage = zoneConfig.mapImage();
+            return Stream.of(
+                            MapArtifactCache.artifactPath(
+                                    MapArtifactCache.primaryDirectory(mapImage),
+                                    mapImage,
+                                    tableKey,
+                                    PortalTableCache.FILE_EXTENSION
+                            ),
+                            MapArtifactCache.artifactPath(
+                                    MapArtifactCache.fallbackDirectory(),
+                                    mapImage,
+                                    tableKey,
+                                    PortalTableCache.FILE_EXTENSION
+                            )
+                    )
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+    }
+}
@@ -204,22 +204,7 @@ class StudioViewModel(
                 val config = buildVisionConfig()
                 var analysis = captureAnalysisService.analyzeSample(config)
                 if (!analysis.navigationAnalysis().success()) {
-                    val demoConfig = VisionConfig(
-                        config.windowTitle(),
-                        config.mapImage(),
-                        config.arrowTemplate(),
-                        config.miniMapRegion(),
-                        PointConfig(500, 260),
-                        config.matchAreaSize(),
-                        config.obstacleThreshold(),
-                        config.moveStep(),
-                        config.arriveDistance(),
-                        config.ocr(),
-                        config.yolo(),
-                        config.mapPreprocess(),
-                        config.mapClosure(),
-                        config.navigation()
-                    )
+                    val demoConfig = config.withTarget(PointConfig(500, 260))
                     analysis = captureAnalysisService.analyzeSample(demoConfig)
                     appendLog("当前目标点在示例图上不可达，示例已切换到演示目标点 (500, 260)。")
                 }
@@ -436,7 +421,8 @@ class StudioViewModel(
                             config.vision().yolo(),
                             buildMapPreprocessConfig(),
                             buildMapClosureConfig(),
-                            buildNavigationConfig()
+                            buildNavigationConfig(),
+                            config.vision().zones()
                         ),
                         config.uiAutomation(),
                         config.input()
@@ -981,7 +967,8 @@ class StudioViewModel(
             current.yolo.toConfig(),
             buildMapPreprocessConfig(),
             buildMapClosureConfig(),
-            buildNavigationConfig()
+            buildNavigationConfig(),
+            baseVision?.zones() ?: emptyList()
         )
     }
 
@@ -1438,7 +1425,9 @@ data class NavigationForm(
     val localizationOutlierRejectionEnabled: Boolean = true,
     val maxLocalizationJumpPx: String = "0",
     val screenCalibrationEnabled: Boolean = false,
-    val calibrationPoints: List<ScreenCalibrationPointForm> = emptyList()
+    val calibrationPoints: List<ScreenCalibrationPointForm> = emptyList(),
+    /** Loaded settings the form has no fields for (planner, localization flags, ...); passed through unchanged. */
+    val loaded: NavigationConfig = NavigationConfig.defaults()
 ) {
     fun toConfig(): NavigationConfig = NavigationConfig(
         tickIntervalMs.toIntStrict("tickIntervalMs"),
@@ -1454,7 +1443,17 @@ data class NavigationForm(
         ScreenCalibrationConfig(
             screenCalibrationEnabled && calibrationPoints.size >= 3,
             calibrationPoints.map { it.toConfig() }
-        )
+        ),
+        loaded.obstacleCost(),
+        loaded.planner(),
+        loaded.smoothPath(),
+        loaded.planningBudgetMs(),
+        loaded.parallelLocalization(),
+        loaded.motionTracking(),
+        loaded.templateLocalization(),
+        loaded.kalmanLocalization(),
+        loaded.detectedObstacleTtlMs(),
+        loaded.detectedObstacleClasses()
     )
 
     companion object {
@@ -1470,7 +1469,8 @@ data class NavigationForm(
             localizationOutlierRejectionEnabled = config.localizationOutlierRejectionEnabled(),
             maxLocalizationJumpPx = config.maxLocalizationJumpPx().toString(),
             screenCalibrationEnabled = config.screenCalibration().enabled(),
-            calibrationPoints = config.screenCalibration().points().map(ScreenCalibrationPointForm::from)
+            calibrationPoints = config.screenCalibration().points().map(ScreenCalibrationPointForm::from),
+            loaded = config
         )
     }
 }
@@ -0,0 +1,72 @@
+package com.auto.app;
+
+import com.auto.config.AppConfigLoader;
+import com.auto.config.PlannerMode;
+import com.auto.config.PointConfig;
+import com.auto.config.RegionConfig;
+import com.auto.config.VisionConfig;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class AutoActionWorkbenchTest {
+    @Test
+    public void loadedPlannerSurvivesBuildVisionConfig() throws IOException {
+        VisionConfig loaded = new AppConfigLoader()
+                .loadFromString(defaultConfigJson().replace("\"planner\": \"astar\"", "\"planner\": \"jps\""))
+                .vision();
+
+        VisionConfig built = AutoActionWorkbench.buildVisionConfig(
+                loaded,
+                "Game",
+                new RegionConfig(0, 100, 200, 200),
+                new PointConfig(10, 20),
+                100,
+                200.0,
+                80,
+                10.0
+        );
+
+        assertEquals(PlannerMode.JPS, built.navigation().planner());
+        assertEquals(loaded.navigation(), built.navigation());
+        assertEquals(new PointConfig(10, 20), built.target());
+    }
+
+    @Test
+    public void loadedZonesSurviveBuildVisionConfig() throws IOException {
+        VisionConfig loaded = new AppConfigLoader()
+                .loadFromString(defaultConfigJson().replace(
+                        "\"arriveDistance\": 10.0,",
+                        "\"arriveDistance\": 10.0, \"zones\": ["
+                                + "{\"name\": \"A\", \"mapImage\": \"zone-a.bmp\", \"portals\": []}],"
+                ))
+                .vision();
+
+        VisionConfig built = AutoActionWorkbench.buildVisionConfig(
+                loaded,
+                "Game",
+                new RegionConfig(0, 100, 200, 200),
+                new PointConfig(10, 20),
+                100,
+                200.0,
+                80,
+                10.0
+        );
+
+        assertEquals(1, built.zones().size());
+        assertEquals(loaded.zones(), built.zones());
+    }
+
+    private static String defaultConfigJson() throws IOException {
+        try (InputStream in = AutoActionWorkbenchTest.class.getClassLoader()
+                .getResourceAsStream(AppConfigLoader.DEFAULT_RESOURCE)) {
+            assertNotNull(in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
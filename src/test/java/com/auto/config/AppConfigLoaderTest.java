@@ -2,7 +2,10 @@ package com.auto.config;
 
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -32,6 +35,117 @@ public class AppConfigLoaderTest {
         assertEquals(ClickBackend.INTERCEPTION, config.input().clickBackend());
     }
 
+    @Test
+    public void parsesNavigationObstacleCost() {
+        String json = validConfig().replace(
+                "\"arriveDistance\":10.0,",
+                "\"arriveDistance\":10.0,"
+                        + "\"navigation\":{\"obstacleCost\":{\"radiusPx\":6,\"weight\":4.0,\"falloffExponent\":2.0}},"
+        );
+        AppConfig config = loader.loadFromString(json);
+
+        ObstacleCostConfig obstacleCost = config.vision().navigation().obstacleCost();
+        assertEquals(6, obstacleCost.radiusPx());
+        assertEquals(4.0, obstacleCost.weight(), 0.0);
+        assertEquals(2.0, obstacleCost.falloffExponent(), 0.0);
+        assertEquals(
+                ObstacleCostConfig.defaults(),
+                loader.loadFromString(validConfig()).vision().navigation().obstacleCost()
+        );
+    }
+
+    @Test
+    public void parsesNavigationPlanner() {
+        String json = validConfig().replace(
+                "\"arriveDistance\":10.0,",
+                "\"arriveDistance\":10.0,\"navigation\":{\"planner\":\"JPS\"},"
+        );
+
+        assertEquals(PlannerMode.JPS, loader.loadFromString(json).vision().navigation().planner());
+        assertEquals(PlannerMode.ASTAR, loader.loadFromString(validConfig()).vision().navigation().planner());
+        assertThrows(
+                ConfigException.class,
+                () -> loader.loadFromString(json.replace("\"JPS\"", "\"bogus\""))
+        );
+    }
+
+    @Test
+    public void parsesNavigationFlags() {
+        String json = validConfig().replace(
+                "\"arriveDistance\":10.0,",
+                "\"arriveDistance\":10.0,\"navigation\":{"
+                        + "\"localizationOutlierRejectionEnabled\":false,\"smoothPath\":false,"
+                        + "\"parallelLocalization\":true,\"motionTracking\":true,"
+                        + "\"templateLocalization\":true,\"kalmanLocalization\":true},"
+        );
+
+        NavigationConfig parsed = loader.loadFromString(json).vision().navigation();
+        assertFalse(parsed.localizationOutlierRejectionEnabled());
+        assertFalse(parsed.smoothPath());
+        assertTrue(parsed.parallelLocalization());
+        assertTrue(parsed.motionTracking());
+        assertTrue(parsed.templateLocalization());
+        assertTrue(parsed.kalmanLocalization());
+
+        NavigationConfig unset = loader.loadFromString(validConfig()).vision().navigation();
+        assertTrue(unset.localizationOutlierRejectionEnabled());
+        assertTrue(unset.smoothPath());
+        assertFalse(unset.parallelLocalization());
+        assertFalse(unset.motionTracking());
+        assertFalse(unset.templateLocalization());
+        assertFalse(unset.kalmanLocalization());
+    }
+
+    @Test
+    public void parsesNavigationDetectedObstacles() {
+        String json = validConfig().replace(
+                "\"arriveDistance\":10.0,",
+                "\"arriveDistance\":10.0,"
+                        + "\"navigation\":{\"detectedObstacleTtlMs\":1500,\"detectedObstacleClasses\":[\"npc\"]},"
+        );
+
+        NavigationConfig navigation = loader.loadFromString(json).vision().navigation();
+        assertEquals(1500, navigation.detectedObstacleTtlMs());
+        assertEquals(List.of("npc"), navigation.detectedObstacleClasses());
+        assertEquals(0, loader.loadFromString(validConfig()).vision().navigation().detectedObstacleTtlMs());
+        assertThrows(
+                ConfigException.class,
+                () -> loader.loadFromString(json.replace(":1500", ":-1"))
+        );
+    }
+
+    @Test
+    public void parsesNavigationPlanningBudget() {
+        String json = validConfig().replace(
+                "\"arriveDistance\":10.0,",
+                "\"arriveDistance\":10.0,\"navigation\":{\"planner\":\"anytime\",\"planningBudgetMs\":25},"
+        );
+
+        assertEquals(PlannerMode.ANYTIME, loader.loadFromString(json).vision().navigation().planner());
+        assertEquals(25, loader.loadFromString(json).vision().navigation().planningBudgetMs());
+        assertEquals(40, loader.loadFromString(validConfig()).vision().navigation().planningBudgetMs());
+        assertThrows(
+                ConfigException.class,
+                () -> loader.loadFromString(json.replace(":25", ":0"))
+        );
+    }
+
+    @Test
+    public void rejectsZonePortalLeadingToUnknownPortal() {
+        String json = validConfig().replace(
+                "\"arriveDistance\":10.0,",
+                "\"arriveDistance\":10.0,\"zones\":["
+                        + "{\"name\":\"A\",\"mapImage\":\"zone-a.bmp\",\"portals\":["
+                        + "{\"name\":\"toB\",\"x\":19,\"y\":10,\"targetZone\":\"B\",\"targetPortal\":\"fromAA\"}]},"
+                        + "{\"name\":\"B\",\"mapImage\":\"zone-b.bmp\",\"portals\":["
+                        + "{\"name\":\"fromA\",\"x\":0,\"y\":10,\"targetZone\":\"A\",\"targetPortal\":\"toB\"}]}],"
+        );
+
+        assertEquals(2, loader.loadFromString(json.replace("\"fromAA\"", "\"fromA\"")).vision().zones().size());
+        ConfigException error = assertThrows(ConfigException.class, () -> loader.loadFromString(json));
+        assertTrue(error.getMessage(), error.getMessage().contains("A/toB leads to unknown portal B/fromAA"));
+    }
+
     @Test
     public void rejectsMissingRequiredField() {
         String json = validConfig().replace("\"vision\"", "\"missingVision\"");
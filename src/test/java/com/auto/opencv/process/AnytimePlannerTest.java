@@ -0,0 +1,80 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AnytimePlannerTest {
+    @Test
+    public void generousBudgetConvergesToOptimalPath() {
+        int cols = 120;
+        int rows = 90;
+        boolean[] blocked = maze(cols, rows);
+        float[] cost = new float[cols * rows];
+        AnytimePlanner planner = AnytimePlanner.fromGrid(new GridAStarPlanner(cols, rows, blocked, cost), 10_000);
+
+        int[][] path = planner.findPath(5, 5, 110, 80);
+        int[][] optimal = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone()).findPath(5, 5, 110, 80);
+
+        assertEquals(1.0, planner.solutionEpsilon(), 0.0);
+        assertContiguousWalkable(path, blocked, cols);
+        assertEquals(pathCost(optimal, cost, cols), pathCost(path, cost, cols), 1e-6);
+    }
+
+    @Test
+    public void zeroBudgetStopsEarlyAndImprovesOnLaterQueries() {
+        int cols = 120;
+        int rows = 90;
+        boolean[] blocked = maze(cols, rows);
+        float[] cost = new float[cols * rows];
+        AnytimePlanner planner = AnytimePlanner.fromGrid(new GridAStarPlanner(cols, rows, blocked, cost), 0);
+
+        planner.findPath(5, 5, 110, 80);
+        assertTrue(planner.lastExpansions() < 256);
+        assertEquals(0.0, planner.solutionEpsilon(), 0.0);
+
+        int[][] path = new int[0][2];
+        for (int tick = 0; tick < 1000 && planner.solutionEpsilon() != 1.0; tick++) {
+            path = planner.findPath(5, 5, 110, 80);
+        }
+        int[][] optimal = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone()).findPath(5, 5, 110, 80);
+
+        assertEquals(1.0, planner.solutionEpsilon(), 0.0);
+        assertEquals(pathCost(optimal, cost, cols), pathCost(path, cost, cols), 1e-6);
+    }
+
+    @Test
+    public void movedStartReusesSearchAndStaysWithinBound() {
+        int cols = 120;
+        int rows = 90;
+        boolean[] blocked = maze(cols, rows);
+        float[] cost = new float[cols * rows];
+        AnytimePlanner planner = AnytimePlanner.fromGrid(new GridAStarPlanner(cols, rows, blocked, cost), 10_000);
+        planner.findPath(5, 5, 110, 80);
+        int firstExpansions = planner.lastExpansions();
+
+        int[][] path = planner.findPath(8, 9, 110, 80);
+        int[][] optimal = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone()).findPath(8, 9, 110, 80);
+
+        assertTrue(planner.lastExpansions() < firstExpansions);
+        assertContiguousWalkable(path, blocked, cols);
+        assertTrue(pathCost(path, cost, cols) <= pathCost(optimal, cost, cols) * planner.solutionEpsilon() + 1e-6);
+        assertEquals(0, planner.findPath(5, 5, 40, 0).length);
+    }
+
+    private static boolean[] maze(int cols, int rows) {
+        boolean[] blocked = new boolean[cols * rows];
+        for (int y = 0; y < 70; y++) {
+            blocked[y * cols + 30] = true;
+            blocked[y * cols + 90] = true;
+        }
+        for (int y = 20; y < rows; y++) {
+            blocked[y * cols + 60] = true;
+        }
+        blocked[40] = true;
+        return blocked;
+    }
+}
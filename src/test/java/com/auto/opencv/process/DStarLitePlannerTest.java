@@ -0,0 +1,88 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.fillRect;
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DStarLitePlannerTest {
+    @Test
+    public void movedStartIsRepairedWithFewExpansions() {
+        int cols = 200;
+        int rows = 120;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 90, 20, 20, 80);
+        DStarLitePlanner planner = new DStarLitePlanner(cols, rows, blocked, new float[cols * rows]);
+
+        int[][] first = planner.findPath(10, 60, 190, 60);
+        int firstExpansions = planner.lastExpansions();
+        int[][] next = planner.findPath(first[3][0], first[3][1], 190, 60);
+
+        assertContiguousWalkable(next, blocked, cols, first[3][0], first[3][1], 190, 60);
+        assertTrue(planner.lastExpansions() * 20 < firstExpansions);
+        float[] noCost = new float[cols * rows];
+        double skipped = pathCost(Arrays.copyOfRange(first, 0, 4), noCost, cols);
+        assertEquals(pathCost(first, noCost, cols) - skipped, pathCost(next, noCost, cols), 1e-6);
+    }
+
+    @Test
+    public void blockedCellOnPathIsRoutedAround() {
+        int cols = 60;
+        int rows = 40;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 30, 0, 2, 18);
+        fillRect(blocked, cols, 30, 22, 2, 18);
+        float[] cost = new float[cols * rows];
+        DStarLitePlanner planner = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone());
+        planner.findPath(5, 20, 55, 20);
+
+        for (int y = 18; y < 22; y++) {
+            planner.updateCell(30, y, true, 0);
+            blocked[y * cols + 30] = true;
+        }
+        int[][] blockedGap = planner.findPath(5, 20, 55, 20);
+        assertEquals(0, blockedGap.length);
+
+        planner.updateCell(30, 19, false, 0);
+        blocked[19 * cols + 30] = false;
+        int[][] rerouted = planner.findPath(5, 20, 55, 20);
+        assertContiguousWalkable(rerouted, blocked, cols, 5, 20, 55, 20);
+
+        int[][] fresh = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone()).findPath(5, 20, 55, 20);
+        assertEquals(pathCost(fresh, cost, cols), pathCost(rerouted, cost, cols), 1e-6);
+    }
+
+    @Test
+    public void penalizedCellsAreAvoidedWhenCheaper() {
+        int cols = 40;
+        int rows = 21;
+        float[] cost = new float[cols * rows];
+        for (int x = 10; x < 30; x++) {
+            cost[10 * cols + x] = 5f;
+        }
+        DStarLitePlanner planner = new DStarLitePlanner(cols, rows, new boolean[cols * rows], cost);
+
+        int[][] path = planner.findPath(2, 10, 37, 10);
+
+        for (int[] point : path) {
+            assertFalse(cost[point[1] * cols + point[0]] > 0);
+        }
+    }
+
+    @Test
+    public void returnsEmptyPathWhenWalledOff() {
+        int cols = 50;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 25, 0, 2, rows);
+        DStarLitePlanner planner = new DStarLitePlanner(cols, rows, blocked, new float[cols * rows]);
+
+        assertEquals(0, planner.findPath(5, 5, 45, 5).length);
+    }
+}
@@ -0,0 +1,68 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DynamicObstacleOverlayTest {
+    @Test
+    public void overlappingStampsAreCountedAndReportClippedRegions() {
+        DynamicObstacleOverlay overlay = new DynamicObstacleOverlay(50, 40);
+        List<int[]> dirty = new ArrayList<>();
+        overlay.addListener((x, y, width, height) -> dirty.add(new int[] {x, y, width, height}));
+
+        long first = overlay.stamp(-5, 10, 15, 5, 1_000, 0);
+        long second = overlay.stamp(2, 12, 4, 4, 5_000, 0);
+        long inner = overlay.stamp(3, 12, 2, 2, 5_000, 0);
+
+        assertEquals(2, dirty.size());
+        assertArrayEquals(new int[] {0, 10, 10, 5}, dirty.get(0));
+        assertArrayEquals(new int[] {2, 12, 4, 4}, dirty.get(1));
+        assertTrue(overlay.remove(inner));
+        assertEquals(2, dirty.size());
+        assertEquals(0, overlay.stamp(60, 0, 5, 5, 1_000, 0));
+
+        assertEquals(0, overlay.expire(999));
+        assertEquals(1, overlay.expire(1_000));
+        assertTrue(overlay.isBlocked(3, 13));
+        assertFalse(overlay.isBlocked(3, 10));
+        assertEquals(3, dirty.size());
+        assertFalse(overlay.remove(first));
+        assertTrue(overlay.remove(second));
+        assertEquals(0, overlay.activeStamps());
+        assertFalse(overlay.isBlocked(3, 13));
+    }
+
+    @Test
+    public void incrementalPlannerRepairsOnlyReportedRegions() {
+        int cols = 60;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            blocked[y * cols + 30] = y < 10 || y > 12;
+        }
+        float[] cost = new float[cols * rows];
+        GridAStarPlanner base = new GridAStarPlanner(cols, rows, blocked, cost);
+        DStarLitePlanner planner = DStarLitePlanner.fromGrid(base);
+        DynamicObstacleOverlay overlay = new DynamicObstacleOverlay(cols, rows);
+        overlay.addListener((x, y, width, height) -> planner.updateRegion(base, overlay, x, y, width, height));
+        assertTrue(planner.findPath(5, 11, 55, 11).length > 0);
+
+        overlay.stamp(29, 9, 3, 5, 500, 0);
+
+        assertEquals(0, planner.findPath(5, 11, 55, 11).length);
+        assertTrue(base.findPath(5, 11, 55, 11).length > 0);
+
+        overlay.expire(500);
+        int[][] reopened = planner.findPath(5, 11, 55, 11);
+
+        assertTrue(reopened.length > 0);
+        assertEquals(base.findPath(5, 11, 55, 11).length, reopened.length);
+    }
+}
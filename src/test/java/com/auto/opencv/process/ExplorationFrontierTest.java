@@ -0,0 +1,113 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.fillRect;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ExplorationFrontierTest {
+    @Test
+    public void revealedPatchBorderBecomesFrontierExceptAgainstWalls() {
+        int cols = 40;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            blocked[y * cols + 20] = true;
+        }
+        ExplorationFrontier frontier = ExplorationFrontier.forGrid(
+                new GridAStarPlanner(cols, rows, blocked, new float[cols * rows])
+        );
+
+        assertEquals(100, frontier.reveal(10, 10, fullPatch(10, 10)));
+
+        assertTrue(frontier.isExplored(15, 15));
+        assertTrue(frontier.isFrontier(10, 12));
+        assertFalse(frontier.isFrontier(15, 15));
+        assertFalse(frontier.isFrontier(19, 15));
+        assertEquals(36 - 8, frontier.frontierCount());
+        assertEquals(0, frontier.reveal(10, 10, fullPatch(10, 10)));
+    }
+
+    @Test
+    public void incrementalRevealMovesFrontierAndQueryFindsCheapestCell() {
+        int cols = 60;
+        int rows = 20;
+        boolean[] blocked = new boolean[cols * rows];
+        ExplorationFrontier frontier = ExplorationFrontier.forGrid(
+                new GridAStarPlanner(cols, rows, blocked, new float[cols * rows])
+        );
+        frontier.reveal(0, 0, fullPatch(20, 20));
+
+        assertArrayEquals(new int[] {19, 10}, frontier.cheapestFrontier(12, 10));
+
+        frontier.reveal(20, 0, fullPatch(20, 20));
+
+        assertFalse(frontier.isFrontier(19, 10));
+        assertTrue(frontier.isFrontier(39, 10));
+        assertArrayEquals(new int[] {39, 10}, frontier.cheapestFrontier(12, 10));
+
+        frontier.reveal(40, 0, fullPatch(20, 20));
+
+        assertEquals(0, frontier.frontierCount());
+        assertNull(frontier.cheapestFrontier(12, 10));
+    }
+
+    @Test
+    public void routeKeepsSearchPathAndServesLaterTicks() {
+        int cols = 60;
+        int rows = 20;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 10, 0, 2, 15);
+        ExplorationFrontier frontier = ExplorationFrontier.forGrid(
+                new GridAStarPlanner(cols, rows, blocked, new float[cols * rows])
+        );
+        frontier.reveal(0, 0, fullPatch(20, 20));
+
+        ExplorationRoute route = frontier.cheapestFrontierRoute(5, 5, 3);
+
+        assertArrayEquals(frontier.cheapestFrontier(5, 5), route.goal());
+        int[] goal = route.goal();
+        int[][] fromStart = route.findPath(5, 5, goal[0], goal[1]);
+        assertContiguousWalkable(fromStart, blocked, cols, 5, 5, goal[0], goal[1]);
+
+        int[] midway = fromStart[fromStart.length / 2];
+        int[][] later = route.findPath(midway[0], midway[1], goal[0], goal[1]);
+        assertEquals(fromStart.length - fromStart.length / 2, later.length);
+        assertEquals(0, route.lastExpansions());
+
+        assertTrue(route.covers(midway[0], midway[1] + 2));
+        assertFalse(route.covers(5, 5));
+        assertEquals(0, route.findPath(5, 5, goal[0], goal[1]).length);
+        assertEquals(0, route.findPath(midway[0], midway[1], 30, 10).length);
+    }
+
+    @Test
+    public void fogPixelsInPatchStayUnexplored() {
+        int cols = 30;
+        int rows = 30;
+        ExplorationFrontier frontier = ExplorationFrontier.forGrid(
+                new GridAStarPlanner(cols, rows, new boolean[cols * rows], new float[cols * rows])
+        );
+        boolean[] patch = new boolean[10 * 10];
+        for (int i = 0; i < patch.length; i++) {
+            patch[i] = i % 10 < 5;
+        }
+
+        assertEquals(50, frontier.reveal(5, 5, WalkabilityGrid.fromWalkable(patch, 10, 10)));
+        assertFalse(frontier.isExplored(12, 8));
+        assertTrue(frontier.isFrontier(9, 8));
+    }
+
+    private static WalkabilityGrid fullPatch(int cols, int rows) {
+        boolean[] walkable = new boolean[cols * rows];
+        Arrays.fill(walkable, true);
+        return WalkabilityGrid.fromWalkable(walkable, cols, rows);
+    }
+}
@@ -0,0 +1,58 @@
+package com.auto.opencv.process;
+
+import com.auto.vision.OpenCvLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.features2d.DescriptorMatcher;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FeatureMatcherPoolTest {
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void instancesAreReusedPerThreadAndNeverShared() throws Exception {
+        FeatureMatcherPool pool = FeatureMatcherPool.current();
+        assertSame(pool, FeatureMatcherPool.current());
+        assertSame(pool.sift(), pool.sift());
+        assertSame(pool.orb(500), pool.orb(2000));
+
+        AtomicReference<FeatureMatcherPool> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(FeatureMatcherPool.current()));
+        thread.start();
+        thread.join();
+        assertNotSame(pool, other.get());
+    }
+
+    @Test
+    public void trainedFlannIsBuiltOncePerDescriptorSet() {
+        Mat descriptors = new Mat(64, 128, CvType.CV_32FC1);
+        Core.randu(descriptors, 0, 255);
+        FeatureMatcherPool pool = FeatureMatcherPool.current();
+
+        assertSame(pool.trainedFlann(descriptors), pool.trainedFlann(descriptors));
+        assertNotSame(pool.trainedFlann(descriptors), pool.trainedFlann(descriptors.clone()));
+    }
+
+    @Test
+    public void trainedFlannIsSharedAcrossThreads() throws Exception {
+        Mat descriptors = new Mat(64, 128, CvType.CV_32FC1);
+        Core.randu(descriptors, 0, 255);
+        DescriptorMatcher matcher = FeatureMatcherPool.current().trainedFlann(descriptors);
+
+        AtomicReference<DescriptorMatcher> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(FeatureMatcherPool.current().trainedFlann(descriptors)));
+        thread.start();
+        thread.join();
+        assertSame(matcher, other.get());
+    }
+}
@@ -0,0 +1,60 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.fillRect;
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlowFieldTest {
+    @Test
+    public void followedPathHasOptimalCostFromAnyStart() {
+        int cols = 80;
+        int rows = 50;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 40, 0, 3, 35);
+        float[] cost = new float[cols * rows];
+        for (int x = 10; x < 70; x++) {
+            cost[40 * cols + x] = 2f;
+        }
+        FlowField field = FlowField.build(new GridAStarPlanner(cols, rows, blocked, cost), 75, 5);
+
+        int[][] starts = {{5, 5}, {20, 45}, {39, 10}, {60, 30}};
+        for (int[] start : starts) {
+            int[][] path = field.findPath(start[0], start[1], 75, 5);
+            DStarLitePlanner reference = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone());
+            int[][] optimal = reference.findPath(start[0], start[1], 75, 5);
+
+            assertContiguousWalkable(path, blocked, cols, start[0], start[1], 75, 5);
+            assertEquals(pathCost(optimal, cost, cols), pathCost(path, cost, cols), 1e-4);
+            assertEquals(pathCost(path, cost, cols), field.distance(start[0], start[1]), 1e-3);
+        }
+    }
+
+    @Test
+    public void otherEndPointIsDelegatedToGrid() {
+        int cols = 30;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        FlowField field = FlowField.build(new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]), 25, 25);
+
+        int[][] path = field.findPath(2, 2, 10, 20);
+
+        assertContiguousWalkable(path, blocked, cols, 2, 2, 10, 20);
+    }
+
+    @Test
+    public void unreachableCellsHaveNoPath() {
+        int cols = 50;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 25, 0, 2, rows);
+        FlowField field = FlowField.build(new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]), 45, 5);
+
+        assertEquals(0, field.findPath(5, 5, 45, 5).length);
+        assertTrue(Float.isInfinite(field.distance(5, 5)));
+        assertTrue(field.findPath(40, 20, 45, 5).length > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package com.auto.opencv.process;
+
+import com.auto.vision.OpenCvLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GridAStarPlannerTest {
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void matchesLegacyPathCostOnMapWithWall() {
+        Mat map = Mat.zeros(40, 40, CvType.CV_8UC1);
+        for (int y = 0; y < 30; y++) {
+            map.put(y, 20, 255);
+        }
+
+        int[][] legacy = new PathPlanner(map, new Point(5, 5), new Point(35, 5), 200.0).findRawPath();
+        int[][] indexed = new PathPlanner(map, new Point(5, 5), new Point(35, 5), 200.0, PlannerEngine.INDEXED_ASTAR)
+                .findRawPath();
+
+        GridAStarPlanner grid = GridAStarPlanner.fromMat(map, 200.0);
+        assertTrue(indexed.length > 0);
+        assertEquals(pathCost(grid, legacy), pathCost(grid, indexed), 1e-3);
+    }
+
+    @Test
+    public void reusedInstanceReturnsSamePath() {
+        boolean[] blocked = new boolean[10 * 10];
+        for (int y = 2; y < 10; y++) {
+            blocked[y * 10 + 5] = true;
+        }
+        GridAStarPlanner planner = new GridAStarPlanner(10, 10, blocked);
+
+        int[][] first = planner.findPath(0, 9, 9, 9);
+        int[][] blockedRun = planner.findPath(0, 9, 5, 5);
+        int[][] second = planner.findPath(0, 9, 9, 9);
+
+        assertTrue(first.length > 0);
+        assertEquals(0, blockedRun.length);
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void returnsEmptyPathForOutOfBoundsEndpoints() {
+        GridAStarPlanner planner = new GridAStarPlanner(4, 4, new boolean[16]);
+
+        assertEquals(0, planner.findPath(-1, 0, 3, 3).length);
+        assertEquals(0, planner.findPath(0, 0, 4, 3).length);
+    }
+}
@@ -0,0 +1,85 @@
+package com.auto.opencv.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Grid fixtures and path checks shared by the planner tests. Paths are {@code [x, y]} cells; costs use the
+ * planners' step model (1 or sqrt 2 plus the entered cell's obstacle cost).
+ */
+final class GridPathAssertions {
+    private GridPathAssertions() {
+    }
+
+    static void fillRect(boolean[] blocked, int cols, int x0, int y0, int width, int height) {
+        for (int y = y0; y < y0 + height; y++) {
+            for (int x = x0; x < x0 + width; x++) {
+                blocked[y * cols + x] = true;
+            }
+        }
+    }
+
+    static double pathCost(int[][] path, float[] cost, int cols) {
+        double total = 0;
+        for (int i = 1; i < path.length; i++) {
+            total += stepLength(path, i) + cost[path[i][1] * cols + path[i][0]];
+        }
+        return total;
+    }
+
+    static double pathCost(GridAStarPlanner grid, int[][] path) {
+        double total = 0;
+        for (int i = 1; i < path.length; i++) {
+            total += stepLength(path, i) + grid.obstacleCost(path[i][1] * grid.cols() + path[i][0]);
+        }
+        return total;
+    }
+
+    static void assertEndpoints(int[][] path, int startX, int startY, int endX, int endY) {
+        assertTrue(path.length > 0);
+        assertEquals(startX, path[0][0]);
+        assertEquals(startY, path[0][1]);
+        assertEquals(endX, path[path.length - 1][0]);
+        assertEquals(endY, path[path.length - 1][1]);
+    }
+
+    /**
+     * Non-empty, on walkable cells only, and every step moves to one of the eight neighbours.
+     */
+    static void assertContiguousWalkable(int[][] path, boolean[] blocked, int cols) {
+        assertTrue(path.length > 0);
+        assertContiguousWalkable(path, blocked, cols, 0, path.length);
+    }
+
+    /**
+     * {@link #assertContiguousWalkable(int[][], boolean[], int)} restricted to {@code path[from, to)}.
+     */
+    static void assertContiguousWalkable(int[][] path, boolean[] blocked, int cols, int from, int to) {
+        for (int i = from; i < Math.min(to, path.length); i++) {
+            assertFalse(blocked[path[i][1] * cols + path[i][0]]);
+            if (i > from) {
+                assertTrue(Math.abs(path[i][0] - path[i - 1][0]) <= 1);
+                assertTrue(Math.abs(path[i][1] - path[i - 1][1]) <= 1);
+            }
+        }
+    }
+
+    static void assertContiguousWalkable(
+            int[][] path,
+            boolean[] blocked,
+            int cols,
+            int startX,
+            int startY,
+            int endX,
+            int endY
+    ) {
+        assertEndpoints(path, startX, startY, endX, endY);
+        assertContiguousWalkable(path, blocked, cols);
+    }
+
+    private static double stepLength(int[][] path, int i) {
+        boolean diagonal = path[i][0] != path[i - 1][0] && path[i][1] != path[i - 1][1];
+        return diagonal ? Math.sqrt(2) : 1;
+    }
+}
@@ -0,0 +1,64 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.assertEndpoints;
+import static com.auto.opencv.process.GridPathAssertions.fillRect;
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HierarchicalPlannerTest {
+    @Test
+    public void fullyRefinedPathIsWalkableAndNearOptimal() {
+        int cols = 200;
+        int rows = 160;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 60, 0, 6, 120);
+        fillRect(blocked, cols, 130, 40, 6, 120);
+        float[] cost = new float[cols * rows];
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, cost);
+        HierarchicalPlanner planner = HierarchicalPlanner.fromGrid(grid, 16);
+
+        int[][] path = planner.findPath(10, 10, 190, 150, Integer.MAX_VALUE);
+        int[][] optimal = new DStarLitePlanner(cols, rows, blocked.clone(), cost.clone()).findPath(10, 10, 190, 150);
+
+        assertContiguousWalkable(path, blocked, cols, 0, path.length);
+        assertEndpoints(path, 10, 10, 190, 150);
+        assertTrue(pathCost(path, cost, cols) <= pathCost(optimal, cost, cols) * 1.1);
+    }
+
+    @Test
+    public void defaultQueryRefinesOnlyLeadingClusters() {
+        int cols = 320;
+        int rows = 64;
+        boolean[] blocked = new boolean[cols * rows];
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]);
+        HierarchicalPlanner planner = HierarchicalPlanner.fromGrid(grid, 16);
+
+        int[][] full = planner.findPath(2, 30, 317, 30, Integer.MAX_VALUE);
+        int fullExpansions = planner.lastExpansions();
+        int[][] partial = planner.findPath(2, 30, 317, 30);
+
+        assertEndpoints(partial, 2, 30, 317, 30);
+        assertContiguousWalkable(partial, blocked, cols, 0, 20);
+        assertTrue(partial.length < full.length);
+        assertTrue(planner.lastExpansions() < fullExpansions);
+    }
+
+    @Test
+    public void shortAndUnreachableQueriesMatchGrid() {
+        int cols = 96;
+        int rows = 64;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 48, 0, 2, rows);
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]);
+        HierarchicalPlanner planner = HierarchicalPlanner.fromGrid(grid, 16);
+
+        int[][] nearby = planner.findPath(5, 5, 20, 20);
+        assertContiguousWalkable(nearby, blocked, cols, 0, nearby.length);
+        assertEndpoints(nearby, 5, 5, 20, 20);
+        assertEquals(0, planner.findPath(5, 5, 90, 60).length);
+    }
+}
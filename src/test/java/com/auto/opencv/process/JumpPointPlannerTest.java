@@ -0,0 +1,61 @@
+package com.auto.opencv.process;
+
+import com.auto.vision.OpenCvLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.fillRect;
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JumpPointPlannerTest {
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void crossesOpenAreaWithFewExpansions() {
+        int cols = 300;
+        int rows = 200;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 120, 40, 40, 120);
+        GridAStarPlanner astar = new GridAStarPlanner(cols, rows, blocked);
+        JumpPointPlanner jps = JumpPointPlanner.fromGrid(astar);
+
+        int[][] astarPath = astar.findPath(20, 100, 280, 100);
+        int[][] jpsPath = jps.findPath(20, 100, 280, 100);
+
+        assertContiguousWalkable(jpsPath, blocked, cols, 20, 100, 280, 100);
+        assertTrue(jps.lastExpansions() * 5 < astar.lastExpansions());
+        assertTrue(pathCost(astar, jpsPath) <= pathCost(astar, astarPath) * 1.1);
+    }
+
+    @Test
+    public void entersPenalizedCorridorToReachTarget() {
+        int cols = 120;
+        int rows = 60;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 60, 0, 4, 27);
+        fillRect(blocked, cols, 60, 33, 4, 27);
+        GridAStarPlanner astar = new GridAStarPlanner(cols, rows, blocked);
+        JumpPointPlanner jps = JumpPointPlanner.fromGrid(astar);
+
+        int[][] path = jps.findPath(10, 10, 110, 50);
+
+        assertContiguousWalkable(path, blocked, cols, 10, 10, 110, 50);
+    }
+
+    @Test
+    public void returnsEmptyPathWhenWalledOff() {
+        int cols = 50;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 25, 0, 2, rows);
+        JumpPointPlanner jps = JumpPointPlanner.fromGrid(new GridAStarPlanner(cols, rows, blocked));
+
+        assertEquals(0, jps.findPath(5, 5, 45, 5).length);
+    }
+}
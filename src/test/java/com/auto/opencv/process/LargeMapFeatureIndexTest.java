@@ -0,0 +1,104 @@
+package com.auto.opencv.process;
+
+import com.auto.vision.OpenCvLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.KeyPoint;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LargeMapFeatureIndexTest {
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void featuresWithinWindowAreSubsetOfWholeMap() {
+        Mat fullMap = new Mat(300, 300, CvType.CV_8UC1, new Scalar(255));
+        drawFeatureRichRegion(fullMap, 20, 20, 120, 120);
+        drawFeatureRichRegion(fullMap, 170, 170, 280, 280);
+        LargeMapFeatureIndex index = LargeMapFeatureIndex.ofPreparedMap(fullMap);
+
+        FeatureSet all = index.features(FeatureHomographyLocalizer.DetectorKind.ORB);
+        Rect window = new Rect(0, 0, 150, 150);
+        FeatureSet local = index.featuresWithin(FeatureHomographyLocalizer.DetectorKind.ORB, window);
+
+        assertTrue(all.size() > 0);
+        assertTrue(local.size() > 0);
+        assertTrue(local.size() < all.size());
+        assertEquals(local.size(), local.descriptors().rows());
+        for (KeyPoint keyPoint : local.keypoints()) {
+            assertTrue(window.contains(keyPoint.pt));
+        }
+    }
+
+    @Test
+    public void gridQueryMatchesLinearScanForUnalignedWindow() {
+        Mat fullMap = new Mat(300, 300, CvType.CV_8UC1, new Scalar(255));
+        drawFeatureRichRegion(fullMap, 20, 20, 140, 140);
+        drawFeatureRichRegion(fullMap, 150, 150, 290, 290);
+        LargeMapFeatureIndex index = LargeMapFeatureIndex.ofPreparedMap(fullMap);
+
+        Rect window = new Rect(37, 45, 171, 133);
+        FeatureSet all = index.features(FeatureHomographyLocalizer.DetectorKind.ORB);
+        int expected = 0;
+        for (KeyPoint keyPoint : all.keypoints()) {
+            if (window.contains(keyPoint.pt)) {
+                expected++;
+            }
+        }
+
+        FeatureSet local = index.featuresWithin(FeatureHomographyLocalizer.DetectorKind.ORB, window);
+        assertEquals(expected, local.size());
+    }
+
+    @Test
+    public void indexedLocateFindsPatchInsideWindow() {
+        Mat fullMap = new Mat(300, 300, CvType.CV_8UC1, new Scalar(255));
+        drawFeatureRichRegion(fullMap, 40, 40, 140, 140);
+        drawFeatureRichRegion(fullMap, 170, 170, 280, 280);
+        LargeMapFeatureIndex index = LargeMapFeatureIndex.ofPreparedMap(fullMap);
+
+        Mat patch = new Mat(fullMap, new Rect(50, 50, 80, 80)).clone();
+        Point prior = new Point(90, 90);
+        Rect window = FeatureHomographyLocalizer.searchWindow(index.cols(), index.rows(), patch, prior, 40);
+
+        FeatureHomographyLocalizer.MatchOutcome outcome = FeatureHomographyLocalizer.locate(
+                patch,
+                index,
+                window,
+                new Point(40, 40),
+                FeatureHomographyLocalizer.DetectorKind.ORB,
+                true,
+                new ArrayList<>()
+        );
+
+        if (outcome.found()) {
+            assertEquals(90.0, outcome.mapPointInGlobal().x, 6.0);
+            assertEquals(90.0, outcome.mapPointInGlobal().y, 6.0);
+        }
+    }
+
+    private static void drawFeatureRichRegion(Mat mat, int x0, int y0, int x1, int y1) {
+        Imgproc.rectangle(mat, new Point(x0, y0), new Point(x1, y1), new Scalar(0), -1);
+        for (int i = 0; i < 30; i++) {
+            Imgproc.circle(
+                    mat,
+                    new Point(x0 + 8 + (i * 13) % (x1 - x0 - 16), y0 + 8 + (i * 7) % (y1 - y0 - 16)),
+                    2 + i % 3,
+                    new Scalar(220 - i * 5),
+                    -1
+            );
+        }
+    }
+}
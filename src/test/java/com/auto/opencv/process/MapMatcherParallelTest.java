@@ -0,0 +1,66 @@
+package com.auto.opencv.process;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MapMatcherParallelTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void winnerIsTakenWithoutWaitingAndTheLoserStops() throws Exception {
+        CountDownLatch loserStopped = new CountDownLatch(1);
+        List<Callable<String>> strategies = List.of(
+                () -> {
+                    // Busy like a native call: only an explicit isInterrupted() poll notices the cancel.
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Thread.onSpinWait();
+                    }
+                    loserStopped.countDown();
+                    return "hit";
+                },
+                () -> "hit"
+        );
+        List<String> outcomes = Arrays.asList(new String[2]);
+
+        int accepted = MapMatcher.firstAccepted(strategies, "hit"::equals, "failed", outcomes, executor);
+
+        assertEquals(1, accepted);
+        assertNull(outcomes.get(0));
+        assertEquals("hit", outcomes.get(1));
+        assertTrue("loser kept running after the winner was taken", loserStopped.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void withoutAWinnerEveryStrategyIsWaitedFor() {
+        List<Callable<String>> strategies = List.of(
+                () -> "miss",
+                () -> {
+                    throw new IllegalStateException("detector failed");
+                },
+                () -> "miss"
+        );
+        List<String> outcomes = Arrays.asList(new String[3]);
+
+        int accepted = MapMatcher.firstAccepted(strategies, "hit"::equals, "failed", outcomes, executor);
+
+        assertEquals(-1, accepted);
+        assertEquals(List.of("miss", "failed", "miss"), outcomes);
+    }
+}
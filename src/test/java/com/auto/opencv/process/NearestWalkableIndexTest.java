@@ -0,0 +1,57 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NearestWalkableIndexTest {
+    @Test
+    public void nearestCellMatchesBruteForceDistance() {
+        int cols = 47;
+        int rows = 31;
+        Random random = new Random(7);
+        boolean[] walkable = new boolean[cols * rows];
+        for (int i = 0; i < walkable.length; i++) {
+            walkable[i] = random.nextInt(10) == 0;
+        }
+        NearestWalkableIndex index = NearestWalkableIndex.build(WalkabilityGrid.fromWalkable(walkable, cols, rows));
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                int cell = index.nearestCell(x, y);
+                assertTrue(walkable[cell]);
+                assertEquals(bruteForceSquaredDistance(walkable, cols, rows, x, y), squaredDistance(cell, cols, x, y));
+                if (walkable[y * cols + x]) {
+                    assertEquals(y * cols + x, cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mapWithoutWalkableCellsHasNoNearest() {
+        NearestWalkableIndex index = NearestWalkableIndex.build(WalkabilityGrid.fromWalkable(new boolean[12], 4, 3));
+
+        assertEquals(-1, index.nearestCell(1, 1));
+        assertEquals(-1, index.nearestCell(9, 1));
+    }
+
+    private static long bruteForceSquaredDistance(boolean[] walkable, int cols, int rows, int x, int y) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < walkable.length; i++) {
+            if (walkable[i]) {
+                best = Math.min(best, squaredDistance(i, cols, x, y));
+            }
+        }
+        return best;
+    }
+
+    private static long squaredDistance(int cell, int cols, int x, int y) {
+        long dx = cell % cols - x;
+        long dy = cell / cols - y;
+        return dx * dx + dy * dy;
+    }
+}
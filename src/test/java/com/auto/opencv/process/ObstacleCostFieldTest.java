@@ -0,0 +1,63 @@
+package com.auto.opencv.process;
+
+import com.auto.config.ObstacleCostConfig;
+import com.auto.vision.OpenCvLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ObstacleCostFieldTest {
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void defaultFieldMatchesLegacyWindowSum() {
+        int cols = 40;
+        int rows = 30;
+        boolean[] blocked = new boolean[cols * rows];
+        Random random = new Random(7);
+        for (int i = 0; i < blocked.length; i++) {
+            blocked[i] = random.nextDouble() < 0.1;
+        }
+
+        float[] field = ObstacleCostField.compute(blocked, cols, rows, ObstacleCostConfig.defaults());
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                assertEquals(legacyCost(blocked, cols, rows, x, y), field[y * cols + x], 1e-2);
+            }
+        }
+    }
+
+    @Test
+    public void openAreaFarFromWallsCostsZero() {
+        int cols = 50;
+        int rows = 50;
+        boolean[] blocked = new boolean[cols * rows];
+        blocked[0] = true;
+
+        float[] field = ObstacleCostField.compute(blocked, cols, rows, new ObstacleCostConfig(5, 10.0, 2.0));
+
+        assertEquals(0f, field[25 * cols + 25], 0f);
+        assertEquals(10.0 / Math.pow(2, 2), field[1], 1e-3);
+    }
+
+    private static double legacyCost(boolean[] blocked, int cols, int rows, int x, int y) {
+        double cost = 0;
+        for (int dy = -10; dy <= 10; dy++) {
+            for (int dx = -10; dx <= 10; dx++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if (nx >= 0 && nx < cols && ny >= 0 && ny < rows && blocked[ny * cols + nx]) {
+                    cost += 10.0 / (Math.sqrt(dx * dx + dy * dy) + 1);
+                }
+            }
+        }
+        return cost;
+    }
+}
@@ -7,8 +7,10 @@ import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
 
+import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -41,6 +43,24 @@ public class PathPlannerTest {
         assertEquals(0, path.length);
     }
 
+    @Test
+    public void legacySearchOnSharedGridMatchesMapImage() {
+        Mat map = Mat.zeros(6, 6, CvType.CV_8UC1);
+        boolean[] walkable = new boolean[36];
+        Arrays.fill(walkable, true);
+        for (int y = 0; y < 5; y++) {
+            map.put(y, 3, 255);
+            walkable[y * 6 + 3] = false;
+        }
+        WalkabilityGrid grid = WalkabilityGrid.fromWalkable(walkable, 6, 6);
+
+        int[][] fromImage = new PathPlanner(map, new Point(0, 0), new Point(5, 0), 200.0).findRawPath();
+        int[][] fromGrid = new PathPlanner(grid, new Point(0, 0), new Point(5, 0)).findRawPath();
+
+        assertTrue(fromGrid.length > 0);
+        assertArrayEquals(fromImage, fromGrid);
+    }
+
     @Test
     public void simplifiesCollinearPoints() {
         List<Point> simplified = PathPlanner.simplifyPath(List.of(
@@ -0,0 +1,69 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PathSmootherTest {
+    @Test
+    public void staircaseInOpenSpaceCollapsesToOneSegment() {
+        int cols = 60;
+        int rows = 40;
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, new boolean[cols * rows], new float[cols * rows]);
+
+        int[][] path = grid.findPath(2, 3, 55, 30);
+        int[][] smoothed = PathSmoother.smooth(path, grid);
+
+        assertEquals(2, smoothed.length);
+        assertEquals(2, smoothed[0][0]);
+        assertEquals(30, smoothed[1][1]);
+    }
+
+    @Test
+    public void shortcutsDoNotCrossWallsOrCutCloserToThem() {
+        int cols = 80;
+        int rows = 60;
+        boolean[] blocked = new boolean[cols * rows];
+        for (int y = 0; y < 45; y++) {
+            blocked[y * cols + 40] = true;
+        }
+        float[] cost = new float[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                int distance = Math.max(Math.abs(x - 40), Math.max(0, y - 44));
+                if (!blocked[y * cols + x] && distance <= 3) {
+                    cost[y * cols + x] = 4 - distance;
+                }
+            }
+        }
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, cost);
+
+        int[][] path = grid.findPath(10, 10, 70, 10);
+        int[][] smoothed = PathSmoother.smooth(path, grid);
+
+        assertTrue(smoothed.length < path.length);
+        float pathMaxCost = 0;
+        for (int[] cell : path) {
+            pathMaxCost = Math.max(pathMaxCost, cost[cell[1] * cols + cell[0]]);
+        }
+        for (int i = 1; i < smoothed.length; i++) {
+            assertTrue(PathSmoother.lineOfSight(grid, smoothed[i - 1], smoothed[i], pathMaxCost));
+        }
+        assertFalse(PathSmoother.lineOfSight(grid, smoothed[0], smoothed[smoothed.length - 1], Float.MAX_VALUE));
+    }
+
+    @Test
+    public void diagonalGapBetweenWallsIsNotCut() {
+        int cols = 10;
+        int rows = 10;
+        boolean[] blocked = new boolean[cols * rows];
+        blocked[5 * cols + 4] = true;
+        blocked[4 * cols + 5] = true;
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]);
+
+        assertFalse(PathSmoother.lineOfSight(grid, new int[] {4, 4}, new int[] {5, 5}, 0));
+        assertTrue(PathSmoother.lineOfSight(grid, new int[] {1, 1}, new int[] {3, 3}, 0));
+    }
+}
@@ -0,0 +1,46 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import static com.auto.opencv.process.GridPathAssertions.assertContiguousWalkable;
+import static com.auto.opencv.process.GridPathAssertions.fillRect;
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PyramidPlannerTest {
+    @Test
+    public void corridorRefinementIsNearOptimalAndExpandsLess() {
+        int cols = 240;
+        int rows = 180;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 80, 0, 8, 140);
+        fillRect(blocked, cols, 160, 40, 8, 140);
+        float[] cost = new float[cols * rows];
+        GridAStarPlanner exact = new GridAStarPlanner(cols, rows, blocked, cost);
+        PyramidPlanner planner = PyramidPlanner.fromGrid(new GridAStarPlanner(cols, rows, blocked, cost));
+
+        int[][] path = planner.findPath(10, 170, 230, 5);
+        int[][] optimal = exact.findPath(10, 170, 230, 5);
+
+        assertContiguousWalkable(path, blocked, cols, 10, 170, 230, 5);
+        assertTrue(pathCost(path, cost, cols) <= pathCost(optimal, cost, cols) * 1.1);
+        assertTrue(planner.lastExpansions() < exact.lastExpansions());
+    }
+
+    @Test
+    public void gapClosedByPoolingFallsBackToExactSearch() {
+        int cols = 64;
+        int rows = 64;
+        boolean[] blocked = new boolean[cols * rows];
+        fillRect(blocked, cols, 30, 0, 2, rows);
+        blocked[33 * cols + 30] = false;
+        blocked[33 * cols + 31] = false;
+        PyramidPlanner planner = PyramidPlanner.fromGrid(new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]));
+
+        int[][] path = planner.findPath(5, 5, 60, 60);
+
+        assertContiguousWalkable(path, blocked, cols, 5, 5, 60, 60);
+        assertEquals(0, planner.findPath(5, 5, 30, 5).length);
+    }
+}
@@ -0,0 +1,52 @@
+package com.auto.opencv.process;
+
+import com.auto.vision.OpenCvLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PyramidTemplateLocalizerTest {
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void findsPatchInsideWindowAtFullResolution() {
+        Mat noise = new Mat(400, 500, CvType.CV_8UC1);
+        Core.setRNGSeed(11);
+        Core.randu(noise, 0, 256);
+        Mat map = new Mat();
+        Imgproc.GaussianBlur(noise, map, new Size(3, 3), 1.0);
+        Mat patch = map.submat(new Rect(213, 157, 100, 100)).clone();
+
+        assertEquals(3, PyramidTemplateLocalizer.levelsFor(patch));
+        PyramidTemplateLocalizer.Match match = PyramidTemplateLocalizer.locate(map, patch, new Rect(120, 60, 300, 280));
+
+        assertNotNull(match);
+        assertEquals(213.0, match.topLeft().x, 0.0);
+        assertEquals(157.0, match.topLeft().y, 0.0);
+        assertTrue(match.score() > 0.95);
+        assertTrue(match.scoreGap() > 0.2);
+    }
+
+    @Test
+    public void flatPatchIsNotCorrelated() {
+        Mat map = new Mat(200, 200, CvType.CV_8UC1);
+        Core.randu(map, 0, 256);
+        Mat flat = new Mat(60, 60, CvType.CV_8UC1, new Scalar(90));
+
+        assertNull(PyramidTemplateLocalizer.locate(map, flat, new Rect(0, 0, 200, 200)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.auto.opencv.process.GridPathAssertions.pathCost;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TargetTourTest {
+    @Test
+    public void ordersTargetsAlongCorridorAndMatchesPlannerCosts() {
+        int cols = 120;
+        int rows = 40;
+        boolean[] blocked = new boolean[cols * rows];
+        for (int y = 0; y < 30; y++) {
+            blocked[y * cols + 60] = true;
+        }
+        float[] cost = new float[cols * rows];
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, cost);
+        int[][] targets = {{110, 5}, {20, 5}, {70, 5}, {40, 5}};
+
+        TargetTour tour = TargetTour.plan(grid, 5, 5, targets, new ForkJoinPool(2));
+
+        assertEquals(4, tour.legCount());
+        assertArrayEquals(new int[] {20, 5}, tour.legTarget(0));
+        assertArrayEquals(new int[] {40, 5}, tour.legTarget(1));
+        assertArrayEquals(new int[] {70, 5}, tour.legTarget(2));
+        assertArrayEquals(new int[] {110, 5}, tour.legTarget(3));
+        assertEquals(pathCost(grid, grid.findPath(40, 5, 70, 5)), tour.cost(3, 2), 1e-3);
+        assertEquals(
+                tour.cost(-1, 1) + tour.cost(1, 3) + tour.cost(3, 2) + tour.cost(2, 0),
+                tour.totalCost(),
+                1e-9
+        );
+        assertTrue(tour.legField(3).findPath(30, 30, 110, 5).length > 0);
+        assertEquals(0, tour.skippedTargets().length);
+    }
+
+    @Test
+    public void orderIsNearOptimalAndUnreachableTargetsAreSkipped() {
+        int cols = 100;
+        int rows = 100;
+        boolean[] blocked = new boolean[cols * rows];
+        for (int x = 0; x < 10; x++) {
+            blocked[90 * cols + x] = true;
+        }
+        for (int y = 90; y < rows; y++) {
+            blocked[y * cols + 10] = true;
+        }
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]);
+        int[][] targets = {{50, 0}, {0, 50}, {99, 50}, {50, 99}, {5, 95}};
+
+        TargetTour tour = TargetTour.plan(grid, 50, 50, targets);
+
+        assertArrayEquals(new int[] {4}, tour.skippedTargets());
+        assertEquals(4, tour.legCount());
+        double best = Double.POSITIVE_INFINITY;
+        for (int[] order : permutations(new int[] {0, 1, 2, 3})) {
+            double total = tour.cost(-1, order[0]);
+            for (int i = 1; i < order.length; i++) {
+                total += tour.cost(order[i - 1], order[i]);
+            }
+            best = Math.min(best, total);
+        }
+        assertTrue(tour.totalCost() <= best * 1.05);
+    }
+
+    private static List<int[]> permutations(int[] items) {
+        List<int[]> result = new ArrayList<>();
+        if (items.length == 1) {
+            result.add(items.clone());
+            return result;
+        }
+        for (int i = 0; i < items.length; i++) {
+            int[] rest = new int[items.length - 1];
+            for (int j = 0, k = 0; j < items.length; j++) {
+                if (j != i) {
+                    rest[k++] = items[j];
+                }
+            }
+            for (int[] tail : permutations(rest)) {
+                int[] order = new int[items.length];
+                order[0] = items[i];
+                System.arraycopy(tail, 0, order, 1, tail.length);
+                result.add(order);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WalkabilityGridTest {
+    @Test
+    public void rowScansCrossWordBoundaries() {
+        int cols = 130;
+        int rows = 3;
+        boolean[] walkable = new boolean[cols * rows];
+        walkable[cols + 70] = true;
+        walkable[cols + 129] = true;
+        for (int x = 0; x < cols; x++) {
+            walkable[2 * cols + x] = x != 64 && x != 128;
+        }
+        WalkabilityGrid grid = WalkabilityGrid.fromWalkable(walkable, cols, rows);
+
+        assertEquals(3, grid.wordsPerRow());
+        assertEquals(-1, grid.nextWalkable(0, 0));
+        assertEquals(cols, grid.nextBlocked(2, 129));
+        assertEquals(70, grid.nextWalkable(1, 0));
+        assertEquals(129, grid.nextWalkable(1, 71));
+        assertEquals(-1, grid.nextWalkable(1, 130));
+        assertEquals(64, grid.nextBlocked(2, 0));
+        assertEquals(128, grid.nextBlocked(2, 65));
+        assertEquals(0, grid.nextBlocked(1, 0));
+    }
+
+    @Test
+    public void countsAndExpansionsMatchSource() {
+        int cols = 70;
+        int rows = 5;
+        boolean[] walkable = new boolean[cols * rows];
+        int expected = 0;
+        for (int i = 0; i < walkable.length; i++) {
+            walkable[i] = i % 3 == 0;
+            expected += walkable[i] ? 1 : 0;
+        }
+        WalkabilityGrid grid = WalkabilityGrid.fromWalkable(walkable, cols, rows);
+
+        assertEquals(expected, grid.countWalkable());
+        boolean[] blocked = new boolean[walkable.length];
+        for (int i = 0; i < blocked.length; i++) {
+            blocked[i] = !walkable[i];
+        }
+        WalkabilityGrid fromBlocked = WalkabilityGrid.fromBlocked(blocked, cols, rows);
+        boolean[][] rowsMask = grid.toWalkableRows();
+        int rowSum = 0;
+        for (int y = 0; y < rows; y++) {
+            rowSum += grid.countWalkable(y);
+            for (int x = 0; x < cols; x++) {
+                assertEquals(walkable[y * cols + x], grid.isWalkable(x, y));
+                assertEquals(walkable[y * cols + x], rowsMask[y][x]);
+                assertEquals(walkable[y * cols + x], fromBlocked.isWalkable(x, y));
+            }
+        }
+        assertEquals(expected, rowSum);
+    }
+
+    @Test
+    public void paddingBitsStayClearAndOutsideIsBlocked() {
+        int cols = 65;
+        boolean[] walkable = new boolean[cols];
+        Arrays.fill(walkable, true);
+        WalkabilityGrid grid = WalkabilityGrid.fromWalkable(walkable, cols, 1);
+
+        assertEquals(1L, grid.word(0, 1));
+        assertEquals(cols, grid.countWalkable());
+        assertFalse(grid.isWalkable(-1, 0));
+        assertFalse(grid.isWalkable(cols, 0));
+        assertFalse(grid.isWalkable(0, 1));
+        assertTrue(grid.isWalkable(64, 0));
+        assertEquals(cols, grid.nextBlocked(0, 0));
+    }
+}
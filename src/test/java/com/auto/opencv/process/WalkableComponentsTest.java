@@ -0,0 +1,63 @@
+package com.auto.opencv.process;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WalkableComponentsTest {
+    @Test
+    public void wallSplitsMapAndDiagonalTouchJoins() {
+        int cols = 140;
+        int rows = 20;
+        boolean[] walkable = new boolean[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                walkable[y * cols + x] = x != 70;
+            }
+        }
+        walkable[5 * cols + 69] = false;
+        walkable[5 * cols + 71] = false;
+        WalkableComponents split = WalkableComponents.build(WalkabilityGrid.fromWalkable(walkable, cols, rows));
+
+        assertEquals(2, split.componentCount());
+        assertFalse(split.connected(3, 3, 130, 3));
+        assertEquals(70 * rows - 1, split.size(split.label(3, 3)));
+        assertEquals(0, split.label(70, 0));
+
+        walkable[5 * cols + 70] = true;
+        walkable[5 * cols + 69] = true;
+        walkable[6 * cols + 71] = false;
+        WalkableComponents joined = WalkableComponents.build(WalkabilityGrid.fromWalkable(walkable, cols, rows));
+
+        assertEquals(1, joined.componentCount());
+        assertTrue(joined.connected(3, 3, 130, 3));
+    }
+
+    @Test
+    public void labelsAgreeWithGridPlanner() {
+        int cols = 60;
+        int rows = 40;
+        Random random = new Random(11);
+        boolean[] blocked = new boolean[cols * rows];
+        boolean[] walkable = new boolean[cols * rows];
+        for (int i = 0; i < blocked.length; i++) {
+            blocked[i] = random.nextInt(100) < 55;
+            walkable[i] = !blocked[i];
+        }
+        WalkableComponents components = WalkableComponents.build(WalkabilityGrid.fromWalkable(walkable, cols, rows));
+        GridAStarPlanner grid = new GridAStarPlanner(cols, rows, blocked, new float[cols * rows]);
+
+        for (int trial = 0; trial < 200; trial++) {
+            int sx = random.nextInt(cols);
+            int sy = random.nextInt(rows);
+            int ex = random.nextInt(cols);
+            int ey = random.nextInt(rows);
+            boolean found = grid.findPath(sx, sy, ex, ey).length > 0;
+            assertEquals(found, components.connected(sx, sy, ex, ey));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.auto.ui;
+
+import com.auto.config.AppConfigLoader;
+import com.auto.config.NavigationConfig;
+import com.auto.config.PlannerMode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class NavigationFormTest {
+    @Test
+    public void loadedPlannerSurvivesTheForm() throws IOException {
+        NavigationConfig loaded = new AppConfigLoader()
+                .loadFromString(defaultConfigJson().replace("\"planner\": \"astar\"", "\"planner\": \"jps\""))
+                .vision()
+                .navigation();
+
+        NavigationConfig built = NavigationForm.Companion.from(loaded).toConfig();
+
+        assertEquals(PlannerMode.JPS, built.planner());
+        assertEquals(loaded, built);
+    }
+
+    private static String defaultConfigJson() throws IOException {
+        try (InputStream in = NavigationFormTest.class.getClassLoader()
+                .getResourceAsStream(AppConfigLoader.DEFAULT_RESOURCE)) {
+            assertNotNull(in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -63,6 +63,60 @@ public class LocalizationSmootherTest {
         assertTrue(result.outlierRejected());
     }
 
+    @Test
+    public void kalmanFilterPredictsAlongRecentMotionAndNarrowsSearch() {
+        NavigationConfig navigation = kalmanConfig();
+        for (int tick = 0; tick < 8; tick++) {
+            smoother.correct(new Point(100 + tick * 10, 200), 0.9, navigation, 80);
+        }
+
+        Point center = smoother.searchCenter(navigation);
+        assertEquals(180.0, center.x, 3.0);
+        assertEquals(200.0, center.y, 1.0);
+        assertTrue(smoother.searchRadius(navigation, 80, 320) < 320);
+        assertTrue(smoother.searchRadius(navigation, 80, 320) >= LocalizationSmoother.MIN_SEARCH_RADIUS_PX);
+
+        LocalizationResult predicted = smoother.correct(null, 0.0, navigation, 80);
+        assertEquals(LocalizationMethod.SMOOTHED_PREVIOUS, predicted.method());
+        assertEquals(180.0, predicted.acceptedPoint().x, 3.0);
+    }
+
+    @Test
+    public void searchRadiusFallsBackWithoutFilter() {
+        NavigationConfig navigation = navigationConfig(true, 0.0);
+        smoother.correct(new Point(100, 100), 0.9, navigation, 80);
+
+        assertEquals(320, smoother.searchRadius(navigation, 80, 320));
+        assertEquals(new Point(100, 100), smoother.searchCenter(navigation));
+    }
+
+    private static NavigationConfig kalmanConfig() {
+        NavigationConfig defaults = NavigationConfig.defaults();
+        return new NavigationConfig(
+                defaults.tickIntervalMs(),
+                defaults.stuckTimeoutMs(),
+                defaults.stuckDistanceThreshold(),
+                defaults.waypointReachDistance(),
+                defaults.maxStuckRetries(),
+                defaults.minLocalizationConfidence(),
+                defaults.localizationSmoothingAlpha(),
+                defaults.localizationMaxPredictFrames(),
+                true,
+                0.0,
+                defaults.screenCalibration(),
+                defaults.obstacleCost(),
+                defaults.planner(),
+                defaults.smoothPath(),
+                defaults.planningBudgetMs(),
+                false,
+                false,
+                false,
+                true,
+                defaults.detectedObstacleTtlMs(),
+                defaults.detectedObstacleClasses()
+        );
+    }
+
     private static NavigationConfig navigationConfig(boolean outlierRejectionEnabled, double maxJumpPx) {
         return new NavigationConfig(
                 400,
@@ -0,0 +1,57 @@
+package com.auto.vision;
+
+import com.auto.config.PointConfig;
+import com.auto.config.RegionConfig;
+import com.auto.config.VisionConfig;
+import com.auto.opencv.process.FeatureHomographyLocalizer;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MapArtifactCacheTest {
+    @Test
+    public void artifactsRoundTripThroughMappedFile() throws Exception {
+        OpenCvLoader.load();
+        VisionConfig config = new VisionConfig(
+                "Game",
+                "img/sggd/largeMap_2.bmp",
+                "img/arrow_template2.bmp",
+                new RegionConfig(0, 0, 10, 10),
+                new PointConfig(1, 1),
+                50,
+                200.0,
+                80,
+                10.0
+        );
+        MapArtifactCache.MapArtifacts built = MapArtifactCache.build(config);
+        built.featureIndex().warmUp();
+
+        Path tempDir = Files.createTempDirectory("autoaction-map-artifacts");
+        String key = "hash|" + MapArtifactCache.cacheKey(config);
+        Path file = MapArtifactCache.artifactPath(tempDir, config.mapImage(), key);
+        assertTrue(MapArtifactCache.write(file, key, built));
+
+        MapArtifactCache.MapArtifacts loaded = MapArtifactCache.read(file, key);
+        assertNotNull(loaded);
+        Mat diff = new Mat();
+        Core.absdiff(built.pathfindingMap(), loaded.pathfindingMap(), diff);
+        assertEquals(0, Core.countNonZero(diff));
+        assertEquals(built.featureIndex().cols(), loaded.featureIndex().cols());
+        for (FeatureHomographyLocalizer.DetectorKind detector : FeatureHomographyLocalizer.DetectorKind.values()) {
+            assertEquals(
+                    built.featureIndex().keypointCount(detector),
+                    loaded.featureIndex().keypointCount(detector)
+            );
+        }
+
+        assertNull(MapArtifactCache.read(file, "other|" + MapArtifactCache.cacheKey(config)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.auto.vision;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class MinimapMotionTrackerTest {
+    private static final Point ARROW = new Point(50, 50);
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCvLoader.load();
+    }
+
+    @Test
+    public void deadReckonsAgainstPatchShiftAndRequiresAnchor() {
+        Mat world = texture();
+        MinimapMotionTracker tracker = new MinimapMotionTracker();
+        assertNull(tracker.track(patchAt(world, 100, 100), ARROW));
+
+        tracker.anchor(patchAt(world, 100, 100), ARROW, new Point(500, 400));
+        MinimapMotionTracker.Step step = tracker.track(patchAt(world, 104, 97), ARROW);
+
+        assertNotNull(step);
+        assertEquals(504.0, step.mapPoint().x, 0.5);
+        assertEquals(397.0, step.mapPoint().y, 0.5);
+    }
+
+    @Test
+    public void asksForRelocalizationOnceFrameBudgetIsSpent() {
+        Mat world = texture();
+        MinimapMotionTracker tracker = new MinimapMotionTracker();
+        tracker.anchor(patchAt(world, 20, 100), ARROW, new Point(0, 0));
+
+        MinimapMotionTracker.Step step = null;
+        int x = 20;
+        for (int frame = 0; frame < MinimapMotionTracker.MAX_TRACKED_FRAMES + 1; frame++) {
+            x += 6;
+            step = tracker.track(patchAt(world, x, 100), ARROW);
+            if (step == null) {
+                break;
+            }
+        }
+        assertNull(step);
+    }
+
+    private static Mat texture() {
+        Mat noise = new Mat(300, 400, CvType.CV_8UC3);
+        Core.setRNGSeed(7);
+        Core.randu(noise, 0, 256);
+        Mat world = new Mat();
+        Imgproc.GaussianBlur(noise, world, new Size(5, 5), 1.5);
+        return world;
+    }
+
+    private static Mat patchAt(Mat world, int x, int y) {
+        return world.submat(new Rect(x, y, 100, 100)).clone();
+    }
+}
@@ -1,9 +1,12 @@
 package com.auto.vision;
 
 import com.auto.config.NavigationConfig;
+import com.auto.config.PointConfig;
 import org.junit.Test;
 import org.opencv.core.Point;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 public class NavigationControllerTest {
@@ -73,6 +76,49 @@ public class NavigationControllerTest {
         assertEquals(NavigationAction.STOP_ARRIVED, decision.action());
     }
 
+    @Test
+    public void arrivingAtTourLegSwitchesToNextTarget() {
+        NavigationController tour = new NavigationController(
+                NavigationConfig.defaults(),
+                List.of(new PointConfig(100, 100), new PointConfig(300, 40))
+        );
+        tour.decide(movingAnalysis(new Point(10, 10), new Point(80, 10), new Point(400, 300)), 1_000L);
+
+        NavigationDecision legDone = tour.decide(arrivedAnalysis(), 2_000L);
+
+        assertEquals(NavigationAction.SKIP_CLICK, legDone.action());
+        assertEquals(1, tour.targetIndex());
+        assertEquals(new PointConfig(300, 40), tour.currentTarget());
+        assertEquals(0, tour.waypointIndex());
+        assertEquals(
+                NavigationAction.CLICK,
+                tour.decide(movingAnalysis(new Point(100, 100), new Point(150, 80), new Point(420, 300)), 2_200L).action()
+        );
+        assertEquals(NavigationAction.STOP_ARRIVED, tour.decide(arrivedAnalysis(), 3_000L).action());
+    }
+
+    private static NavigationAnalysis arrivedAnalysis() {
+        return new NavigationAnalysis(
+                "test",
+                null,
+                null,
+                null,
+                null,
+                null,
+                new Point(1, 1),
+                new Point(100, 100),
+                new Point(100, 100),
+                new Point(100, 100),
+                null,
+                new int[][]{{1, 1}, {100, 100}},
+                true,
+                true,
+                "arrived",
+                0.95,
+                LocalizationMethod.MAP_MATCH
+        );
+    }
+
     private static NavigationAnalysis movingAnalysis(Point current, Point nextMap, Point nextScreen) {
         return new NavigationAnalysis(
                 "test",
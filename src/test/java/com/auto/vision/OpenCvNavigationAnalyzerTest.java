@@ -1,19 +1,24 @@
 package com.auto.vision;
 
 import com.auto.config.AppConfigLoader;
+import com.auto.config.PointConfig;
 import com.auto.config.RegionConfig;
 import com.auto.config.VisionConfig;
 import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.opencv.core.Point;
 
 import javax.imageio.ImageIO;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 public class OpenCvNavigationAnalyzerTest {
@@ -26,6 +31,20 @@ public class OpenCvNavigationAnalyzerTest {
     OpenCvLoader.load();
   }
 
+  @Test
+  public void tourWithTooManyTargetsIsRefused() {
+    VisionConfig loaded = new AppConfigLoader().loadFromResource("autoActionConfig.json").vision();
+    List<PointConfig> targets = new ArrayList<>();
+    for (int i = 0; i <= OpenCvNavigationAnalyzer.MAX_TOUR_TARGETS; i++) {
+      targets.add(new PointConfig(10 + i, 10));
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new OpenCvNavigationAnalyzer().planTour(loaded, new Point(0, 0), targets)
+    );
+  }
+
   @Test
   public void sampleAnalysisProducesRouteAndPreviewImages() throws Exception {
     Assume.assumeTrue("Requires navigation-debug capture", Files.exists(DEBUG_CAPTURE));
@@ -49,7 +68,7 @@ public class OpenCvNavigationAnalyzerTest {
           loaded.mapImage(),
           loaded.arrowTemplate(),
           new RegionConfig(64, 86, 84, 80),
-          new com.auto.config.PointConfig(candidateTarget[0], candidateTarget[1]),
+          new PointConfig(candidateTarget[0], candidateTarget[1]),
           loaded.matchAreaSize(),
           loaded.obstacleThreshold(),
           loaded.moveStep(),
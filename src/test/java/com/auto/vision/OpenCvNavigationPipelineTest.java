@@ -0,0 +1,87 @@
+package com.auto.vision;
+
+import com.auto.config.MapClosureConfig;
+import com.auto.config.MapPreprocessConfig;
+import com.auto.config.NavigationConfig;
+import com.auto.config.OcrConfig;
+import com.auto.config.PointConfig;
+import com.auto.config.RegionConfig;
+import com.auto.config.VisionConfig;
+import com.auto.config.YoloConfig;
+import com.auto.detection.DetectedObject;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class OpenCvNavigationPipelineTest {
+    private final AtomicInteger detectCalls = new AtomicInteger();
+    private final OpenCvNavigationPipeline pipeline = new OpenCvNavigationPipeline(
+            null,
+            new OpenCvNavigationAnalyzer(),
+            (yolo, image) -> {
+                detectCalls.incrementAndGet();
+                return List.of(new DetectedObject("drop", 0.9, new Rectangle(10, 10, 20, 20), 1));
+            }
+    );
+    private final BufferedImage frame = new BufferedImage(64, 64, BufferedImage.TYPE_3BYTE_BGR);
+
+    @Test
+    public void detectionIsSkippedWithoutObstacleTtl() {
+        assertEquals(0, pipeline.markDetectedObstacles(config(0, List.of()), frame));
+        assertEquals(0, detectCalls.get());
+    }
+
+    @Test
+    public void onlyConfiguredClassesBecomeObstacles() {
+        assertEquals(0, pipeline.markDetectedObstacles(config(1500, List.of("npc")), frame));
+        assertEquals(1, detectCalls.get());
+    }
+
+    private static VisionConfig config(int obstacleTtlMs, List<String> obstacleClasses) {
+        NavigationConfig defaults = NavigationConfig.defaults();
+        NavigationConfig navigation = new NavigationConfig(
+                defaults.tickIntervalMs(),
+                defaults.stuckTimeoutMs(),
+                defaults.stuckDistanceThreshold(),
+                defaults.waypointReachDistance(),
+                defaults.maxStuckRetries(),
+                defaults.minLocalizationConfidence(),
+                defaults.localizationSmoothingAlpha(),
+                defaults.localizationMaxPredictFrames(),
+                defaults.localizationOutlierRejectionEnabled(),
+                defaults.maxLocalizationJumpPx(),
+                defaults.screenCalibration(),
+                defaults.obstacleCost(),
+                defaults.planner(),
+                defaults.smoothPath(),
+                defaults.planningBudgetMs(),
+                defaults.parallelLocalization(),
+                defaults.motionTracking(),
+                defaults.templateLocalization(),
+                defaults.kalmanLocalization(),
+                obstacleTtlMs,
+                obstacleClasses
+        );
+        return new VisionConfig(
+                "Game",
+                "img/sggd/largeMap_2.bmp",
+                "img/arrow_template2.bmp",
+                new RegionConfig(64, 86, 84, 80),
+                new PointConfig(779, 285),
+                100,
+                200.0,
+                80,
+                10.0,
+                OcrConfig.disabled(),
+                new YoloConfig(true, "models/ui-detector.onnx", "", 640, 640, 0.25, 0.45, 50, null, List.of()),
+                MapPreprocessConfig.defaults(),
+                MapClosureConfig.defaults(),
+                navigation
+        );
+    }
+}
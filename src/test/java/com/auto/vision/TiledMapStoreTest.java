@@ -0,0 +1,36 @@
+package com.auto.vision;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TiledMapStoreTest {
+    @Test
+    public void regionAcrossTilesMatchesSourceAndDecodesWithinBudget() {
+        OpenCvLoader.load();
+        Mat map = new Mat(700, 1000, CvType.CV_8UC3);
+        Core.randu(map, 0, 256);
+        TiledMapStore store = TiledMapStore.fromMat(map, 256, 4);
+
+        assertEquals(3, store.levels());
+        Rect rect = new Rect(200, 150, 300, 300);
+        Mat region = store.region(rect, 0);
+        Mat diff = new Mat();
+        Core.absdiff(region, map.submat(rect), diff);
+        assertEquals(0, Core.countNonZero(diff.reshape(1)));
+        assertTrue(store.decodedTileCount() <= 4);
+
+        Mat coarse = store.region(rect, 1);
+        assertEquals(150, coarse.cols());
+        assertEquals(150, coarse.rows());
+        assertEquals(2, store.levelFor(1000, 700, 300));
+
+        store.release();
+        assertEquals(0, store.decodedTileCount());
+    }
+}
@@ -0,0 +1,164 @@
+package com.auto.vision;
+
+import com.auto.config.MapClosureConfig;
+import com.auto.config.MapPreprocessConfig;
+import com.auto.config.NavigationConfig;
+import com.auto.config.ObstacleCostConfig;
+import com.auto.config.OcrConfig;
+import com.auto.config.PointConfig;
+import com.auto.config.PortalConfig;
+import com.auto.config.RegionConfig;
+import com.auto.config.VisionConfig;
+import com.auto.config.YoloConfig;
+import com.auto.config.ZoneConfig;
+import com.auto.opencv.process.GridAStarPlanner;
+import com.auto.opencv.process.WalkabilityGrid;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ZoneRegistryTest {
+    private static final int SIZE = 20;
+
+    @Test
+    public void routeTakesTheCheaperPortalChain() throws Exception {
+        ZoneRegistry registry = new ZoneRegistry(world(), 3, new FakeMaps(Files.createTempDirectory("autoaction-zones")));
+
+        ZoneRegistry.ZoneRoute route = registry.route("A", new PointConfig(2, 10), "C", new PointConfig(5, 10));
+
+        assertEquals(2, route.legs().size());
+        assertEquals(new ZoneRegistry.ZoneLeg("A", new PointConfig(10, 19)), route.legs().get(0));
+        assertEquals(new ZoneRegistry.ZoneLeg("C", new PointConfig(5, 10)), route.legs().get(1));
+        assertEquals(8 * Math.sqrt(2) + 1 + 5 * Math.sqrt(2) + 5, route.cost(), 1e-3);
+    }
+
+    @Test
+    public void sameZoneRouteIsASingleLeg() throws Exception {
+        ZoneRegistry registry = new ZoneRegistry(world(), 3, new FakeMaps(Files.createTempDirectory("autoaction-zones")));
+
+        ZoneRegistry.ZoneRoute route = registry.route("B", new PointConfig(1, 1), "B", new PointConfig(1, 5));
+
+        assertEquals(List.of(new ZoneRegistry.ZoneLeg("B", new PointConfig(1, 5))), route.legs());
+        assertEquals(4, route.cost(), 1e-3);
+    }
+
+    @Test
+    public void unreachableTargetHasNoRoute() throws Exception {
+        FakeMaps maps = new FakeMaps(Files.createTempDirectory("autoaction-zones"));
+        maps.blockRow = 15;
+        ZoneRegistry registry = new ZoneRegistry(world(), 3, maps);
+
+        assertNull(registry.route("A", new PointConfig(2, 10), "C", new PointConfig(5, 18)));
+    }
+
+    @Test
+    public void portalTablesAreReadBackFromDisk() throws Exception {
+        Path tempDir = Files.createTempDirectory("autoaction-zones");
+        double[][] computed = new ZoneRegistry(world(), 3, new FakeMaps(tempDir)).portalCosts("A");
+
+        FakeMaps fresh = new FakeMaps(tempDir);
+        double[][] loaded = new ZoneRegistry(world(), 3, fresh).portalCosts("A");
+
+        assertEquals(0, fresh.gridLoads);
+        assertEquals(computed.length, loaded.length);
+        for (int i = 0; i < computed.length; i++) {
+            for (int j = 0; j < computed.length; j++) {
+                assertEquals(computed[i][j], loaded[i][j], 0);
+            }
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedZoneIsEvictedButNeverTheCurrentOne() throws Exception {
+        FakeMaps maps = new FakeMaps(Files.createTempDirectory("autoaction-zones"));
+        ZoneRegistry registry = new ZoneRegistry(world(), 2, maps);
+
+        registry.enterZone("A");
+        registry.portalCosts("B");
+        registry.portalCosts("C");
+
+        assertEquals(List.of("zone-b.bmp"), maps.evicted);
+        assertEquals(List.of("A", "C"), registry.residentZones());
+    }
+
+    private static VisionConfig world() {
+        List<ZoneConfig> zones = List.of(
+                new ZoneConfig("A", "zone-a.bmp", List.of(
+                        new PortalConfig("toB", 19, 10, "B", "fromA"),
+                        new PortalConfig("toC", 10, 19, "C", "fromA")
+                )),
+                new ZoneConfig("B", "zone-b.bmp", List.of(
+                        new PortalConfig("fromA", 0, 10, "A", "toB"),
+                        new PortalConfig("toC", 19, 10, "C", "fromB")
+                )),
+                new ZoneConfig("C", "zone-c.bmp", List.of(
+                        new PortalConfig("fromB", 0, 10, "B", "toC"),
+                        new PortalConfig("fromA", 10, 0, "A", "toC")
+                ))
+        );
+        return new VisionConfig(
+                "Game",
+                "zone-a.bmp",
+                "img/arrow_template2.bmp",
+                new RegionConfig(0, 0, 10, 10),
+                new PointConfig(1, 1),
+                50,
+                200.0,
+                80,
+                10.0,
+                OcrConfig.disabled(),
+                YoloConfig.disabled(),
+                MapPreprocessConfig.defaults(),
+                MapClosureConfig.defaults(),
+                NavigationConfig.defaults(),
+                zones
+        );
+    }
+
+    private static final class FakeMaps implements ZoneRegistry.ZoneMaps {
+        private final Path directory;
+        private final List<String> evicted = new ArrayList<>();
+        private int gridLoads;
+        private int blockRow = -1;
+
+        private FakeMaps(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public GridAStarPlanner planningGrid(VisionConfig zoneConfig) {
+            gridLoads++;
+            boolean[] walkable = new boolean[SIZE * SIZE];
+            Arrays.fill(walkable, true);
+            if (blockRow >= 0 && zoneConfig.mapImage().equals("zone-c.bmp")) {
+                Arrays.fill(walkable, blockRow * SIZE, (blockRow + 1) * SIZE, false);
+            }
+            return GridAStarPlanner.fromWalkability(
+                    WalkabilityGrid.fromWalkable(walkable, SIZE, SIZE),
+                    new ObstacleCostConfig(0, 0, 1)
+            );
+        }
+
+        @Override
+        public void evict(VisionConfig zoneConfig) {
+            evicted.add(zoneConfig.mapImage());
+        }
+
+        @Override
+        public String contentKey(VisionConfig zoneConfig) {
+            return "test|" + zoneConfig.mapImage();
+        }
+
+        @Override
+        public List<Path> tableFiles(VisionConfig zoneConfig, String tableKey) {
+            return List.of(directory.resolve(zoneConfig.mapImage() + PortalTableCache.FILE_EXTENSION));
+        }
+    }
+}